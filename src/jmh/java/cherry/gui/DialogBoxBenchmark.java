@@ -0,0 +1,84 @@
+package cherry.gui;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.layout.HBox;
+
+/**
+ * Compares creating a chat bubble from FXML, as {@link DialogBox} used to, with building it in code.
+ * The FXML baseline is the old DialogBox.fxml, kept in the benchmark resources.
+ * <p>
+ * Run with {@code ./gradlew jmh}. The JavaFX toolkit is started once, so a display is needed, or the
+ * openjfx-monocle jar on the class path and {@code -Dglass.platform=Monocle -Dmonocle.platform=Headless
+ * -Dprism.order=sw} to run headless. Building a box only settles after several warmup iterations.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 8, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DialogBoxBenchmark {
+    private static final String REPLY = "✓**Order placed!:\n****buy coffee beans**\n"
+            + "Total items on your list: 3";
+
+    private final ChatMessage message = ChatMessage.fromCherry(REPLY, "success");
+
+    /**
+     * Starts the JavaFX toolkit, which nodes need for their styles and fonts.
+     */
+    @Setup(Level.Trial)
+    public void startToolkit() {
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException e) {
+            // already started by an earlier trial in this JVM
+        }
+    }
+
+    /**
+     * Loads a box from the old FXML, as every bubble used to be created.
+     */
+    @Benchmark
+    public HBox createFromFxml() throws IOException {
+        FXMLLoader fxmlLoader = new FXMLLoader(DialogBoxBenchmark.class.getResource("/view/DialogBoxBaseline.fxml"));
+        HBox root = new HBox();
+        fxmlLoader.setRoot(root);
+        fxmlLoader.load();
+        return root;
+    }
+
+    /**
+     * Builds an empty box in code.
+     */
+    @Benchmark
+    public DialogBox createInCode() {
+        return new DialogBox();
+    }
+
+    /**
+     * Builds a box in code and renders a styled reply in it.
+     */
+    @Benchmark
+    public DialogBox createInCodeAndShowMessage() {
+        DialogBox dialogBox = new DialogBox();
+        dialogBox.showMessage(message, null);
+        return dialogBox;
+    }
+}
@@ -0,0 +1,67 @@
+package cherry.parser;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cherry.exception.CherryException;
+import cherry.task.Task;
+
+/**
+ * Times reading one saved line, as is done for every line of a data file when it is loaded,
+ * and compares reading a deadline date by hand against the regex check, {@code LocalDate.parse}
+ * and the two {@code LocalDate.now()} calls the parser used to make.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LoadLineBenchmark {
+    @Param({
+        "(D) | [ ] | submit report | 2030-12-31",
+        "(D) | [X] | pay rent | 2027-02-28",
+        "(T) | [ ] | read the book",
+        "(E) | [ ] | team meeting | 2pm | 4pm"
+    })
+    private String line;
+
+    private final Parser parser = new Parser();
+
+    @Benchmark
+    public Task getTaskFromString() throws CherryException {
+        return parser.getTaskFromString(line);
+    }
+
+    @Benchmark
+    public LocalDate getDate() throws CherryException {
+        return parser.getDate("2030-12-31");
+    }
+
+    /**
+     * Does the same work as {@link #getDate} the way the parser used to.
+     */
+    @Benchmark
+    public LocalDate getDateWithRegexBaseline() {
+        String trimmed = "2030-12-31";
+        if (!trimmed.matches("\\d{4}-\\d{2}-\\d{2}")) {
+            return null;
+        }
+        LocalDate date = LocalDate.parse(trimmed);
+        if (date.isBefore(LocalDate.now().minusYears(10)) || date.isAfter(LocalDate.now().plusYears(50))) {
+            return null;
+        }
+        return date;
+    }
+}
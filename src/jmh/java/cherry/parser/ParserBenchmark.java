@@ -0,0 +1,109 @@
+package cherry.parser;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cherry.command.Command;
+import cherry.exception.CherryException;
+import cherry.parser.CommandTokens.Flag;
+
+/**
+ * Compares splitting commands with {@link CommandTokens} against the regex normalising, splitting
+ * and rescanning the parser used to do, for every command type, and times whole parses.
+ * <p>
+ * Run with {@code ./gradlew jmh}, adding {@code -prof gc} to the JMH arguments to see the bytes
+ * allocated per operation ({@code gc.alloc.rate.norm}).
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParserBenchmark {
+    private static final String[] FLAGS = {"/by", "/from", "/to", "/desc"};
+
+    @Param({
+        "todo read the book about   coffee beans",
+        "deadline submit report /by 2030-12-31",
+        "event team meeting /from 2pm /to 4pm",
+        "update 3 /desc new name /by 2030-01-01",
+        "mark 12",
+        "unmark 12",
+        "delete 7",
+        "duplicate 7",
+        "find coffee beans",
+        "list 2 20",
+        "help",
+        "bye"
+    })
+    private String input;
+
+    private final Parser parser = new Parser();
+
+    @Benchmark
+    public Command parse() throws CherryException {
+        return parser.parse(input);
+    }
+
+    /**
+     * Splits the input into its command word, description and flags with the lexer.
+     */
+    @Benchmark
+    public String tokenizeWithLexer() {
+        CommandTokens tokens = CommandTokens.lex(input);
+        int end = tokens.size();
+        for (Flag flag : Flag.values()) {
+            if (tokens.getFlagCount(flag) == 1) {
+                end = Math.min(end, tokens.getFlagIndex(flag));
+            }
+        }
+        return tokens.get(0).toLowerCase() + tokens.join(1, end);
+    }
+
+    /**
+     * Does the same work as {@link #tokenizeWithLexer} the way the parser used to.
+     */
+    @Benchmark
+    public String tokenizeWithRegexBaseline() {
+        String[] tokens = input.trim().replaceAll("\\s+", " ").split(" ", 50);
+        int end = tokens.length;
+        for (String flag : FLAGS) {
+            if (hasToken(tokens, flag)) {
+                int count = 0;
+                int index = -1;
+                for (int i = 0; i < tokens.length; i += 1) {
+                    if (flag.equals(tokens[i])) {
+                        count += 1;
+                        index = i;
+                    }
+                }
+                if (count == 1) {
+                    end = Math.min(end, index);
+                }
+            }
+        }
+        return tokens[0].toLowerCase() + String.join(" ", Arrays.copyOfRange(tokens, 1, end)).trim();
+    }
+
+    private static boolean hasToken(String[] tokens, String text) {
+        for (String token : tokens) {
+            if (text.equals(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,173 @@
+package cherry.task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cherry.exception.CherryException;
+import cherry.storage.DurabilityPolicy;
+import cherry.storage.SnapshotFormat;
+import cherry.storage.Storage;
+import cherry.ui.Ui;
+
+/**
+ * Times the everyday operations on task lists of a thousand, a hundred thousand and a million tasks,
+ * to check that none of them grows with the size of the list except saving.
+ * <p>
+ * Each operation which changes the list undoes its change, so the list keeps its size. Descriptions
+ * share a vocabulary of a few thousand words, so each search matches about a thousand tasks.
+ * Run with {@code ./gradlew jmh}. The forked JVM gets a 2 GB heap for the million-task runs.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class TaskListBenchmark {
+    private static final int RANDOM_POSITIONS = 4096;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private TaskList tasks;
+    private final Ui ui = new Ui();
+    private final int[] taskNumbers = new int[RANDOM_POSITIONS];
+    private int next;
+    private Path directory;
+    private Storage storage;
+
+    /**
+     * Fills the list with todos and deadlines, picks the task numbers to visit and opens a storage to save to.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tasks = new TaskList();
+        LocalDate start = LocalDate.of(2030, 1, 1);
+        for (int i = 0; i < size; i += 1) {
+            String description = "word" + (i % 1000) + " item" + (i % 997);
+            tasks.addTask(i % 3 == 0
+                    ? new Deadline(description, start.plusDays(i % 365))
+                    : new Todo(description));
+        }
+        tasks.getDoneCount();
+
+        Random random = new Random(42);
+        for (int i = 0; i < RANDOM_POSITIONS; i += 1) {
+            taskNumbers[i] = 1 + random.nextInt(size);
+        }
+
+        directory = Files.createTempDirectory("cherry-benchmark");
+        storage = new Storage(directory.resolve("cherry.txt").toString(), Long.MAX_VALUE,
+                DurabilityPolicy.NEVER, SnapshotFormat.BINARY);
+    }
+
+    /**
+     * Closes the storage and deletes its temporary directory.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        storage.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Task getTask() throws CherryException {
+        return tasks.getTask(nextTaskNumber());
+    }
+
+    @Benchmark
+    public int getTaskById() throws CherryException {
+        return tasks.getTaskNumber(nextTaskNumber());
+    }
+
+    /**
+     * Adds a task to the end and deletes it again.
+     */
+    @Benchmark
+    public int addAndDeleteLast() {
+        tasks.addTask(new Todo("fresh order"));
+        tasks.deleteTask(tasks.getTaskCount() - 1);
+        return tasks.getTaskCount();
+    }
+
+    /**
+     * Deletes a task from a random place and adds it back at the end.
+     */
+    @Benchmark
+    public int deleteAnyAndAdd() throws CherryException {
+        int taskNumber = nextTaskNumber();
+        Task task = tasks.getTask(taskNumber);
+        tasks.deleteTask(taskNumber - 1);
+        tasks.addTask(task);
+        return tasks.getTaskCount();
+    }
+
+    /**
+     * Marks a random task as done and back again.
+     */
+    @Benchmark
+    public int markAndUnmark() throws CherryException {
+        int taskNumber = nextTaskNumber();
+        tasks.markTask(taskNumber);
+        tasks.unmarkTask(taskNumber);
+        return tasks.getDoneCount();
+    }
+
+    /**
+     * Finds the tasks with a word shared by about one in a thousand tasks.
+     */
+    @Benchmark
+    public List<Integer> find() {
+        next += 1;
+        return tasks.findTasks("word" + (100 + next % 900));
+    }
+
+    /**
+     * Formats a page of 50 tasks from a different place in the list each time.
+     */
+    @Benchmark
+    public String listPage() throws CherryException {
+        next += 1;
+        int page = 1 + next % (size / 50);
+        return ui.formatListPage(tasks, page, 50);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public void save() throws IOException {
+        storage.save(tasks.getSnapshot());
+    }
+
+    private int nextTaskNumber() {
+        next += 1;
+        return taskNumbers[next & (RANDOM_POSITIONS - 1)];
+    }
+}
@@ -5,12 +5,18 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 import cherry.command.Command;
 import cherry.exception.CherryException;
 import cherry.parser.Parser;
+import cherry.storage.DurabilityPolicy;
+import cherry.storage.LoadStatistics;
 import cherry.storage.Storage;
+import cherry.task.Task;
 import cherry.task.TaskList;
+import cherry.ui.ResponseType;
 import cherry.ui.Ui;
 
 
@@ -19,6 +25,9 @@ import cherry.ui.Ui;
  * Initializes all components and runs the main program loop.
  */
 public class Cherry {
+    private static final long ASYNC_WRITE_INTERVAL_MILLIS = 100;
+    private static final int MAX_BATCH_REPLIES_SHOWN = 5;
+
     private final Storage storage;
     private final Ui ui;
     private final Parser parser;
@@ -30,19 +39,70 @@ public class Cherry {
      * Determines the jar location and sets storage path relative to it.
      */
     public Cherry() {
+        this(getDataPath());
+    }
+
+    /**
+     * Constructs a Cherry instance which keeps its tasks in the given data file.
+     * How often saved data is forced to the disk can be chosen with {@code -Dcherry.durability},
+     * and {@code -Dcherry.stats=true} prints how fast the data file was loaded.
+     */
+    public Cherry(String dataPath) {
         ui = new Ui();
         parser = new Parser();
+        DurabilityPolicy durabilityPolicy = getDurabilityPolicy();
         Storage tempStorage;
         try {
-            String dataPath = getDataPath();
-            tempStorage = new Storage(dataPath);
-            tasks = new TaskList(tempStorage.load());
+            tempStorage = new Storage(dataPath, durabilityPolicy);
+            List<Task> loaded = tempStorage.load();
+            tasks = new TaskList(loaded, tempStorage.getNextTaskId());
+            printLoadStatistics(tempStorage.getLastLoadStatistics());
         } catch (IOException e) {
             ui.printError("Init error: " + e.getMessage());
-            tempStorage = new Storage(getDataPath());
+            tempStorage = new Storage(dataPath, durabilityPolicy);
             tasks = new TaskList();
         }
         storage = tempStorage;
+        storage.enableAsyncWrites(ASYNC_WRITE_INTERVAL_MILLIS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closeStorage, "cherry-shutdown"));
+    }
+
+    /**
+     * Saves any changes still queued and closes the storage.
+     */
+    private void closeStorage() {
+        try {
+            storage.close();
+        } catch (IOException e) {
+            ui.printError("**Storage error! **" + e.getMessage());
+        }
+    }
+
+    /**
+     * Prints how many lines the data file had and how fast they were loaded, if any were read
+     * and the {@link LoadStatistics#PROPERTY} system property asks for it.
+     */
+    private void printLoadStatistics(LoadStatistics statistics) {
+        if (Boolean.getBoolean(LoadStatistics.PROPERTY) && statistics.getLineCount() > 0) {
+            System.out.println(statistics);
+        }
+    }
+
+    /**
+     * Returns the durability policy chosen with the {@link DurabilityPolicy#PROPERTY} system property,
+     * or the default policy if none was chosen or the choice is not a policy.
+     */
+    private DurabilityPolicy getDurabilityPolicy() {
+        String setting = System.getProperty(DurabilityPolicy.PROPERTY);
+        if (setting == null) {
+            return DurabilityPolicy.DEFAULT;
+        }
+        try {
+            return DurabilityPolicy.parse(setting);
+        } catch (CherryException e) {
+            ui.printError(e.getMessage());
+            return DurabilityPolicy.DEFAULT;
+        }
     }
 
     /**
@@ -50,7 +110,7 @@ public class Cherry {
      * If running from a jar, places data/ next to the jar.
      * If running from IDE, uses ./data/ in the project root.
      */
-    private String getDataPath() {
+    private static String getDataPath() {
         try {
             // Get the location of the running jar or class files
             File jarFile = new File(Cherry.class
@@ -83,21 +143,86 @@ public class Cherry {
     }
 
     /**
-     * Generates a response for the user's chat message.
+     * Generates a response for the user's chat message, along with the kind of outcome it reports.
+     * Whatever the command changed can be undone in one step.
      */
-    public String getResponse(String input) {
+    public Response getResponse(String input) {
         try {
             Command c = parser.parse(input);
             c.execute(tasks, ui, storage);
             commandType = c.getClass().getSimpleName();
-            return c.toString();
+            return new Response(c.toString(), c.getResponseType(), c.getExitStatus());
         } catch (CherryException e) {
-            return "**Error: **" + e.getMessage();
+            return new Response("**Error: **" + e.getMessage(), e.getResponseType(), false);
         } catch (IOException e) {
-            return "**Storage error! **" + e.getMessage();
+            return new Response("**Storage error! **" + e.getMessage(), ResponseType.ERROR, false);
+        } finally {
+            tasks.endUndoStep(input.trim());
         }
     }
 
+    /**
+     * Runs the commands in order as one batch, saving all their changes in a single write,
+     * and returns one response summing them up. Blank inputs are skipped.
+     * If any command fails, every change made by the batch is undone and nothing is saved.
+     * Otherwise the batch can be undone in one step.
+     */
+    public Response getResponses(List<String> inputs) {
+        assert inputs != null : "Inputs should not be null";
+
+        List<String> replies = new ArrayList<>();
+        int commandCount = 0;
+        ResponseType type = ResponseType.INFO;
+        boolean isExit = false;
+        boolean isCommitted = false;
+        String input = "";
+
+        tasks.beginTransaction();
+        storage.beginBatch();
+        try {
+            for (String nextInput : inputs) {
+                if (nextInput.isBlank()) {
+                    continue;
+                }
+                input = nextInput;
+                Command c = parser.parse(input);
+                c.execute(tasks, ui, storage);
+                commandCount += 1;
+                if (replies.size() < MAX_BATCH_REPLIES_SHOWN) {
+                    replies.add(c.toString());
+                }
+                if (c.getResponseType() == ResponseType.SUCCESS) {
+                    type = ResponseType.SUCCESS;
+                }
+                isExit |= c.getExitStatus();
+            }
+            storage.commitBatch();
+            tasks.commitTransaction();
+            tasks.endUndoStep("batch of " + commandCount + " commands");
+            isCommitted = true;
+        } catch (CherryException e) {
+            return new Response("**Error in command " + (commandCount + 1) + " ('" + input + "'): **"
+                    + e.getMessage() + "\nNothing in the batch was saved.", e.getResponseType(), false);
+        } catch (IOException e) {
+            return new Response("**Storage error! **" + e.getMessage()
+                    + "\nNothing in the batch was saved.", ResponseType.ERROR, false);
+        } finally {
+            if (!isCommitted) {
+                storage.discardBatch();
+                tasks.rollbackTransaction();
+            }
+        }
+
+        StringBuilder text = new StringBuilder("**Ran " + commandCount + " commands as one batch.**");
+        for (String reply : replies) {
+            text.append("\n\n").append(reply);
+        }
+        if (commandCount > replies.size()) {
+            text.append("\n\n...and ").append(commandCount - replies.size()).append(" more.");
+        }
+        return new Response(text.toString(), type, isExit);
+    }
+
     /**
      * Runs the main program loop.
      * Continuously reads user input, parses commands, executes them,
@@ -108,8 +233,8 @@ public class Cherry {
         boolean isExit = false;
 
         while (!isExit) {
+            String input = ui.readPrompt();
             try {
-                String input = ui.readPrompt();
                 Command command = parser.parse(input);
                 command.execute(tasks, ui, storage);
                 isExit = command.getExitStatus();
@@ -117,8 +242,12 @@ public class Cherry {
                 ui.printError(e.getMessage());
             } catch (IOException e) {
                 ui.printError("**Storage error! **" + e.getMessage());
+            } finally {
+                tasks.endUndoStep(input.trim());
             }
         }
+
+        closeStorage();
     }
 
     /**
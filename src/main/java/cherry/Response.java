@@ -0,0 +1,44 @@
+package cherry;
+
+import cherry.ui.ResponseType;
+
+/**
+ * Represents Cherry's reply to one chat message: the text to show, the kind of outcome
+ * it reports, and whether the program should exit.
+ */
+public class Response {
+    private final String text;
+    private final ResponseType type;
+    private final boolean isExit;
+
+    /**
+     * Creates a response with the given text and outcome.
+     */
+    public Response(String text, ResponseType type, boolean isExit) {
+        assert text != null : "Response text should not be null";
+        assert type != null : "Response type should not be null";
+        this.text = text;
+        this.type = type;
+        this.isExit = isExit;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public ResponseType getType() {
+        return type;
+    }
+
+    /**
+     * Returns whether this response signals program exit.
+     */
+    public boolean isExit() {
+        return isExit;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -5,6 +5,7 @@ import java.io.IOException;
 import cherry.storage.Storage;
 import cherry.task.Task;
 import cherry.task.TaskList;
+import cherry.ui.ResponseType;
 import cherry.ui.Ui;
 
 /**
@@ -31,9 +32,10 @@ public class AddCommand extends Command {
         assert storage != null : "Storage should not be null";
         tasks.addTask(task);
         responseMessage = ui.formatTaskAdded(task, tasks.getTaskCount());
+        responseType = ResponseType.SUCCESS;
         ui.printTaskAdded(task, tasks.getTaskCount());
         try {
-            storage.save(tasks.getTasks());
+            storage.appendAdd(task);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -5,6 +5,7 @@ import java.io.IOException;
 import cherry.exception.CherryException;
 import cherry.storage.Storage;
 import cherry.task.TaskList;
+import cherry.ui.ResponseType;
 import cherry.ui.Ui;
 
 /**
@@ -14,6 +15,7 @@ import cherry.ui.Ui;
 public abstract class Command {
     protected boolean isExit = false;
     protected String responseMessage = "";
+    protected ResponseType responseType = ResponseType.INFO;
 
     /**
      * Returns whether this command signals program exit.
@@ -22,6 +24,13 @@ public abstract class Command {
         return isExit;
     }
 
+    /**
+     * Returns the kind of outcome the command's response reports.
+     */
+    public ResponseType getResponseType() {
+        return responseType;
+    }
+
     /**
      * Executes the command using the given task list, UI, and storage.
      */
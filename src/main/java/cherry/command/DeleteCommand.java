@@ -1,35 +1,59 @@
 package cherry.command;
 
 import java.io.IOException;
+import java.util.List;
 
 import cherry.exception.CherryException;
 import cherry.storage.Storage;
 import cherry.task.Task;
 import cherry.task.TaskList;
+import cherry.task.TaskSelection;
+import cherry.ui.ResponseType;
 import cherry.ui.Ui;
 
 /**
- * Represents a command which deletes a specified task to the task list.
+ * Represents a command which deletes the selected tasks from the task list.
  */
 public class DeleteCommand extends Command {
-    private final int taskIndex;
+    private final TaskSelection selection;
+
     /**
      * Creates an DeleteCommand with the specified task number.
      */
     public DeleteCommand(int taskIndex) {
-        this.taskIndex = taskIndex;
+        this(TaskSelection.of(taskIndex));
+    }
+
+    /**
+     * Creates a DeleteCommand for the selected tasks.
+     */
+    public DeleteCommand(TaskSelection selection) {
+        assert selection != null : "Selection should not be null";
+        this.selection = selection;
     }
 
     /**
-     * Executes the delete command by removing the specified task from the list,
-     * printing confirmation to the user and saving the new list.
+     * Executes the delete command by removing the selected tasks from the list in one pass,
+     * printing confirmation to the user and saving the change in one record.
      */
     public void execute(TaskList tasks, Ui ui, Storage storage)
             throws CherryException, IOException {
-        Task task = tasks.getTask(taskIndex);
-        tasks.deleteTask(taskIndex - 1);
-        responseMessage = ui.formatTaskDeleted(task, tasks.getTaskCount());
-        ui.printTaskDeleted(task, tasks.getTaskCount());
-        storage.save(tasks.getTasks());
+        int[] taskNumbers = selection.resolve(tasks);
+        if (selection.isSingle()) {
+            int taskIndex = taskNumbers[0];
+            Task task = tasks.getTask(taskIndex);
+            tasks.deleteTask(taskIndex - 1);
+            responseMessage = ui.formatTaskDeleted(task, tasks.getTaskCount());
+            responseType = ResponseType.SUCCESS;
+            ui.printTaskDeleted(task, tasks.getTaskCount());
+            storage.appendDelete(taskIndex);
+            return;
+        }
+
+        List<Task> deleted = tasks.deleteTasks(taskNumbers);
+        responseMessage = ui.formatTasksDeleted(deleted, tasks.getTaskCount());
+        responseType = ResponseType.SUCCESS;
+        ui.printMessage(responseMessage);
+        storage.appendDelete(taskNumbers);
     }
 }
@@ -6,6 +6,8 @@ import cherry.exception.CherryException;
 import cherry.storage.Storage;
 import cherry.task.Task;
 import cherry.task.TaskList;
+import cherry.task.TaskSelection;
+import cherry.ui.ResponseType;
 import cherry.ui.Ui;
 
 
@@ -13,13 +15,21 @@ import cherry.ui.Ui;
  * Represents a command which duplicates the specified task to the task list.
  */
 public class DuplicateCommand extends Command {
-    private final int taskIndex;
+    private final TaskSelection selection;
 
     /**
      * Creates an DuplicateCommand with the specified task index.
      */
     public DuplicateCommand(int taskIndex) {
-        this.taskIndex = taskIndex;
+        this(TaskSelection.of(taskIndex));
+    }
+
+    /**
+     * Creates an DuplicateCommand for the single selected task, given by its number or id.
+     */
+    public DuplicateCommand(TaskSelection selection) {
+        assert selection.isSingle() : "Only one task can be duplicated at a time";
+        this.selection = selection;
     }
 
     /**
@@ -31,12 +41,13 @@ public class DuplicateCommand extends Command {
         assert tasks != null : "TaskList should not be null";
         assert ui != null : "Ui should not be null";
         assert storage != null : "Storage should not be null";
-        Task task = tasks.getTask(taskIndex);
+        Task task = tasks.getTask(selection.resolve(tasks)[0]).copy();
         tasks.addTask(task);
         responseMessage = ui.formatTaskAdded(task, tasks.getTaskCount());
+        responseType = ResponseType.SUCCESS;
         ui.printTaskAdded(task, tasks.getTaskCount());
         try {
-            storage.save(tasks.getTasks());
+            storage.appendAdd(task);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -1,23 +1,40 @@
 package cherry.command;
 
+import java.util.List;
+
 import cherry.exception.CherryException;
 import cherry.storage.Storage;
 import cherry.task.Task;
 import cherry.task.TaskList;
+import cherry.ui.ResponseType;
 import cherry.ui.Ui;
 
 /**
  * Represents a command which finds all tasks containing
- * the specified keyword and displays a list of those tasks.
+ * the specified keywords and displays a list of those tasks.
+ * Each keyword matches the start of any word in a task's description.
+ * An approximate search instead matches words within a few typos of each keyword,
+ * and lists only the closest tasks first.
  */
 public class FindCommand extends Command {
+    private static final int MAX_APPROXIMATE_MATCHES = 20;
+
     private final String keyword;
+    private final boolean isApproximate;
 
     /**
      * Creates an FindCommand with the specified keyword.
      */
     public FindCommand(String keyword) {
+        this(keyword, false);
+    }
+
+    /**
+     * Creates an FindCommand with the specified keyword, which finds approximate matches if asked.
+     */
+    public FindCommand(String keyword, boolean isApproximate) {
         this.keyword = keyword;
+        this.isApproximate = isApproximate;
     }
     /**
      * Executes the find command by searching for all tasks with the keyword, and
@@ -25,14 +42,12 @@ public class FindCommand extends Command {
      */
     public void execute(TaskList tasks, Ui ui, Storage storage)
             throws CherryException {
-        TaskList newList = new TaskList();
-        for (int i = 0; i < tasks.getTaskCount(); i += 1) {
-            Task task = tasks.getTask(i + 1);
-            if (task.hasKeyword(this.keyword)) {
-                newList.addTask(task);
-            }
-        }
-        responseMessage = ui.formatMatchingList(newList);
-        ui.printMatchingList(newList);
+        List<Integer> taskNumbers = isApproximate
+                ? tasks.findTasksApproximately(this.keyword, MAX_APPROXIMATE_MATCHES)
+                : tasks.findTasks(this.keyword);
+        List<Task> matches = tasks.getSnapshot().getTasks(taskNumbers);
+        responseMessage = ui.formatMatchingList(matches);
+        responseType = matches.isEmpty() ? ResponseType.ERROR : ResponseType.INFO;
+        ui.printMatchingList(matches);
     }
 }
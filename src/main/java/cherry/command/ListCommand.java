@@ -6,16 +6,55 @@ import cherry.task.TaskList;
 import cherry.ui.Ui;
 
 /**
- * Represents a command which prints all tasks in the list to the user.
+ * Represents a command which prints one page of the tasks in the list to the user.
  */
 public class ListCommand extends Command {
+    private final int page;
+    private final int pageSize;
+    private final boolean isNextPage;
+
+    /**
+     * Creates a ListCommand which shows the first page of the list.
+     */
+    public ListCommand() {
+        this(1);
+    }
+
+    /**
+     * Creates a ListCommand which shows the given page (1-based) of the list, of the default size.
+     */
+    public ListCommand(int page) {
+        this(page, Ui.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Creates a ListCommand which shows the given page (1-based) of the list.
+     */
+    public ListCommand(int page, int pageSize) {
+        this(page, pageSize, false);
+    }
+
+    private ListCommand(int page, int pageSize, boolean isNextPage) {
+        this.page = page;
+        this.pageSize = pageSize;
+        this.isNextPage = isNextPage;
+    }
+
     /**
-     * Executes the list command by printing all tasks in the list to the user.
+     * Creates a ListCommand which shows the page after the one shown last.
+     */
+    public static ListCommand nextPage() {
+        return new ListCommand(0, 0, true);
+    }
+
+    /**
+     * Executes the list command by printing a page of the tasks in the list to the user.
      */
     public void execute(TaskList tasks, Ui ui, Storage storage)
             throws CherryException {
-        responseMessage = ui.formatList(tasks);
-        ui.printList(tasks);
+        responseMessage = isNextPage
+                ? ui.formatNextListPage(tasks)
+                : ui.formatListPage(tasks, page, pageSize);
+        ui.printMessage(responseMessage);
     }
 }
-
@@ -1,36 +1,74 @@
 package cherry.command;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import cherry.exception.CherryException;
 import cherry.storage.Storage;
 import cherry.task.Task;
 import cherry.task.TaskList;
+import cherry.task.TaskSelection;
+import cherry.ui.ResponseType;
 import cherry.ui.Ui;
 
 /**
- * Represents a command which marks a specified task as done.
+ * Represents a command which marks the selected tasks as done.
  */
 public class MarkCommand extends Command {
-    private final int taskIndex;
+    private final TaskSelection selection;
 
     /**
      * Creates a MarkCommand with the specified task number.
      */
     public MarkCommand(int taskIndex) {
-        this.taskIndex = taskIndex;
+        this(TaskSelection.of(taskIndex));
     }
 
     /**
-     * Executes the mark command by marking the specified task as done,
-     * printing confirmation to the user and saving the new list.
+     * Creates a MarkCommand for the selected tasks.
+     */
+    public MarkCommand(TaskSelection selection) {
+        assert selection != null : "Selection should not be null";
+        this.selection = selection;
+    }
+
+    /**
+     * Executes the mark command by marking the selected tasks as done,
+     * printing confirmation to the user and saving the change in one record.
      */
     public void execute(TaskList tasks, Ui ui, Storage storage)
             throws CherryException, IOException {
-        Task task = tasks.getTask(taskIndex);
-        tasks.markTask(taskIndex);
-        responseMessage = ui.formatTaskMarked(task);
-        ui.printTaskMarked(task);
-        storage.save(tasks.getTasks());
+        int[] taskNumbers = selection.resolve(tasks);
+        if (selection.isSingle()) {
+            int taskIndex = taskNumbers[0];
+            Task task = tasks.markTask(taskIndex);
+            responseMessage = ui.formatTaskMarked(task);
+            responseType = ResponseType.SUCCESS;
+            ui.printTaskMarked(task);
+            storage.appendMark(taskIndex);
+            return;
+        }
+
+        List<Task> marked = new ArrayList<>();
+        int[] markedNumbers = new int[taskNumbers.length];
+        for (int taskNumber : taskNumbers) {
+            Task task = tasks.getTask(taskNumber);
+            if (!task.isDone()) {
+                markedNumbers[marked.size()] = taskNumber;
+                marked.add(tasks.markTask(taskNumber));
+            }
+        }
+        if (marked.isEmpty()) {
+            responseMessage = "All " + taskNumbers.length + " orders in " + selection + " are already complete.";
+            ui.printMessage(responseMessage);
+            return;
+        }
+
+        responseMessage = ui.formatTasksMarked(marked, taskNumbers.length - marked.size());
+        responseType = ResponseType.SUCCESS;
+        ui.printMessage(responseMessage);
+        storage.appendMark(Arrays.copyOf(markedNumbers, marked.size()));
     }
 }
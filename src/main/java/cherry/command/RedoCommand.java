@@ -0,0 +1,30 @@
+package cherry.command;
+
+import java.io.IOException;
+
+import cherry.exception.CherryException;
+import cherry.storage.Storage;
+import cherry.task.TaskList;
+import cherry.task.UndoStep;
+import cherry.ui.ResponseType;
+import cherry.ui.Ui;
+
+/**
+ * Represents a command which brings back the last change taken back by an undo.
+ */
+public class RedoCommand extends Command {
+
+    /**
+     * Executes the redo command by making the newest undone step of changes again,
+     * printing what was redone and saving only those changes.
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage)
+            throws CherryException, IOException {
+        UndoStep step = tasks.redo();
+        storage.appendChanges(step.getRedoChanges());
+        responseMessage = ui.formatRedone(step.getDescription(), tasks.getTaskCount());
+        responseType = ResponseType.SUCCESS;
+        ui.printMessage(responseMessage);
+    }
+}
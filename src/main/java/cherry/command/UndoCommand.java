@@ -0,0 +1,30 @@
+package cherry.command;
+
+import java.io.IOException;
+
+import cherry.exception.CherryException;
+import cherry.storage.Storage;
+import cherry.task.TaskList;
+import cherry.task.UndoStep;
+import cherry.ui.ResponseType;
+import cherry.ui.Ui;
+
+/**
+ * Represents a command which takes back the last change to the task list.
+ */
+public class UndoCommand extends Command {
+
+    /**
+     * Executes the undo command by undoing the newest step of changes,
+     * printing what was undone and saving only the changes which undid it.
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage)
+            throws CherryException, IOException {
+        UndoStep step = tasks.undo();
+        storage.appendChanges(step.getUndoChanges());
+        responseMessage = ui.formatUndone(step.getDescription(), tasks.getTaskCount());
+        responseType = ResponseType.SUCCESS;
+        ui.printMessage(responseMessage);
+    }
+}
@@ -1,35 +1,71 @@
 package cherry.command;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import cherry.exception.CherryException;
 import cherry.storage.Storage;
 import cherry.task.Task;
 import cherry.task.TaskList;
+import cherry.task.TaskSelection;
 import cherry.ui.Ui;
 
 /**
- * Represents a command which unmarks a specified task as done.
+ * Represents a command which unmarks the selected tasks as done.
  */
 public class UnmarkCommand extends Command {
-    private final int taskIndex;
+    private final TaskSelection selection;
 
     /**
      * Creates a UnmarkCommand with the specified task number.
      */
     public UnmarkCommand(int taskIndex) {
-        this.taskIndex = taskIndex;
+        this(TaskSelection.of(taskIndex));
     }
+
     /**
-     * Executes the unmark command by unmarking the specified task as done,
-     * printing confirmation to the user and saving the new list.
+     * Creates an UnmarkCommand for the selected tasks.
+     */
+    public UnmarkCommand(TaskSelection selection) {
+        assert selection != null : "Selection should not be null";
+        this.selection = selection;
+    }
+
+    /**
+     * Executes the unmark command by unmarking the selected tasks as done,
+     * printing confirmation to the user and saving the change in one record.
      */
     public void execute(TaskList tasks, Ui ui, Storage storage)
             throws CherryException, IOException {
-        Task task = tasks.getTask(taskIndex);
-        tasks.unmarkTask(taskIndex);
-        responseMessage = ui.formatTaskUnmarked(task);
-        ui.printTaskUnmarked(task);
-        storage.save(tasks.getTasks());
+        int[] taskNumbers = selection.resolve(tasks);
+        if (selection.isSingle()) {
+            int taskIndex = taskNumbers[0];
+            Task task = tasks.unmarkTask(taskIndex);
+            responseMessage = ui.formatTaskUnmarked(task);
+            ui.printTaskUnmarked(task);
+            storage.appendUnmark(taskIndex);
+            return;
+        }
+
+        List<Task> unmarked = new ArrayList<>();
+        int[] unmarkedNumbers = new int[taskNumbers.length];
+        for (int taskNumber : taskNumbers) {
+            Task task = tasks.getTask(taskNumber);
+            if (task.isDone()) {
+                unmarkedNumbers[unmarked.size()] = taskNumber;
+                unmarked.add(tasks.unmarkTask(taskNumber));
+            }
+        }
+        if (unmarked.isEmpty()) {
+            responseMessage = "All " + taskNumbers.length + " orders in " + selection + " are already being prepared.";
+            ui.printMessage(responseMessage);
+            return;
+        }
+
+        responseMessage = ui.formatTasksUnmarked(unmarked, taskNumbers.length - unmarked.size());
+        ui.printMessage(responseMessage);
+        storage.appendUnmark(Arrays.copyOf(unmarkedNumbers, unmarked.size()));
     }
 }
@@ -7,19 +7,29 @@ import cherry.exception.CherryException;
 import cherry.storage.Storage;
 import cherry.task.Task;
 import cherry.task.TaskList;
+import cherry.task.TaskSelection;
+import cherry.ui.ResponseType;
 import cherry.ui.Ui;
 
 /**
  * Represents a command which updates the fields of an existing task, as specified by the user.
  */
 public class UpdateCommand extends Command {
-    private final int taskIndex;
+    private final TaskSelection selection;
     private final Map<String, String> fields;
     /**
      * Creates a UpdateCommand with the specified task number and fields.
      */
     public UpdateCommand(int taskIndex, Map<String, String> fields) {
-        this.taskIndex = taskIndex;
+        this(TaskSelection.of(taskIndex), fields);
+    }
+
+    /**
+     * Creates a UpdateCommand for the single selected task, given by its number or id, and fields.
+     */
+    public UpdateCommand(TaskSelection selection, Map<String, String> fields) {
+        assert selection.isSingle() : "Only one task can be updated at a time";
+        this.selection = selection;
         this.fields = fields;
     }
 
@@ -29,10 +39,11 @@ public class UpdateCommand extends Command {
      */
     public void execute(TaskList tasks, Ui ui, Storage storage)
             throws CherryException, IOException {
-        Task task = tasks.getTask(taskIndex);
-        task.update(fields);
+        int taskIndex = selection.resolve(tasks)[0];
+        Task task = tasks.updateTask(taskIndex, fields);
         responseMessage = ui.formatTaskUpdated(task);
+        responseType = ResponseType.SUCCESS;
         ui.printTaskUpdated(task);
-        storage.save(tasks.getTasks());
+        storage.appendUpdate(taskIndex, task);
     }
 }
@@ -1,13 +1,33 @@
 package cherry.exception;
 
+import cherry.ui.ResponseType;
+
 /**
  * Represents exceptions specific to the Cherry application.
+ * Most are errors, but some only warn that a command looked like a mistake.
  */
 public class CherryException extends Exception {
+    private final ResponseType responseType;
+
     /**
      * Creates a new CherryException with the specified error message.
      */
     public CherryException(String message) {
+        this(message, ResponseType.ERROR);
+    }
+
+    /**
+     * Creates a new CherryException with the specified message and outcome.
+     */
+    public CherryException(String message, ResponseType responseType) {
         super(message);
+        this.responseType = responseType;
+    }
+
+    /**
+     * Returns the outcome this exception reports to the user.
+     */
+    public ResponseType getResponseType() {
+        return responseType;
     }
 }
@@ -0,0 +1,44 @@
+package cherry.gui;
+
+/**
+ * Represents one message in the conversation, either typed by the user or replied by Cherry.
+ * Messages hold no JavaFX nodes, so a long conversation costs only its text.
+ */
+public class ChatMessage {
+    private final String text;
+    private final boolean isFromUser;
+    private final String messageType;
+
+    private ChatMessage(String text, boolean isFromUser, String messageType) {
+        assert text != null : "Message text should not be null";
+        this.text = text;
+        this.isFromUser = isFromUser;
+        this.messageType = messageType;
+    }
+
+    /**
+     * Creates a message typed by the user.
+     */
+    public static ChatMessage fromUser(String text) {
+        return new ChatMessage(text, true, null);
+    }
+
+    /**
+     * Creates a reply from Cherry, styled by its message type ("error", "success", "warning" or null).
+     */
+    public static ChatMessage fromCherry(String text, String messageType) {
+        return new ChatMessage(text, false, messageType);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isFromUser() {
+        return isFromUser;
+    }
+
+    public String getMessageType() {
+        return messageType;
+    }
+}
@@ -0,0 +1,45 @@
+package cherry.gui;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Region;
+
+/**
+ * Displays a {@link ChatMessage} in the conversation list.
+ * The list only creates enough cells to fill the window, and each cell keeps one
+ * {@link DialogBox} which it fills with whichever message scrolls into view.
+ */
+public class ChatMessageCell extends ListCell<ChatMessage> {
+    private static final double SCROLL_BAR_ALLOWANCE = 24;
+
+    private final DialogBox dialogBox = new DialogBox();
+    private final Image userImage;
+    private final Image cherryImage;
+
+    /**
+     * Creates a cell for the given list, which wraps its text to the list's width.
+     */
+    public ChatMessageCell(ListView<ChatMessage> listView, Image userImage, Image cherryImage) {
+        this.userImage = userImage;
+        this.cherryImage = cherryImage;
+
+        // Let the list decide the width, so long messages wrap instead of scrolling sideways
+        setPrefWidth(0);
+        dialogBox.prefWidthProperty().bind(listView.widthProperty().subtract(SCROLL_BAR_ALLOWANCE));
+        dialogBox.setMaxWidth(Region.USE_PREF_SIZE);
+    }
+
+    @Override
+    protected void updateItem(ChatMessage message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        setText(null);
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            return;
+        }
+
+        dialogBox.showMessage(message, message.isFromUser() ? userImage : cherryImage);
+        setGraphic(dialogBox);
+    }
+}
@@ -1,18 +1,13 @@
 package cherry.gui;
 
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
@@ -20,35 +15,55 @@ import javafx.scene.text.TextFlow;
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
  * and a TextFlow containing formatted text from the speaker.
+ * A dialog box can be filled with another message later, so list cells can reuse it.
+ * <p>
+ * The nodes are built in code rather than loaded from FXML, which saves parsing XML and
+ * reflecting on this class for every box. The ids, sizes and style sheet are the same.
+ * </p>
  */
 public class DialogBox extends HBox {
-    @FXML
-    private TextFlow dialog;
-    @FXML
-    private ImageView displayPicture;
+    private static final String STYLESHEET = DialogBox.class.getResource("/css/dialog-box.css").toExternalForm();
+    private static final double PICTURE_SIZE = 99.0;
+
+    private final TextFlow dialog = new TextFlow();
+    private final ImageView displayPicture = new ImageView();
 
-    private final String rawText;
+    private String rawText = "";
     private String messageType;
 
     /**
-     * Displays the message given by string alongside the given image as an icon.
+     * Creates an empty dialog box, to be filled by {@link #showMessage}.
      */
-    private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        this.rawText = text;
-        this.messageType = null;
+    public DialogBox() {
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxWidth(Double.MAX_VALUE);
+        setPrefWidth(400.0);
+        setPadding(new Insets(10.0, 5.0, 10.0, 5.0));
+        getStylesheets().add(STYLESHEET);
+
+        dialog.setId("dialog");
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+        HBox.setHgrow(dialog, Priority.ALWAYS);
+
+        displayPicture.setId("displayPicture");
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
+
+        getChildren().setAll(dialog, displayPicture);
+        applyImageShadow();
+    }
 
-        renderText();
+    /**
+     * Displays the message alongside the given image as an icon, replacing whatever was shown before.
+     * The user's messages sit on the right, and Cherry's on the left.
+     */
+    public void showMessage(ChatMessage message, Image img) {
+        this.rawText = message.getText();
         displayPicture.setImage(img);
-        applyImageShadow();
+        placeSpeaker(message.isFromUser());
+        applyMessageStyle(message.getMessageType());
     }
 
     /**
@@ -87,6 +102,9 @@ public class DialogBox extends HBox {
                 case "warning":
                     segment.getStyleClass().add("warning-text");
                     break;
+                case "pending":
+                    segment.getStyleClass().add("pending-text");
+                    break;
                 default:
                     break;
                 }
@@ -139,23 +157,27 @@ public class DialogBox extends HBox {
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Places the text and the image for the speaker: the user's text on the left of their image,
+     * and Cherry's text on the right of hers.
      */
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
-        dialog.getStyleClass().add("reply-flow");
+    private void placeSpeaker(boolean isFromUser) {
+        dialog.getStyleClass().remove("reply-flow");
+        if (isFromUser) {
+            getChildren().setAll(dialog, displayPicture);
+            setAlignment(Pos.TOP_RIGHT);
+        } else {
+            getChildren().setAll(displayPicture, dialog);
+            setAlignment(Pos.TOP_LEFT);
+            dialog.getStyleClass().add("reply-flow");
+        }
     }
 
     /**
      * Creates a dialog box on the left side of the screen for Cherry with message type styling.
      */
     public static DialogBox getCherryDialog(String text, Image img, String messageType) {
-        var db = new DialogBox(text, img);
-        db.flip();
-        db.applyMessageStyle(messageType);
+        var db = new DialogBox();
+        db.showMessage(ChatMessage.fromCherry(text, messageType), img);
         return db;
     }
 
@@ -163,15 +185,15 @@ public class DialogBox extends HBox {
      * Creates a dialog box on the left side of the screen for Cherry.
      */
     public static DialogBox getCherryDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
-        db.flip();
-        return db;
+        return getCherryDialog(text, img, null);
     }
 
     /**
      * Creates a dialog box on the right side of the screen for the user.
      */
     public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img);
+        var db = new DialogBox();
+        db.showMessage(ChatMessage.fromUser(text), img);
+        return db;
     }
 }
@@ -1,29 +1,46 @@
 package cherry.gui;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import cherry.Cherry;
+import cherry.Response;
+import cherry.ui.ResponseType;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
+import javafx.util.Duration;
 
 /**
  * Controls the main GUI with cafe theme.
+ * Commands run one at a time on a background thread, so a slow command never freezes the window.
+ * Each reply replaces a pending bubble, and replies arrive in the order the commands were sent.
  */
 public class MainWindow extends AnchorPane {
+    private static final String PENDING_TEXT = "☕ Preparing your order...";
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<ChatMessage> dialogList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
 
     private Cherry cherry;
+    private final ObservableList<ChatMessage> messages = FXCollections.observableArrayList();
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cherry-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
     private final Image userImage = new Image(this.getClass().getResourceAsStream("/images/User.png"));
     private final Image cherryImage = new Image(this.getClass().getResourceAsStream("/images/Cherry.png"));
 
@@ -33,63 +50,24 @@ public class MainWindow extends AnchorPane {
     @FXML
     public void initialize() {
         loadFonts();
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        // The list only builds cells for the visible messages, and reuses them as it scrolls
+        dialogList.setItems(messages);
+        dialogList.setCellFactory(list -> new ChatMessageCell(list, userImage, cherryImage));
+        dialogList.setFocusTraversable(false);
         userInput.setPromptText("Type your order here... (e.g., 'todo buy coffee beans')");
     }
 
-    /**
-     * Determines the message type based on response content.
-     */
-    private String determineMessageType(String response) {
-        if (response.contains("✗")
-                || response.contains("Oops!")
-                || response.contains("Error")
-                || response.contains("Invalid")
-                || response.contains("doesn't look like")
-                || response.contains("not a valid")
-                || response.contains("don't see")
-                || response.contains("don't recognise")
-                || response.contains("Something went wrong")
-                || response.contains("missing")
-                || response.contains("forgot to add")
-                || response.contains("No matching orders found")
-                || response.contains("couldn't understand")
-                || response.contains("needs details")
-                || response.contains("needs a description")
-                || response.contains("can't use")) {
-            return "error";
-        }
-
-        if (response.startsWith("✓")
-                || response.contains("Order placed!")
-                || response.contains("Order complete!")
-                || response.contains("Order cancelled:")
-                || response.contains("Order updated!")
-                || response.contains("Great work!")) {
-            return "success";
-        }
-
-        if (response.contains("Are you sure")
-                || response.contains("very far")
-                || response.contains("already passed")) {
-            return "warning";
-        }
-
-        return null;
-    }
-
     /**
      * Injects the Cherry instance.
      */
     public void setCherry(Cherry c) {
         cherry = c;
-        dialogContainer.getChildren().add(
-                DialogBox.getCherryDialog(cherry.getWelcomeMessage(), cherryImage));
+        addMessages(ChatMessage.fromCherry(cherry.getWelcomeMessage(), null));
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Cherry's reply
-     * and then appends them to the dialog container. Clears the user input after processing.
+     * Adds two messages to the conversation, one echoing user input and the other a pending reply,
+     * and runs the command in the background. Clears the user input straight away.
      */
     @FXML
     private void handleUserInput() {
@@ -98,14 +76,50 @@ public class MainWindow extends AnchorPane {
             return;
         }
 
-        String response = cherry.getResponse(input);
-        String messageType = determineMessageType(response);
-
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getCherryDialog(response, cherryImage, messageType)
-        );
+        ChatMessage pendingReply = ChatMessage.fromCherry(PENDING_TEXT, "pending");
+        addMessages(ChatMessage.fromUser(input), pendingReply);
+        // Messages are only ever added to the end or replaced, so the pending reply stays at this index
+        int pendingIndex = messages.size() - 1;
         userInput.clear();
+
+        commandExecutor.execute(() -> {
+            Response response;
+            try {
+                response = cherry.getResponse(input);
+            } catch (RuntimeException e) {
+                response = new Response("**Error: **Something unexpected happened: " + e.getMessage(),
+                        ResponseType.ERROR, false);
+            }
+            Response reply = response;
+            Platform.runLater(() -> showReply(pendingIndex, reply));
+        });
+    }
+
+    /**
+     * Replaces the pending reply at the given index with Cherry's response, styled by its outcome.
+     * Closes the window shortly after if the response signals program exit.
+     */
+    private void showReply(int pendingIndex, Response response) {
+        assert PENDING_TEXT.equals(messages.get(pendingIndex).getText()) : "Pending reply should be at its index";
+        messages.set(pendingIndex, ChatMessage.fromCherry(response.getText(), response.getType().getStyleName()));
+        dialogList.scrollTo(messages.size() - 1);
+
+        if (response.isExit()) {
+            userInput.setDisable(true);
+            sendButton.setDisable(true);
+            commandExecutor.shutdown();
+            PauseTransition delay = new PauseTransition(Duration.seconds(2));
+            delay.setOnFinished(event -> Platform.exit());
+            delay.play();
+        }
+    }
+
+    /**
+     * Appends messages to the conversation and scrolls to the last one.
+     */
+    private void addMessages(ChatMessage... newMessages) {
+        messages.addAll(newMessages);
+        dialogList.scrollTo(messages.size() - 1);
     }
 
     /**
@@ -0,0 +1,212 @@
+package cherry.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import cherry.command.Command;
+import cherry.exception.CherryException;
+
+/**
+ * Maps command words to the builders which turn a typed command into a {@link Command}.
+ * <p>
+ * Words are kept in a trie, so a word can be looked up by any prefix long enough to name a single
+ * command, and typos are matched against every word in one walk of the trie, sharing the rows of
+ * the edit distance table between words with a common prefix. Suggestions for recently mistyped
+ * words are cached. A registry is not safe for use by several threads at once.
+ * </p>
+ */
+class CommandRegistry {
+    /**
+     * Builds a command from the tokens of the typed command.
+     */
+    interface CommandBuilder {
+        Command build(CommandTokens tokens) throws CherryException;
+    }
+
+    static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MAX_SUGGESTION_DISTANCE = 2;
+    private static final int SUGGESTION_CACHE_SIZE = 64;
+
+    private final Node root = new Node();
+    private int wordCount = 0;
+    private final Map<String, List<String>> suggestionCache =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                    return size() > SUGGESTION_CACHE_SIZE;
+                }
+            };
+
+    /**
+     * Registers the builder for the given command word.
+     * Words registered earlier are preferred when suggestions are equally close.
+     */
+    void register(String word, CommandBuilder builder) {
+        assert word != null && !word.isEmpty() : "Command word should not be empty";
+        assert builder != null : "Builder should not be null";
+
+        Node node = root;
+        for (int i = 0; i < word.length(); i += 1) {
+            node.wordsBelow += 1;
+            node = node.getOrAddChild(word.charAt(i));
+        }
+        assert node.word == null : "Command word should only be registered once";
+        node.wordsBelow += 1;
+        node.word = word;
+        node.builder = builder;
+        node.order = wordCount;
+        wordCount += 1;
+        suggestionCache.clear();
+    }
+
+    /**
+     * Returns the builder for the word, or for the only command starting with it if the word is
+     * at least {@link #MIN_PREFIX_LENGTH} characters long. Returns null if there is no such command.
+     */
+    CommandBuilder find(String word) {
+        Node node = walk(word);
+        if (node == null) {
+            return null;
+        }
+        if (node.word != null) {
+            return node.builder;
+        }
+        if (word.length() < MIN_PREFIX_LENGTH || node.wordsBelow != 1) {
+            return null;
+        }
+        while (node.word == null) {
+            node = node.children[0];
+        }
+        return node.builder;
+    }
+
+    /**
+     * Returns the commands the word may have been meant as: every command starting with the word,
+     * or else the closest command within a small edit distance, if there is one.
+     */
+    List<String> getSuggestions(String word) {
+        List<String> suggestions = suggestionCache.get(word);
+        if (suggestions == null) {
+            suggestions = findSuggestions(word);
+            suggestionCache.put(word, suggestions);
+        }
+        return suggestions;
+    }
+
+    private List<String> findSuggestions(String word) {
+        List<String> completions = new ArrayList<>();
+        Node node = walk(word);
+        if (node != null) {
+            collectWords(node, completions);
+            return List.copyOf(completions);
+        }
+
+        Match closest = new Match();
+        int[] firstRow = new int[word.length() + 1];
+        for (int i = 0; i < firstRow.length; i += 1) {
+            firstRow[i] = i;
+        }
+        for (int i = 0; i < root.size; i += 1) {
+            findClosest(root.children[i], root.labels[i], word, firstRow, closest);
+        }
+        return closest.node == null ? List.of() : List.of(closest.node.word);
+    }
+
+    /**
+     * Fills in the row of the edit distance table for the node's prefix from its parent's row,
+     * and carries on below the node unless every entry is already over the limit.
+     */
+    private void findClosest(Node node, char label, String word, int[] previousRow, Match closest) {
+        int[] row = new int[previousRow.length];
+        row[0] = previousRow[0] + 1;
+        int rowMin = row[0];
+        for (int j = 1; j < row.length; j += 1) {
+            int cost = word.charAt(j - 1) == label ? 0 : 1;
+            row[j] = Math.min(Math.min(row[j - 1] + 1, previousRow[j] + 1), previousRow[j - 1] + cost);
+            rowMin = Math.min(rowMin, row[j]);
+        }
+
+        int distance = row[row.length - 1];
+        if (node.word != null && distance <= MAX_SUGGESTION_DISTANCE && closest.isImprovedBy(node, distance)) {
+            closest.node = node;
+            closest.distance = distance;
+        }
+        if (rowMin > MAX_SUGGESTION_DISTANCE) {
+            return;
+        }
+        for (int i = 0; i < node.size; i += 1) {
+            findClosest(node.children[i], node.labels[i], word, row, closest);
+        }
+    }
+
+    private Node walk(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i += 1) {
+            node = node.getChild(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private static void collectWords(Node node, List<String> words) {
+        if (node.word != null) {
+            words.add(node.word);
+        }
+        for (int i = 0; i < node.size; i += 1) {
+            collectWords(node.children[i], words);
+        }
+    }
+
+    /**
+     * Represents a trie node, with its children kept in small arrays searched in order.
+     */
+    private static class Node {
+        private char[] labels = new char[2];
+        private Node[] children = new Node[2];
+        private int size = 0;
+        private int wordsBelow = 0;
+        private String word;
+        private CommandBuilder builder;
+        private int order;
+
+        Node getChild(char label) {
+            for (int i = 0; i < size; i += 1) {
+                if (labels[i] == label) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node getOrAddChild(char label) {
+            Node child = getChild(label);
+            if (child != null) {
+                return child;
+            }
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, size * 2);
+                children = Arrays.copyOf(children, size * 2);
+            }
+            child = new Node();
+            labels[size] = label;
+            children[size] = child;
+            size += 1;
+            return child;
+        }
+    }
+
+    /**
+     * Holds the closest word found so far.
+     */
+    private static class Match {
+        private Node node;
+        private int distance;
+
+        boolean isImprovedBy(Node candidate, int candidateDistance) {
+            return node == null || candidateDistance < distance
+                    || (candidateDistance == distance && candidate.order < node.order);
+        }
+    }
+}
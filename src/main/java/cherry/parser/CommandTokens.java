@@ -0,0 +1,166 @@
+package cherry.parser;
+
+import java.util.Arrays;
+
+/**
+ * Represents a command typed by the user, split into whitespace-separated tokens in a single pass.
+ * <p>
+ * Tokens are kept as spans of the original input, so no strings are made until a part of
+ * the command is asked for. The positions of the field flags ({@code /by}, {@code /from},
+ * {@code /to} and {@code /desc}) are recorded during the same pass.
+ * </p>
+ */
+class CommandTokens {
+    /**
+     * Represents the field flags recognised in commands.
+     */
+    enum Flag {
+        BY("/by"),
+        FROM("/from"),
+        TO("/to"),
+        DESC("/desc");
+
+        private final String text;
+
+        Flag(String text) {
+            this.text = text;
+        }
+
+        String getText() {
+            return text;
+        }
+    }
+
+    private static final Flag[] FLAGS = Flag.values();
+    private static final int NOT_FOUND = -1;
+
+    private final String input;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int size = 0;
+    private final int[] flagIndexes = new int[FLAGS.length];
+    private final int[] flagCounts = new int[FLAGS.length];
+    private boolean hasIrregularSpacing = false;
+
+    private CommandTokens(String input) {
+        this.input = input;
+        Arrays.fill(flagIndexes, NOT_FOUND);
+    }
+
+    /**
+     * Splits the input into tokens at runs of whitespace, ignoring leading and trailing whitespace.
+     */
+    static CommandTokens lex(String input) {
+        CommandTokens tokens = new CommandTokens(input);
+        int length = input.length();
+        int i = 0;
+        while (i < length) {
+            int gapStart = i;
+            while (i < length && isWhitespace(input.charAt(i))) {
+                i += 1;
+            }
+            if (i == length) {
+                break;
+            }
+            if (tokens.size > 0 && (i - gapStart != 1 || input.charAt(gapStart) != ' ')) {
+                tokens.hasIrregularSpacing = true;
+            }
+
+            int start = i;
+            while (i < length && !isWhitespace(input.charAt(i))) {
+                i += 1;
+            }
+            tokens.addToken(start, i);
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the number of tokens.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the token at the given index.
+     */
+    String get(int index) {
+        assert index >= 0 && index < size : "Token index should be valid";
+        return input.substring(starts[index], ends[index]);
+    }
+
+    /**
+     * Returns true if the token at the given index is exactly the given text.
+     */
+    boolean isToken(int index, String text) {
+        int length = ends[index] - starts[index];
+        return length == text.length() && input.startsWith(text, starts[index]);
+    }
+
+    /**
+     * Returns the tokens from start (inclusive) to end (exclusive), separated by single spaces.
+     */
+    String join(int start, int end) {
+        assert start >= 0 && start <= end && end <= size : "Token range should be valid";
+        if (start == end) {
+            return "";
+        }
+        if (!hasIrregularSpacing) {
+            return input.substring(starts[start], ends[end - 1]);
+        }
+
+        StringBuilder joined = new StringBuilder(ends[end - 1] - starts[start]);
+        for (int i = start; i < end; i += 1) {
+            if (i > start) {
+                joined.append(' ');
+            }
+            joined.append(input, starts[i], ends[i]);
+        }
+        return joined.toString();
+    }
+
+    /**
+     * Returns the number of times the flag appears.
+     */
+    int getFlagCount(Flag flag) {
+        return flagCounts[flag.ordinal()];
+    }
+
+    /**
+     * Returns the index of the last occurrence of the flag, or -1 if it does not appear.
+     */
+    int getFlagIndex(Flag flag) {
+        return flagIndexes[flag.ordinal()];
+    }
+
+    private void addToken(int start, int end) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        if (input.charAt(start) == '/') {
+            recordFlag(size);
+        }
+        size += 1;
+    }
+
+    private void recordFlag(int index) {
+        for (Flag flag : FLAGS) {
+            if (isToken(index, flag.getText())) {
+                flagIndexes[flag.ordinal()] = index;
+                flagCounts[flag.ordinal()] += 1;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns true for the characters matched by the regex {@code \s}.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
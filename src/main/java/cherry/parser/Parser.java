@@ -1,10 +1,13 @@
 package cherry.parser;
 
+import java.time.Clock;
+import java.time.DateTimeException;
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import cherry.command.AddCommand;
 import cherry.command.ByeCommand;
@@ -15,21 +18,63 @@ import cherry.command.FindCommand;
 import cherry.command.HelpCommand;
 import cherry.command.ListCommand;
 import cherry.command.MarkCommand;
+import cherry.command.RedoCommand;
+import cherry.command.UndoCommand;
 import cherry.command.UnmarkCommand;
 import cherry.command.UpdateCommand;
 import cherry.exception.CherryException;
+import cherry.parser.CommandRegistry.CommandBuilder;
+import cherry.parser.CommandTokens.Flag;
 import cherry.task.Deadline;
 import cherry.task.Event;
 import cherry.task.Task;
+import cherry.task.TaskSelection;
 import cherry.task.Todo;
+import cherry.ui.ResponseType;
 
 /**
  * Parses user input into its respective {@link Command} objects.
  */
 public class Parser {
-    private static final int MAX_TASKS = 100;
     private static final int MAX_DESCRIPTION_LENGTH = 500;
-    private static final String[] UPDATE_FIELDS = {"/desc", "/by", "/from", "/to"};
+    private static final Flag[] UPDATE_FIELDS = {Flag.DESC, Flag.BY, Flag.FROM, Flag.TO};
+    private static final int NOT_A_NUMBER = -1;
+    private static final int MAX_ID_DIGITS = 18;
+    private static final Pattern SELECTION_SEPARATORS = Pattern.compile("[,\\s]+");
+
+    private final Clock clock;
+    private LocalDate today;
+    private LocalDate earliestDate;
+    private LocalDate latestDate;
+    private long tomorrowStartMillis = Long.MIN_VALUE;
+    private final CommandRegistry commands = new CommandRegistry();
+
+    public Parser() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates a parser which knows every command, and which reads today's date from the given clock.
+     * A new command only needs to be registered here.
+     */
+    public Parser(Clock clock) {
+        assert clock != null : "Clock should not be null";
+        this.clock = clock;
+        commands.register("todo", this::parseTodoCommand);
+        commands.register("deadline", this::parseDeadlineCommand);
+        commands.register("event", this::parseEventCommand);
+        commands.register("list", this::parseListCommand);
+        commands.register("find", this::parseFindCommand);
+        commands.register("mark", tokens -> new MarkCommand(getTaskSelection(tokens)));
+        commands.register("unmark", tokens -> new UnmarkCommand(getTaskSelection(tokens)));
+        commands.register("delete", tokens -> new DeleteCommand(getTaskSelection(tokens)));
+        commands.register("update", this::parseUpdateCommand);
+        commands.register("duplicate", tokens -> new DuplicateCommand(getSingleTask(tokens)));
+        commands.register("undo", tokens -> new UndoCommand());
+        commands.register("redo", tokens -> new RedoCommand());
+        commands.register("help", tokens -> new HelpCommand());
+        commands.register("bye", tokens -> new ByeCommand());
+    }
 
     /**
      * Extracts task data from a saved line and returns the respective Task object.
@@ -41,7 +86,22 @@ public class Parser {
             throw new CherryException("Empty line in data file - skipping.");
         }
 
-        String[] tokens = input.split("\\|", -1);
+        long id = 0;
+        String line = input;
+        if (input.startsWith("#")) {
+            int barIndex = input.indexOf('|');
+            if (barIndex < 0) {
+                throw new CherryException("Invalid task format: " + input);
+            }
+            try {
+                id = parseTaskId(input.substring(0, barIndex).trim());
+            } catch (CherryException e) {
+                throw new CherryException("Invalid task id in data file: " + input);
+            }
+            line = input.substring(barIndex + 1).trim();
+        }
+
+        String[] tokens = line.split("\\|", -1);
 
         if (tokens.length < 3) {
             throw new CherryException("Invalid task format: " + input);
@@ -57,7 +117,11 @@ public class Parser {
         boolean isDone = doneStatus.equals("[X]");
 
         try {
-            return buildTaskFromTokens(taskType, isDone, description, tokens);
+            Task task = buildTaskFromTokens(taskType, isDone, description, tokens);
+            if (id != 0) {
+                task.assignId(id);
+            }
+            return task;
         } catch (CherryException e) {
             throw new CherryException("Error parsing task from file: " + e.getMessage());
         }
@@ -65,22 +129,28 @@ public class Parser {
 
     /**
      * Parses user input and returns the corresponding Command object.
+     * The input is split into tokens once, and each part of the command is read from those tokens.
      */
     public Command parse(String input) throws CherryException {
         assert input != null : "Input should not be null";
 
-        String normalized = normalizeInput(input);
+        CommandTokens tokens = CommandTokens.lex(input);
 
-        if (normalized.isEmpty()) {
+        if (tokens.size() == 0) {
             throw new CherryException("I didn't catch that! Please type a command.\n"
                     + "Type 'help' to see all available commands.");
         }
 
-        String[] tokens = normalized.split(" ", 50);
-        String commandWord = tokens[0].toLowerCase();
+        String commandWord = tokens.get(0).toLowerCase();
+        CommandBuilder builder = commands.find(commandWord);
+
+        if (builder == null) {
+            throw new CherryException("I don't recognise '" + commandWord + "' as a command. "
+                    + getSuggestion(commandWord) + "\nType 'help' to see all available commands!");
+        }
 
         try {
-            return buildCommand(commandWord, tokens);
+            return builder.build(tokens);
         } catch (CherryException e) {
             throw e;
         } catch (Exception e) {
@@ -90,81 +160,87 @@ public class Parser {
     }
 
     /**
-     * Delegates to the appropriate command builder based on the command word.
+     * Parses list commands: list, list PAGE, list PAGE SIZE or list next.
      */
-    private Command buildCommand(String commandWord, String[] tokens) throws CherryException {
-        switch (commandWord) {
-        case "help":
-            return new HelpCommand();
-        case "bye":
-            return new ByeCommand();
-        case "list":
+    private Command parseListCommand(CommandTokens tokens) throws CherryException {
+        if (tokens.size() == 1) {
             return new ListCommand();
-        case "find":
-            return parseFindCommand(tokens);
-        case "todo":
-            return parseTodoCommand(tokens);
-        case "deadline":
-            return parseDeadlineCommand(tokens);
-        case "event":
-            return parseEventCommand(tokens);
-        case "mark":
-            return new MarkCommand(getTaskNumber(tokens));
-        case "unmark":
-            return new UnmarkCommand(getTaskNumber(tokens));
-        case "delete":
-            return new DeleteCommand(getTaskNumber(tokens));
-        case "duplicate":
-            return new DuplicateCommand(getTaskNumber(tokens));
-        case "update":
-            return parseUpdateCommand(tokens);
-        default:
-            String suggestion = getSuggestion(commandWord);
-            throw new CherryException("I don't recognise '" + commandWord + "' as a command. "
-                    + suggestion + "\nType 'help' to see all available commands!");
         }
+        if (tokens.size() == 2 && tokens.isToken(1, "next")) {
+            return ListCommand.nextPage();
+        }
+        if (tokens.size() > 3) {
+            throw new CherryException("Too many details for list.\n"
+                    + "Usage: list [PAGE] [SIZE], or list next");
+        }
+
+        int page = getPositiveNumber(tokens.get(1), "page number");
+        if (tokens.size() == 2) {
+            return new ListCommand(page);
+        }
+        return new ListCommand(page, getPositiveNumber(tokens.get(2), "page size"));
+    }
+
+    /**
+     * Parses a positive whole number given for the named detail.
+     */
+    private int getPositiveNumber(String token, String detail) throws CherryException {
+        int number = parseDigits(token, 0, token.length());
+        if (number == NOT_A_NUMBER || number < 1 || number == Integer.MAX_VALUE) {
+            throw new CherryException("'" + token + "' is not a valid " + detail + ".\n"
+                    + "Please use a positive number like 1, 2, 3...");
+        }
+        return number;
     }
 
     /**
-     * Parses find commands.
+     * Parses find commands. A keyword list starting with '~' asks for approximate matches.
      */
-    private Command parseFindCommand(String[] tokens) throws CherryException {
+    private Command parseFindCommand(CommandTokens tokens) throws CherryException {
         requireArguments(tokens, "find", "find KEYWORD\nExample: find meeting");
-        return new FindCommand(getTargetTokens(tokens, 0, tokens.length));
+        String keywords = getTargetTokens(tokens, 0, tokens.size());
+        if (keywords.startsWith("~")) {
+            keywords = keywords.substring(1).trim();
+            if (keywords.isEmpty()) {
+                throw new CherryException("Please give a keyword after '~'.\nExample: find ~meting");
+            }
+            return new FindCommand(keywords, true);
+        }
+        return new FindCommand(keywords);
     }
 
     /**
      * Parses to-do commands.
      */
-    private Command parseTodoCommand(String[] tokens) throws CherryException {
+    private Command parseTodoCommand(CommandTokens tokens) throws CherryException {
         requireArguments(tokens, "todo", "todo DESCRIPTION\nExample: todo read book");
-        return new AddCommand(new Todo(getTargetTokens(tokens, 0, tokens.length)));
+        return new AddCommand(new Todo(getTargetTokens(tokens, 0, tokens.size())));
     }
 
     /**
      * Parses deadline commands.
      */
-    private Command parseDeadlineCommand(String[] tokens) throws CherryException {
+    private Command parseDeadlineCommand(CommandTokens tokens) throws CherryException {
         requireArguments(tokens, "deadline",
                 "deadline DESCRIPTION /by DATE\nExample: deadline submit report /by 2025-12-31");
 
-        int byIndex = getIndex(tokens, "/by");
+        int byIndex = getIndex(tokens, Flag.BY);
 
         if (byIndex == 1) {
             throw new CherryException("What's the deadline for?\n"
                     + "Add a description before /by.");
         }
-        if (byIndex == tokens.length - 1) {
+        if (byIndex == tokens.size() - 1) {
             throw new CherryException("When is the deadline?\n"
                     + "Add a date after /by (e.g., /by 2025-12-31).");
         }
 
         String description = getTargetTokens(tokens, 0, byIndex);
-        LocalDate date = getDate(getTargetTokens(tokens, byIndex, tokens.length));
+        LocalDate date = getDate(getTargetTokens(tokens, byIndex, tokens.size()));
 
-        if (date.isBefore(LocalDate.now())) {
+        if (date.isBefore(getToday())) {
             throw new CherryException("That deadline has already passed!\n"
-                    + "Are you sure you want to add it?");
+                    + "Are you sure you want to add it?", ResponseType.WARNING);
         }
 
         return new AddCommand(new Deadline(description, date));
@@ -173,12 +249,12 @@ public class Parser {
     /**
      * Parses event commands.
      */
-    private Command parseEventCommand(String[] tokens) throws CherryException {
+    private Command parseEventCommand(CommandTokens tokens) throws CherryException {
         requireArguments(tokens, "event",
                 "event DESCRIPTION /from START /to END\nExample: event meeting /from 2pm /to 4pm");
 
-        int fromIndex = getIndex(tokens, "/from");
-        int toIndex = getIndex(tokens, "/to");
+        int fromIndex = getIndex(tokens, Flag.FROM);
+        int toIndex = getIndex(tokens, Flag.TO);
 
         if (fromIndex >= toIndex) {
             throw new CherryException("/from must come before /to in your command.");
@@ -191,14 +267,14 @@ public class Parser {
             throw new CherryException("When does the event start?\n"
                     + "Add a start time after /from.");
         }
-        if (toIndex == tokens.length - 1) {
+        if (toIndex == tokens.size() - 1) {
             throw new CherryException("When does the event end?\n"
                     + "Add an end time after /to.");
         }
 
         String description = getTargetTokens(tokens, 0, fromIndex);
         String from = getTargetTokens(tokens, fromIndex, toIndex);
-        String to = getTargetTokens(tokens, toIndex, tokens.length);
+        String to = getTargetTokens(tokens, toIndex, tokens.size());
 
         if (from.equalsIgnoreCase(to)) {
             throw new CherryException("The start and end times are the same!\n"
@@ -211,8 +287,8 @@ public class Parser {
     /**
      * Parses update commands.
      */
-    private Command parseUpdateCommand(String[] tokens) throws CherryException {
-        int taskIndex = getTaskNumber(tokens);
+    private Command parseUpdateCommand(CommandTokens tokens) throws CherryException {
+        TaskSelection task = getSingleTask(tokens);
         Map<String, String> fields = extractUpdateFields(tokens);
 
         if (fields.isEmpty()) {
@@ -220,22 +296,22 @@ public class Parser {
                     + "Use /desc, /by, /from, or /to to specify changes.");
         }
 
-        return new UpdateCommand(taskIndex, fields);
+        return new UpdateCommand(task, fields);
     }
 
     /**
-     * Extracts all recognized update fields from the token array into a map.
+     * Extracts all recognized update fields from the tokens into a map.
      */
-    private Map<String, String> extractUpdateFields(String[] tokens) throws CherryException {
+    private Map<String, String> extractUpdateFields(CommandTokens tokens) throws CherryException {
         Map<String, String> fields = new HashMap<>();
 
-        for (String field : UPDATE_FIELDS) {
-            if (hasToken(tokens, field)) {
+        for (Flag field : UPDATE_FIELDS) {
+            if (tokens.getFlagCount(field) > 0) {
                 int fieldIdx = getIndex(tokens, field);
                 int nextIdx = findNextFieldIndex(tokens, field, fieldIdx);
                 String value = getTargetTokens(tokens, fieldIdx, nextIdx);
 
-                if (field.equals("/by")) {
+                if (field == Flag.BY) {
                     getDate(value);
                 }
 
@@ -248,24 +324,18 @@ public class Parser {
 
     /**
      * Finds the index of the next field flag that appears after currentIdx,
-     * returning tokens.length if none is found.
+     * returning the number of tokens if none is found. Flags given more than once are skipped.
      */
-    private int findNextFieldIndex(String[] tokens, String currentField, int currentIdx) {
-        int nextIdx = tokens.length;
+    private int findNextFieldIndex(CommandTokens tokens, Flag currentField, int currentIdx) {
+        int nextIdx = tokens.size();
 
-        for (String otherField : UPDATE_FIELDS) {
-            if (otherField.equals(currentField)) {
+        for (Flag otherField : UPDATE_FIELDS) {
+            if (otherField == currentField || tokens.getFlagCount(otherField) != 1) {
                 continue;
             }
-            if (hasToken(tokens, otherField)) {
-                try {
-                    int idx = getIndex(tokens, otherField);
-                    if (idx > currentIdx && idx < nextIdx) {
-                        nextIdx = idx;
-                    }
-                } catch (CherryException ignored) {
-                    // Field not present or duplicate — skip
-                }
+            int idx = tokens.getFlagIndex(otherField);
+            if (idx > currentIdx && idx < nextIdx) {
+                nextIdx = idx;
             }
         }
 
@@ -275,8 +345,8 @@ public class Parser {
     /**
      * Converts a flag like "/by" into a plain key name like "by".
      */
-    private String fieldKeyName(String flag) {
-        return flag.substring(1);
+    private String fieldKeyName(Flag flag) {
+        return flag.getText().substring(1);
     }
 
     /**
@@ -304,9 +374,9 @@ public class Parser {
     /**
      * Throws if tokens has fewer than 2 elements (i.e., no arguments given).
      */
-    private void requireArguments(String[] tokens, String command, String usage)
+    private void requireArguments(CommandTokens tokens, String command, String usage)
             throws CherryException {
-        if (tokens.length < 2) {
+        if (tokens.size() < 2) {
             throw new CherryException("Your " + command + " needs more details!\n"
                     + "Usage: " + usage);
         }
@@ -350,100 +420,172 @@ public class Parser {
     }
 
     /**
-     * Trims and collapses multiple spaces into one.
-     */
-    private String normalizeInput(String input) {
-        return input.trim().replaceAll("\\s+", " ");
-    }
-
-    /**
-     * Returns the index of the single occurrence of text in tokens.
+     * Returns the index of the single occurrence of the flag in tokens.
      */
-    private int getIndex(String[] tokens, String text) throws CherryException {
+    private int getIndex(CommandTokens tokens, Flag flag) throws CherryException {
         assert tokens != null : "Tokens should not be null";
-        assert text != null : "Search text should not be null";
+        assert flag != null : "Flag should not be null";
 
-        int count = 0;
-        int lastIndex = -1;
-
-        for (int i = 0; i < tokens.length; i += 1) {
-            if (text.equals(tokens[i])) {
-                count += 1;
-                lastIndex = i;
-            }
-        }
+        int count = tokens.getFlagCount(flag);
 
         if (count == 0) {
-            throw new CherryException("'" + text + "' is missing from your command.\n"
+            throw new CherryException("'" + flag.getText() + "' is missing from your command.\n"
                     + "Did you forget to add it?");
         }
         if (count > 1) {
-            throw new CherryException("'" + text + "' appears " + count + " times.\n"
+            throw new CherryException("'" + flag.getText() + "' appears " + count + " times.\n"
                     + "Please use each flag only once.");
         }
 
-        return lastIndex;
+        return tokens.getFlagIndex(flag);
     }
 
     /**
-     * Returns true if text appears at least once in tokens.
+     * Parses the tasks a command acts on: a task number or id, a list of task numbers, ranges and ids
+     * separated by commas or spaces (e.g. 3-40,55,#102), or 'done' or 'pending'.
      */
-    private boolean hasToken(String[] tokens, String text) {
-        assert tokens != null;
-        for (String token : tokens) {
-            if (text.equals(token)) {
-                return true;
+    private TaskSelection getTaskSelection(CommandTokens tokens) throws CherryException {
+        if (tokens.size() < 2) {
+            throw new CherryException("Please provide a task number.\n"
+                    + "Example: mark 2, mark 3-5,8 or delete done");
+        }
+
+        String selection = tokens.join(1, tokens.size());
+        if (tokens.size() == 2) {
+            if (selection.equalsIgnoreCase("done")) {
+                return TaskSelection.byStatus(true);
+            }
+            if (selection.equalsIgnoreCase("pending")) {
+                return TaskSelection.byStatus(false);
+            }
+            if (selection.indexOf('-') < 0 && selection.indexOf(',') < 0) {
+                return getSingleTask(tokens);
+            }
+        }
+
+        String[] parts = SELECTION_SEPARATORS.split(selection);
+        int[] starts = new int[parts.length];
+        int[] ends = new int[parts.length];
+        long[] ids = new long[parts.length];
+        int count = 0;
+        int idCount = 0;
+        for (String part : parts) {
+            if (part.isEmpty()) {
+                continue;
             }
+            int dashIndex = part.indexOf('-');
+            if (part.startsWith("#")) {
+                ids[idCount] = parseTaskId(part);
+                idCount += 1;
+                continue;
+            }
+            if (dashIndex < 0) {
+                starts[count] = parseTaskNumber(part);
+                ends[count] = starts[count];
+            } else {
+                starts[count] = parseRangeEnd(part, 0, dashIndex);
+                ends[count] = parseRangeEnd(part, dashIndex + 1, part.length());
+                if (starts[count] > ends[count]) {
+                    throw new CherryException("The range '" + part + "' goes backwards.\n"
+                            + "Please put the smaller number first, like "
+                            + ends[count] + "-" + starts[count] + ".");
+                }
+            }
+            count += 1;
+        }
+        if (count + idCount == 0) {
+            throw new CherryException("Please provide a task number.\n"
+                    + "Example: mark 2, mark 3-5,8 or delete done");
         }
-        return false;
+        return TaskSelection.ofRanges(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count),
+                Arrays.copyOf(ids, idCount), selection);
     }
 
     /**
-     * Parses and validates the task number from tokens[1].
+     * Parses one end of a range of task numbers, found between start and end in the part.
      */
-    private int getTaskNumber(String[] tokens) throws CherryException {
-        if (tokens.length < 2) {
+    private int parseRangeEnd(String part, int start, int end) throws CherryException {
+        if (parseDigits(part, start, end) == NOT_A_NUMBER) {
+            throw new CherryException("'" + part + "' is not a valid range of task numbers.\n"
+                    + "Please use ranges like 3-40.");
+        }
+        return parseTaskNumber(part.substring(start, end));
+    }
+
+    /**
+     * Parses the single task the second token refers to, by its task number or its id.
+     */
+    private TaskSelection getSingleTask(CommandTokens tokens) throws CherryException {
+        if (tokens.size() < 2) {
             throw new CherryException("Please provide a task number.\n"
-                    + "Example: mark 2");
+                    + "Example: mark 2 or mark #14");
         }
 
-        String numberStr = tokens[1].trim();
+        String token = tokens.get(1);
+        if (token.startsWith("#")) {
+            return TaskSelection.ofId(parseTaskId(token));
+        }
+        return TaskSelection.of(parseTaskNumber(token));
+    }
+
+    /**
+     * Parses and validates a task id written as # followed by its digits.
+     */
+    private static long parseTaskId(String idStr) throws CherryException {
+        assert idStr.startsWith("#") : "Task ids should start with #";
+        long id = 0;
+        boolean isValid = idStr.length() > 1 && idStr.length() <= MAX_ID_DIGITS + 1;
+        for (int i = 1; i < idStr.length() && isValid; i += 1) {
+            char c = idStr.charAt(i);
+            isValid = c >= '0' && c <= '9';
+            id = id * 10 + (c - '0');
+        }
+
+        if (!isValid || id < 1) {
+            throw new CherryException("'" + idStr + "' is not a valid task id.\n"
+                    + "Ids look like #14 and are shown next to each order in the list.");
+        }
+        return id;
+    }
+
+    /**
+     * Parses and validates a single task number.
+     */
+    private int parseTaskNumber(String numberStr) throws CherryException {
+        int taskIndex = parseDigits(numberStr, 0, numberStr.length());
 
-        if (!numberStr.matches("\\d+")) {
+        if (taskIndex == NOT_A_NUMBER) {
             throw new CherryException("'" + numberStr + "' is not a valid task number.\n"
                     + "Please use a positive number like 1, 2, 3...");
         }
 
-        int taskIndex = Integer.parseInt(numberStr);
-
         if (taskIndex < 1) {
             throw new CherryException("Task numbers start from 1.\n"
                     + "Please use a positive number.");
         }
-        if (taskIndex > MAX_TASKS) {
-            throw new CherryException("Task number " + taskIndex + " is too high!\n"
-                    + "Please use a number up to " + MAX_TASKS + ".");
+        if (taskIndex == Integer.MAX_VALUE) {
+            throw new CherryException("Task number " + numberStr + " is too high!\n"
+                    + "Please use the number shown next to the order in the list.");
         }
 
         return taskIndex;
     }
 
     /**
-     * Joins tokens from startTokensIndex+1 to endTokensIndex into a trimmed string.
+     * Joins tokens from startTokensIndex+1 to endTokensIndex into a single-spaced string.
      */
-    private String getTargetTokens(String[] tokens, int startTokensIndex,
+    private String getTargetTokens(CommandTokens tokens, int startTokensIndex,
                                    int endTokensIndex) throws CherryException {
         assert tokens != null : "Tokens should not be null";
         assert startTokensIndex >= 0 : "Start index must be non-negative";
         assert endTokensIndex >= 0 : "End index must be non-negative";
 
-        if (endTokensIndex > tokens.length || startTokensIndex >= endTokensIndex) {
+        if (endTokensIndex > tokens.size() || startTokensIndex >= endTokensIndex) {
             throw new CherryException("Something went wrong reading your command.\n"
                     + "Please check the format and try again.");
         }
 
-        String result = String.join(" ",
-                Arrays.copyOfRange(tokens, startTokensIndex + 1, endTokensIndex)).trim();
+        String result = tokens.join(startTokensIndex + 1, endTokensIndex);
 
         if (result.isEmpty()) {
             throw new CherryException("The description is empty!\n"
@@ -470,71 +612,96 @@ public class Parser {
                     + "Please provide a date in yyyy-MM-dd format (e.g., 2025-12-31).");
         }
 
-        if (!trimmed.matches("\\d{4}-\\d{2}-\\d{2}")) {
+        if (!isDateFormat(trimmed)) {
             throw new CherryException("'" + trimmed + "' is not in the right format.\n"
                     + "Please use yyyy-MM-dd (e.g., 2025-12-31).");
         }
 
+        LocalDate date;
         try {
-            LocalDate date = LocalDate.parse(trimmed);
-            validateDateRange(date, trimmed);
-            return date;
-        } catch (DateTimeParseException e) {
+            date = LocalDate.of(parseDigits(trimmed, 0, 4), parseDigits(trimmed, 5, 7),
+                    parseDigits(trimmed, 8, 10));
+        } catch (DateTimeException e) {
             throw new CherryException("'" + trimmed + "' is not a valid date.\n"
                     + "Please check the month and day values.");
         }
+        validateDateRange(date, trimmed);
+        return date;
     }
 
     /**
-     * Throws if the date is too far in the past or future.
+     * Returns true if the text is exactly four digits, a dash, two digits, a dash and two digits.
      */
-    private void validateDateRange(LocalDate date, String trimmed) throws CherryException {
-        if (date.isBefore(LocalDate.now().minusYears(10))) {
-            throw new CherryException("'" + trimmed + "' is more than 10 years in the past.\n"
-                    + "Are you sure that's correct?");
-        }
-        if (date.isAfter(LocalDate.now().plusYears(50))) {
-            throw new CherryException("'" + trimmed + "' is more than 50 years in the future.\n"
-                    + "Let's keep it within 50 years, shall we?");
+    private static boolean isDateFormat(String text) {
+        if (text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return false;
         }
+        return parseDigits(text, 0, 4) != NOT_A_NUMBER
+                && parseDigits(text, 5, 7) != NOT_A_NUMBER
+                && parseDigits(text, 8, 10) != NOT_A_NUMBER;
     }
 
     /**
-     * Returns a suggestion string if the input closely matches a known command.
+     * Reads the digits between start (inclusive) and end (exclusive) as a number, without creating
+     * any objects. Returns -1 if the range is empty or holds anything but ASCII digits,
+     * and Integer.MAX_VALUE if the number is too large for an int.
      */
-    private String getSuggestion(String input) {
-        String[] commands = {"todo", "deadline", "event", "list", "find",
-            "mark", "unmark", "delete", "update", "duplicate", "help", "bye"};
-
-        for (String cmd : commands) {
-            if (levenshteinDistance(input, cmd) <= 2) {
-                return "Did you mean '" + cmd + "'?";
+    private static int parseDigits(String text, int start, int end) {
+        if (start >= end) {
+            return NOT_A_NUMBER;
+        }
+        long value = 0;
+        for (int i = start; i < end; i += 1) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_A_NUMBER;
             }
+            value = Math.min(value * 10 + (c - '0'), Integer.MAX_VALUE);
         }
-        return "";
+        return (int) value;
     }
 
     /**
-     * Calculates edit distance between two strings for typo detection.
+     * Returns today's date. It is worked out again only once the clock passes midnight,
+     * along with the range of dates {@link #validateDateRange} accepts.
      */
-    private int levenshteinDistance(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+    private LocalDate getToday() {
+        long now = clock.millis();
+        if (now >= tomorrowStartMillis || today == null) {
+            today = LocalDate.now(clock);
+            earliestDate = today.minusYears(10);
+            latestDate = today.plusYears(50);
+            tomorrowStartMillis = today.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        }
+        return today;
+    }
 
-        for (int i = 0; i <= s1.length(); i += 1) {
-            dp[i][0] = i;
-        }
-        for (int j = 0; j <= s2.length(); j += 1) {
-            dp[0][j] = j;
+    /**
+     * Throws if the date is too far in the past or future.
+     */
+    private void validateDateRange(LocalDate date, String trimmed) throws CherryException {
+        getToday();
+        if (date.isBefore(earliestDate)) {
+            throw new CherryException("'" + trimmed + "' is more than 10 years in the past.\n"
+                    + "Are you sure that's correct?", ResponseType.WARNING);
         }
-        for (int i = 1; i <= s1.length(); i += 1) {
-            for (int j = 1; j <= s2.length(); j += 1) {
-                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
-                dp[i][j] = Math.min(
-                        Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                        dp[i - 1][j - 1] + cost);
-            }
+        if (date.isAfter(latestDate)) {
+            throw new CherryException("'" + trimmed + "' is more than 50 years in the future.\n"
+                    + "Let's keep it within 50 years, shall we?", ResponseType.WARNING);
         }
+    }
 
-        return dp[s1.length()][s2.length()];
+    /**
+     * Returns a hint naming the command the user may have meant, or an empty string if none is close.
+     */
+    private String getSuggestion(String input) {
+        List<String> suggestions = commands.getSuggestions(input);
+        if (suggestions.isEmpty()) {
+            return "";
+        }
+        if (suggestions.size() == 1) {
+            return "Did you mean '" + suggestions.get(0) + "'?";
+        }
+        return "Did you mean one of: " + String.join(", ", suggestions) + "?";
     }
 }
@@ -0,0 +1,51 @@
+package cherry.search;
+
+/**
+ * Computes the Levenshtein edit distance between strings, for typo detection.
+ */
+public class EditDistance {
+    private EditDistance() {
+    }
+
+    /**
+     * Returns the number of single character insertions, deletions and substitutions
+     * needed to turn one string into the other.
+     */
+    public static int between(String s1, String s2) {
+        return between(s1, s2, Math.max(s1.length(), s2.length()));
+    }
+
+    /**
+     * Returns the edit distance between the strings if it is at most the limit, and limit + 1 otherwise.
+     * Stops as soon as every way of lining up the strings costs more than the limit.
+     */
+    public static int between(String s1, String s2, int limit) {
+        if (Math.abs(s1.length() - s2.length()) > limit) {
+            return limit + 1;
+        }
+
+        int[] previous = new int[s2.length() + 1];
+        int[] current = new int[s2.length() + 1];
+        for (int j = 0; j <= s2.length(); j += 1) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= s1.length(); i += 1) {
+            current[0] = i;
+            int rowMinimum = i;
+            for (int j = 1; j <= s2.length(); j += 1) {
+                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(
+                        Math.min(previous[j] + 1, current[j - 1] + 1),
+                        previous[j - 1] + cost);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[s2.length()], limit + 1);
+    }
+}
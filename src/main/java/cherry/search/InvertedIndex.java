@@ -0,0 +1,323 @@
+package cherry.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Maps each term of some documents to the sorted ids of the documents containing it.
+ * <p>
+ * Terms are the runs of letters and digits in a document, in lower case.
+ * A query matches the documents which contain, for every term in the query,
+ * some term starting with it. So {@code "buy cof"} matches {@code "Buy coffee beans"}.
+ * Terms are kept sorted, so all terms with a given prefix are found by one range lookup.
+ * </p>
+ * <p>
+ * For approximate searches, each term is also indexed by its trigrams (the three-letter runs of
+ * the term wrapped in '$'). A term within edit distance k of a query word shares all but at most
+ * 3k of the word's trigrams, so only terms sharing enough trigrams need their distance computed.
+ * </p>
+ */
+public class InvertedIndex {
+    private static final int[] NO_IDS = new int[0];
+    private static final char TRIGRAM_PADDING = '$';
+
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+
+    /**
+     * Adds the document with the given id and text to the index.
+     */
+    public void add(int id, String text) {
+        for (String term : getTerms(text)) {
+            postings.computeIfAbsent(term, this::addTerm).add(id);
+        }
+    }
+
+    /**
+     * Removes the document with the given id and text from the index.
+     * The text must be the same as when the document was added.
+     */
+    public void remove(int id, String text) {
+        for (String term : getTerms(text)) {
+            Postings ids = postings.get(term);
+            if (ids == null) {
+                continue;
+            }
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+                removeTerm(term);
+            }
+        }
+    }
+
+    /**
+     * Returns the ids, in increasing order, of the documents matching every term of the query
+     * as a prefix. Returns no ids if the query has no terms.
+     */
+    public int[] search(String query) {
+        Set<String> queryTerms = getTerms(query);
+        if (queryTerms.isEmpty()) {
+            return NO_IDS;
+        }
+
+        List<Postings> exactMatches = new ArrayList<>();
+        List<BitSet> prefixMatches = new ArrayList<>();
+        for (String queryTerm : queryTerms) {
+            SortedMap<String, Postings> matches = getTermsStartingWith(queryTerm);
+            if (matches.isEmpty()) {
+                return NO_IDS;
+            } else if (matches.size() == 1) {
+                exactMatches.add(matches.values().iterator().next());
+            } else {
+                prefixMatches.add(union(matches.values()));
+            }
+        }
+        return intersect(exactMatches, prefixMatches);
+    }
+
+    /**
+     * Returns the ids of the documents which contain, for every word of the query, a term within
+     * a small edit distance of it. The closest documents come first, by the sum of the distances,
+     * and then by id. At most limit ids are returned.
+     */
+    public int[] searchApproximately(String query, int limit) {
+        assert limit > 0 : "Limit should be positive";
+        Set<String> queryTerms = getTerms(query);
+        if (queryTerms.isEmpty()) {
+            return NO_IDS;
+        }
+
+        Map<Integer, Integer> totalDistances = null;
+        for (String queryTerm : queryTerms) {
+            Map<Integer, Integer> distances = getClosestDistances(queryTerm, totalDistances);
+            if (distances.isEmpty()) {
+                return NO_IDS;
+            }
+            if (totalDistances != null) {
+                for (Map.Entry<Integer, Integer> entry : distances.entrySet()) {
+                    entry.setValue(entry.getValue() + totalDistances.get(entry.getKey()));
+                }
+            }
+            totalDistances = distances;
+        }
+
+        long[] ranked = new long[totalDistances.size()];
+        int count = 0;
+        for (Map.Entry<Integer, Integer> entry : totalDistances.entrySet()) {
+            ranked[count] = ((long) entry.getValue() << Integer.SIZE) | entry.getKey();
+            count += 1;
+        }
+        Arrays.sort(ranked);
+
+        int[] ids = new int[Math.min(limit, count)];
+        for (int i = 0; i < ids.length; i += 1) {
+            ids[i] = (int) ranked[i];
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the smallest edit distance from the query word to a term of each document within
+     * reach of it. If allowedIds is not null, only documents among its keys are kept.
+     */
+    private Map<Integer, Integer> getClosestDistances(String queryTerm, Map<Integer, Integer> allowedIds) {
+        int maxDistance = getMaxDistance(queryTerm);
+        Map<Integer, Integer> distances = new HashMap<>();
+        for (String term : getCandidateTerms(queryTerm, maxDistance)) {
+            int distance = EditDistance.between(queryTerm, term, maxDistance);
+            if (distance > maxDistance) {
+                continue;
+            }
+            Postings ids = postings.get(term);
+            for (int i = 0; i < ids.size(); i += 1) {
+                int id = ids.get(i);
+                if (allowedIds == null || allowedIds.containsKey(id)) {
+                    distances.merge(id, distance, Math::min);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Returns the terms which may be within the given edit distance of the query word.
+     */
+    private Collection<String> getCandidateTerms(String queryTerm, int maxDistance) {
+        Set<String> queryTrigrams = getTrigrams(queryTerm);
+        int minSharedTrigrams = queryTrigrams.size() - 3 * maxDistance;
+        if (minSharedTrigrams <= 0) {
+            // Too short for trigrams to rule anything out, so check every term of a close length
+            List<String> candidates = new ArrayList<>();
+            for (String term : postings.keySet()) {
+                if (Math.abs(term.length() - queryTerm.length()) <= maxDistance) {
+                    candidates.add(term);
+                }
+            }
+            return candidates;
+        }
+
+        Map<String, Integer> sharedTrigrams = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (String term : termsByTrigram.getOrDefault(trigram, Set.of())) {
+                sharedTrigrams.merge(term, 1, Integer::sum);
+            }
+        }
+        List<String> candidates = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : sharedTrigrams.entrySet()) {
+            if (entry.getValue() >= minSharedTrigrams) {
+                candidates.add(entry.getKey());
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns how many typos are tolerated in a query word of this length.
+     */
+    private static int getMaxDistance(String queryTerm) {
+        if (queryTerm.length() <= 2) {
+            return 0;
+        } else if (queryTerm.length() <= 5) {
+            return 1;
+        } else {
+            return 2;
+        }
+    }
+
+    /**
+     * Replaces every id in the index by its mapping, which must keep the ids in the same order.
+     */
+    public void remap(IntUnaryOperator mapping) {
+        for (Postings ids : postings.values()) {
+            ids.remap(mapping);
+        }
+    }
+
+    /**
+     * Returns the number of distinct terms in the index.
+     */
+    public int getTermCount() {
+        return postings.size();
+    }
+
+    /**
+     * Splits text into its distinct terms, in order of first appearance.
+     */
+    public static Set<String> getTerms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        int length = text.length();
+        int start = 0;
+        while (start < length) {
+            while (start < length && !Character.isLetterOrDigit(text.charAt(start))) {
+                start += 1;
+            }
+            int end = start;
+            while (end < length && Character.isLetterOrDigit(text.charAt(end))) {
+                end += 1;
+            }
+            if (end > start) {
+                terms.add(text.substring(start, end).toLowerCase());
+            }
+            start = end;
+        }
+        return terms;
+    }
+
+    /**
+     * Returns the distinct trigrams of a term wrapped in '$', so that the start and the end
+     * of the term count too.
+     */
+    private static Set<String> getTrigrams(String term) {
+        String padded = TRIGRAM_PADDING + term + TRIGRAM_PADDING;
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i += 1) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private Postings addTerm(String term) {
+        for (String trigram : getTrigrams(term)) {
+            termsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(term);
+        }
+        return new Postings();
+    }
+
+    private void removeTerm(String term) {
+        for (String trigram : getTrigrams(term)) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            terms.remove(term);
+            if (terms.isEmpty()) {
+                termsByTrigram.remove(trigram);
+            }
+        }
+    }
+
+    private SortedMap<String, Postings> getTermsStartingWith(String prefix) {
+        return postings.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    private static BitSet union(Iterable<Postings> postingsList) {
+        BitSet ids = new BitSet();
+        for (Postings termIds : postingsList) {
+            for (int i = 0; i < termIds.size(); i += 1) {
+                ids.set(termIds.get(i));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the ids present in every posting list and every bitset, walking the shortest
+     * posting list and probing the rest.
+     */
+    private static int[] intersect(List<Postings> exactMatches, List<BitSet> prefixMatches) {
+        if (exactMatches.isEmpty()) {
+            BitSet ids = prefixMatches.get(0);
+            for (int i = 1; i < prefixMatches.size(); i += 1) {
+                ids.and(prefixMatches.get(i));
+            }
+            return ids.stream().toArray();
+        }
+
+        exactMatches.sort(Comparator.comparingInt(Postings::size));
+        Postings shortest = exactMatches.get(0);
+        int[] ids = new int[shortest.size()];
+        int count = 0;
+        for (int i = 0; i < shortest.size(); i += 1) {
+            int id = shortest.get(i);
+            if (isInAll(id, exactMatches, prefixMatches)) {
+                ids[count] = id;
+                count += 1;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private static boolean isInAll(int id, List<Postings> exactMatches, List<BitSet> prefixMatches) {
+        for (int i = 1; i < exactMatches.size(); i += 1) {
+            if (!exactMatches.get(i).contains(id)) {
+                return false;
+            }
+        }
+        for (BitSet ids : prefixMatches) {
+            if (!ids.get(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,78 @@
+package cherry.search;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Represents a sorted set of ids, such as those of the documents which contain one term.
+ * Takes four bytes per id however far apart the ids are.
+ */
+public class Postings {
+    private int[] ids = new int[2];
+    private int size;
+
+    /**
+     * Adds a document id, keeping the ids sorted. New documents have the largest id so far,
+     * so they are appended without searching.
+     */
+    public void add(int id) {
+        int position = size;
+        if (size > 0 && ids[size - 1] >= id) {
+            position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        size += 1;
+    }
+
+    /**
+     * Removes a document id if it is present.
+     */
+    public void remove(int id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size -= 1;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int i) {
+        return ids[i];
+    }
+
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * Replaces every id by its mapping, which must keep the ids in the same order.
+     */
+    public void remap(IntUnaryOperator mapping) {
+        for (int i = 0; i < size; i += 1) {
+            ids[i] = mapping.applyAsInt(ids[i]);
+        }
+    }
+
+    /**
+     * Returns a copy of the ids.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+}
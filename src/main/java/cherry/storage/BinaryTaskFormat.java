@@ -0,0 +1,289 @@
+package cherry.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import cherry.task.Deadline;
+import cherry.task.Event;
+import cherry.task.Task;
+import cherry.task.Todo;
+
+/**
+ * Reads and writes the compact binary data file format.
+ * <p>
+ * A binary data file starts with the magic bytes {@code CHRY}, a version byte and the number
+ * of records. Each record is a type tag byte, a done flag byte, the task's id as 8 bytes and the
+ * task fields: strings are stored as a length followed by their UTF-8 bytes, and deadline dates as
+ * an epoch day. Files of version 1, written before tasks had ids, are still read.
+ * Loading reads the file into one buffer and decodes the records directly, without any text parsing.
+ * The buffer is not a mapping of the file, which would stop the next snapshot from replacing
+ * the file on some platforms (e.g. Windows) until the mapping was garbage collected.
+ * </p>
+ * <p>
+ * A load therefore copies the whole file once, into a heap buffer as large as the file, and then copies
+ * each string out of it as the records are decoded. {@link FileContents} explains why the file is read
+ * in slices rather than in one call.
+ * Storage opens files of 16 MiB or more as a {@link LazyTaskList} instead, which maps a copy of the file.
+ * </p>
+ */
+public class BinaryTaskFormat {
+    private static final byte[] MAGIC = {'C', 'H', 'R', 'Y'};
+    private static final byte VERSION = 2;
+    private static final byte VERSION_WITHOUT_IDS = 1;
+    private static final byte TODO = 'T';
+    private static final byte DEADLINE = 'D';
+    private static final byte EVENT = 'E';
+    private static final int HEADER_LENGTH = MAGIC.length + 1 + Integer.BYTES;
+
+    private BinaryTaskFormat() {
+    }
+
+    /**
+     * Returns true if the given file exists and starts with the binary format's magic bytes.
+     */
+    public static boolean isBinary(File file) throws IOException {
+        if (!file.exists() || file.length() < MAGIC.length) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(MAGIC.length);
+            while (head.hasRemaining() && channel.read(head) >= 0) {
+                // keep reading until the magic bytes are in
+            }
+            for (int i = 0; i < MAGIC.length; i += 1) {
+                if (head.get(i) != MAGIC[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Writes the tasks in binary format to the given stream. The stream is flushed but not closed.
+     */
+    public static void write(OutputStream out, List<Task> tasks) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(tasks.size());
+
+        for (Task task : tasks) {
+            if (task instanceof Deadline deadline) {
+                data.writeByte(DEADLINE);
+                data.writeByte(task.isDone() ? 1 : 0);
+                data.writeLong(task.getId());
+                writeString(data, task.getDescription());
+                data.writeInt((int) deadline.getDeadlineDate().toEpochDay());
+            } else if (task instanceof Event event) {
+                data.writeByte(EVENT);
+                data.writeByte(task.isDone() ? 1 : 0);
+                data.writeLong(task.getId());
+                writeString(data, task.getDescription());
+                writeString(data, event.getFrom());
+                writeString(data, event.getTo());
+            } else {
+                data.writeByte(TODO);
+                data.writeByte(task.isDone() ? 1 : 0);
+                data.writeLong(task.getId());
+                writeString(data, task.getDescription());
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Loads every task from a binary data file, reading the file into memory in one go.
+     * If the file is truncated or corrupted, returns the tasks before the damaged record.
+     */
+    public static ArrayList<Task> read(File file) throws IOException {
+        return read(FileContents.read(file), file.getPath());
+    }
+
+    /**
+     * Decodes every task from the contents of a binary data file.
+     */
+    private static ArrayList<Task> read(ByteBuffer buffer, String path) throws IOException {
+        int count = readHeader(buffer, path);
+        boolean hasIds = hasIds(buffer);
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        byte[] scratch = new byte[256];
+
+        try {
+            for (int i = 0; i < count; i += 1) {
+                tasks.add(readRecord(buffer, scratch, hasIds));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+            printCorruptedRecord(tasks.size());
+        }
+        return tasks;
+    }
+
+    /**
+     * Checks the header at the start of the buffer and returns the number of records after it.
+     * Leaves the buffer positioned at the first record.
+     */
+    static int readHeader(ByteBuffer buffer, String path) throws IOException {
+        if (buffer.remaining() < HEADER_LENGTH) {
+            throw new IOException("Binary data file is too short: " + path);
+        }
+        for (byte magicByte : MAGIC) {
+            if (buffer.get() != magicByte) {
+                throw new IOException("Not a binary data file: " + path);
+            }
+        }
+        byte version = buffer.get();
+        if (version != VERSION && version != VERSION_WITHOUT_IDS) {
+            throw new IOException("Unsupported binary data file version " + version + ": " + path);
+        }
+        return Math.max(buffer.getInt(), 0);
+    }
+
+    /**
+     * Returns whether the records in the buffer, whose header has been checked, hold task ids.
+     * Files written before tasks had ids do not.
+     */
+    static boolean hasIds(ByteBuffer buffer) {
+        return buffer.get(MAGIC.length) != VERSION_WITHOUT_IDS;
+    }
+
+    /**
+     * Returns the position of each of the next count records in the buffer, without decoding them.
+     * If the buffer is truncated or corrupted, returns the positions of the records before the damage.
+     */
+    static int[] indexRecords(ByteBuffer buffer, int count, boolean hasIds) {
+        int[] offsets = new int[count];
+        int indexed = 0;
+
+        try {
+            while (indexed < count) {
+                int offset = buffer.position();
+                skipRecord(buffer, hasIds);
+                offsets[indexed] = offset;
+                indexed += 1;
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            printCorruptedRecord(indexed);
+            return Arrays.copyOf(offsets, indexed);
+        }
+        return offsets;
+    }
+
+    /**
+     * Returns the id held by the record at the given offset in the buffer, or 0 if the task had none
+     * when it was written, without moving the position. The records must hold ids.
+     */
+    static long readId(ByteBuffer buffer, int offset) {
+        // The id follows the type tag and done flag
+        return buffer.getLong(offset + 2);
+    }
+
+    /**
+     * Decodes the record at the buffer's position into a task, moving the position past it.
+     *
+     * @throws IllegalArgumentException if the record is corrupted.
+     */
+    static Task readRecord(ByteBuffer buffer, byte[] scratch, boolean hasIds) {
+        byte tag = buffer.get();
+        boolean isDone = buffer.get() != 0;
+        long id = hasIds ? buffer.getLong() : 0;
+        String description = readString(buffer, scratch);
+        Task task;
+        switch (tag) {
+        case TODO:
+            task = new Todo(description, isDone);
+            break;
+        case DEADLINE:
+            task = new Deadline(description, isDone, LocalDate.ofEpochDay(buffer.getInt()));
+            break;
+        case EVENT:
+            String from = readString(buffer, scratch);
+            String to = readString(buffer, scratch);
+            task = new Event(description, isDone, from, to);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown task type " + tag);
+        }
+        if (id < 0) {
+            throw new IllegalArgumentException("Invalid task id " + id);
+        }
+        if (id != 0) {
+            task.assignId(id);
+        }
+        return task;
+    }
+
+    /**
+     * Moves the buffer's position past the record at it, checking only its structure.
+     */
+    private static void skipRecord(ByteBuffer buffer, boolean hasIds) {
+        byte tag = buffer.get();
+        buffer.get();
+        if (hasIds) {
+            buffer.getLong();
+        }
+        skipString(buffer);
+        switch (tag) {
+        case TODO:
+            break;
+        case DEADLINE:
+            buffer.getInt();
+            break;
+        case EVENT:
+            skipString(buffer);
+            skipString(buffer);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown task type " + tag);
+        }
+    }
+
+    private static void printCorruptedRecord(int validRecords) {
+        System.out.println("Skipped corrupted data: data file is damaged after " + validRecords + " tasks");
+    }
+
+    /**
+     * Writes a string as its UTF-8 length followed by its UTF-8 bytes.
+     */
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}, reusing the scratch array where it is large enough.
+     */
+    private static String readString(ByteBuffer buffer, byte[] scratch) {
+        int length = readStringLength(buffer);
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = readStringLength(buffer);
+        buffer.position(buffer.position() + length);
+    }
+
+    private static int readStringLength(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        return length;
+    }
+}
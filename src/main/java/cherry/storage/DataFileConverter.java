@@ -0,0 +1,82 @@
+package cherry.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import cherry.task.Task;
+
+/**
+ * Converts data files between the text and binary {@link SnapshotFormat}s.
+ * Once a data file is converted, {@link Storage} keeps writing it in its new format.
+ * <p>
+ * Usage: {@code java -cp cherry.jar cherry.storage.DataFileConverter (text|binary) SOURCE [TARGET]}.
+ * The source is converted in place if no target is given.
+ * </p>
+ */
+public class DataFileConverter {
+    private DataFileConverter() {
+    }
+
+    /**
+     * Converts a data file of either format into a binary data file.
+     */
+    public static int toBinary(File source, File target) throws IOException {
+        return convert(source, target, SnapshotFormat.BINARY);
+    }
+
+    /**
+     * Converts a data file of either format into a text data file.
+     */
+    public static int toText(File source, File target) throws IOException {
+        return convert(source, target, SnapshotFormat.TEXT);
+    }
+
+    /**
+     * Reads every task in the source and atomically writes them to the target in the given format.
+     * Returns the number of tasks converted.
+     */
+    public static int convert(File source, File target, SnapshotFormat format) throws IOException {
+        if (!source.exists()) {
+            throw new IOException("Data file not found: " + source.getPath());
+        }
+
+        ArrayList<Task> tasks = SnapshotReader.read(source);
+        SnapshotWriter writer = new SnapshotWriter(DurabilityPolicy.ALWAYS);
+        File tempFile = new File(target.getPath() + ".tmp");
+        writer.createDirectory(target.getAbsoluteFile().getParentFile());
+        writer.writeTemp(tempFile, tasks, format);
+        writer.commit(tempFile, target);
+        return tasks.size();
+    }
+
+    /**
+     * Converts the data file named on the command line.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("Usage: DataFileConverter (text|binary) SOURCE [TARGET]");
+            System.exit(1);
+        }
+
+        SnapshotFormat format;
+        try {
+            format = SnapshotFormat.valueOf(args[0].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown format '" + args[0] + "'. Use text or binary.");
+            System.exit(1);
+            return;
+        }
+
+        File source = new File(args[1]);
+        File target = new File(args.length == 3 ? args[2] : args[1]);
+        try {
+            int count = convert(source, target, format);
+            System.out.println("Converted " + count + " tasks to " + format.name().toLowerCase()
+                    + ": " + target.getPath());
+        } catch (IOException e) {
+            System.out.println("Error converting data file: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package cherry.storage;
+
+import cherry.exception.CherryException;
+
+/**
+ * Represents how often the storage forces written data onto the disk.
+ * Forcing after every write survives power loss but makes each save slower,
+ * while never forcing leaves it to the operating system to write the data out.
+ */
+public class DurabilityPolicy {
+    /** Forces data to the disk after every write. */
+    public static final DurabilityPolicy ALWAYS = new DurabilityPolicy(0);
+    /** Never forces data to the disk. */
+    public static final DurabilityPolicy NEVER = new DurabilityPolicy(-1);
+    /** Forces data to the disk at most once a second, which is used unless another policy is chosen. */
+    public static final DurabilityPolicy DEFAULT = new DurabilityPolicy(1000);
+    /** Names the system property which chooses the policy, such as {@code -Dcherry.durability=never}. */
+    public static final String PROPERTY = "cherry.durability";
+
+    private final long intervalMillis;
+
+    private DurabilityPolicy(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Returns a policy which forces data to the disk at most once every intervalMillis,
+     * so at most that much of the latest work can be lost on a power failure.
+     */
+    public static DurabilityPolicy every(long intervalMillis) {
+        assert intervalMillis > 0 : "Sync interval should be positive";
+        return new DurabilityPolicy(intervalMillis);
+    }
+
+    /**
+     * Returns the policy written as {@code always}, {@code never}, or a number of milliseconds
+     * between syncs such as {@code every 500 ms} or just {@code 500}.
+     */
+    public static DurabilityPolicy parse(String text) throws CherryException {
+        assert text != null : "Policy text should not be null";
+        String policy = text.trim().toLowerCase();
+        if (policy.equals("always")) {
+            return ALWAYS;
+        }
+        if (policy.equals("never")) {
+            return NEVER;
+        }
+
+        if (policy.startsWith("every")) {
+            policy = policy.substring("every".length()).trim();
+        }
+        if (policy.endsWith("ms")) {
+            policy = policy.substring(0, policy.length() - "ms".length()).trim();
+        }
+        try {
+            long intervalMillis = Long.parseLong(policy);
+            if (intervalMillis > 0) {
+                return every(intervalMillis);
+            }
+        } catch (NumberFormatException e) {
+            // Falls through to the error below
+        }
+        throw new CherryException("'" + text + "' is not a durability policy.\n"
+                + "Use always, never or a number of milliseconds between syncs, like 1000.");
+    }
+
+    /**
+     * Returns whether this policy ever forces data to the disk.
+     */
+    public boolean isEnabled() {
+        return intervalMillis >= 0;
+    }
+
+    /**
+     * Returns the minimum time between two syncs, or 0 if every write is synced.
+     */
+    public long getIntervalMillis() {
+        return Math.max(intervalMillis, 0);
+    }
+
+    /**
+     * Returns whether a sync is due, given the time of the last sync in {@link System#nanoTime()} units.
+     */
+    public boolean isSyncDue(long lastSyncNanos, long nowNanos) {
+        if (intervalMillis < 0) {
+            return false;
+        }
+        return intervalMillis == 0 || nowNanos - lastSyncNanos >= intervalMillis * 1_000_000L;
+    }
+
+    @Override
+    public String toString() {
+        if (intervalMillis < 0) {
+            return "never";
+        }
+        return intervalMillis == 0 ? "always" : "every " + intervalMillis + " ms";
+    }
+}
@@ -0,0 +1,43 @@
+package cherry.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads whole data files into memory.
+ * <p>
+ * The JDK reads a file into a heap buffer through a temporary native buffer as large as the read,
+ * and keeps that buffer cached on the reading thread until the thread ends. Reading a whole file
+ * in one call would therefore copy it twice and hold a native copy of it for as long as the thread
+ * lives, so files are read {@value #SLICE_BYTES} bytes at a time instead.
+ * </p>
+ */
+final class FileContents {
+    private static final int SLICE_BYTES = 1024 * 1024;
+
+    private FileContents() {
+    }
+
+    /**
+     * Returns a heap buffer holding the whole file, positioned at its start.
+     */
+    static ByteBuffer read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Data file is too large: " + file.getPath());
+            }
+            int size = (int) channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            int read = 0;
+            while (read >= 0 && buffer.position() < size) {
+                buffer.limit(Math.min(size, buffer.position() + SLICE_BYTES));
+                read = channel.read(buffer);
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package cherry.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import cherry.exception.CherryException;
+import cherry.parser.Parser;
+import cherry.task.Task;
+import cherry.task.TaskChange;
+
+/**
+ * Represents the append-only log of changes made to the task list since the last snapshot.
+ * Each change is written as a single short record, so the cost of saving a change
+ * does not depend on the number of tasks in the list.
+ * <p>
+ * Records are forced to the disk according to the {@link DurabilityPolicy}. Under an interval
+ * policy, a record that was not synced when it was written stays dirty until the next append
+ * or an explicit {@link #sync()}.
+ * </p>
+ */
+public class Journal {
+    private static final char ADD = 'A';
+    private static final char DELETE = 'D';
+    private static final char MARK = 'M';
+    private static final char UNMARK = 'U';
+    private static final char REPLACE = 'R';
+    private static final char INSERT = 'I';
+    private static final char SEPARATOR = '|';
+    private static final char NUMBER_SEPARATOR = ',';
+    private static final char RANGE_SEPARATOR = '-';
+
+    private final File file;
+    private final DurabilityPolicy policy;
+    private FileOutputStream out;
+    private BufferedWriter writer;
+    private long size;
+    private long lastSyncNanos;
+    private boolean isDirty = false;
+    private long syncCount;
+
+    /**
+     * Creates a journal backed by the given file, which is forced to the disk according to the
+     * given policy. The file is only created on the first append.
+     */
+    public Journal(File file, DurabilityPolicy policy) {
+        assert policy != null : "Durability policy should not be null";
+        this.file = file;
+        this.policy = policy;
+        this.size = file.length();
+        this.lastSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * Appends a record to the end of the journal and flushes it to the file.
+     */
+    public void append(String record) throws IOException {
+        assert record != null : "Journal record should not be null";
+        appendAll(List.of(record));
+    }
+
+    /**
+     * Appends the records to the end of the journal in order, flushing them to the file in one write.
+     * Either every record is appended or none is: if writing fails part of the way, the file is cut
+     * back to its length before the append, and the error is thrown.
+     */
+    public void appendAll(List<String> records) throws IOException {
+        if (writer == null) {
+            open();
+        }
+        long startLength = out.getChannel().size();
+        long startSize = size;
+        try {
+            for (String record : records) {
+                writer.write(record);
+                writer.write(System.lineSeparator());
+                size += record.length() + System.lineSeparator().length();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            discardPartialAppend(startLength, e);
+            size = startSize;
+            throw e;
+        }
+        isDirty = true;
+
+        if (policy.isSyncDue(lastSyncNanos, System.nanoTime())) {
+            sync();
+        }
+    }
+
+    /**
+     * Forces any records not yet on the disk onto it, unless the policy never syncs.
+     */
+    public void sync() throws IOException {
+        if (!isDirty || out == null || !policy.isEnabled()) {
+            return;
+        }
+        out.getFD().sync();
+        lastSyncNanos = System.nanoTime();
+        isDirty = false;
+        syncCount += 1;
+    }
+
+    /**
+     * Returns whether some appended records have not been forced to the disk yet.
+     */
+    public boolean isDirty() {
+        return isDirty && policy.isEnabled();
+    }
+
+    /**
+     * Returns how many times the journal has been forced to the disk.
+     */
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    /**
+     * Returns the approximate size of the journal in bytes.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Closes the journal and re-reads its size, after the file was moved or truncated.
+     */
+    public void reset() throws IOException {
+        close();
+        size = file.length();
+    }
+
+    /**
+     * Closes the underlying file, if it was opened.
+     */
+    public void close() throws IOException {
+        if (writer != null) {
+            sync();
+            writer.close();
+            writer = null;
+            out = null;
+            isDirty = false;
+        }
+    }
+
+    /**
+     * Drops the records still buffered and cuts the file back to the given length, so that no part of
+     * a failed append is left in the journal. The journal is opened again by the next append.
+     * A failure to cut the file back is added to the error of the append.
+     */
+    private void discardPartialAppend(long startLength, IOException error) {
+        // Closing the stream under the writer drops its buffer, where closing the writer would write it
+        try {
+            out.close();
+        } catch (IOException e) {
+            error.addSuppressed(e);
+        }
+        writer = null;
+        out = null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(startLength);
+            if (policy.isEnabled()) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            error.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Opens the journal file for appending, creating it if needed.
+     */
+    private void open() throws IOException {
+        boolean isNewFile = !file.exists();
+        out = new FileOutputStream(file, true);
+        writer = new BufferedWriter(new OutputStreamWriter(out));
+        if (isNewFile && policy.isEnabled()) {
+            SnapshotWriter.syncDirectory(file.getAbsoluteFile().getParentFile());
+        }
+    }
+
+    /**
+     * Returns the record for a task added to the bottom of the list.
+     */
+    public static String formatAdd(Task task) {
+        StringBuilder record = new StringBuilder().append(ADD).append(SEPARATOR);
+        task.appendSaveFormat(record);
+        return record.toString();
+    }
+
+    /**
+     * Returns the record for the tasks deleted, all at once, at the given ascending task numbers (1-based).
+     */
+    public static String formatDelete(int... taskNumbers) {
+        return formatTaskNumbers(DELETE, taskNumbers);
+    }
+
+    /**
+     * Returns the record for the tasks marked as done at the given task numbers (1-based).
+     */
+    public static String formatMark(int... taskNumbers) {
+        return formatTaskNumbers(MARK, taskNumbers);
+    }
+
+    /**
+     * Returns the record for the tasks unmarked at the given task numbers (1-based).
+     */
+    public static String formatUnmark(int... taskNumbers) {
+        return formatTaskNumbers(UNMARK, taskNumbers);
+    }
+
+    /**
+     * Returns a record of the given kind listing ascending task numbers separated by commas,
+     * with runs of consecutive numbers written as ranges, such as {@code D|3-40,55}.
+     */
+    private static String formatTaskNumbers(char kind, int[] taskNumbers) {
+        assert taskNumbers.length > 0 : "A record should name at least one task";
+        StringBuilder record = new StringBuilder().append(kind).append(SEPARATOR);
+        int i = 0;
+        while (i < taskNumbers.length) {
+            int runEnd = i;
+            while (runEnd + 1 < taskNumbers.length && taskNumbers[runEnd + 1] == taskNumbers[runEnd] + 1) {
+                runEnd += 1;
+            }
+            if (i > 0) {
+                record.append(NUMBER_SEPARATOR);
+            }
+            record.append(taskNumbers[i]);
+            if (runEnd > i) {
+                record.append(RANGE_SEPARATOR).append(taskNumbers[runEnd]);
+            }
+            i = runEnd + 1;
+        }
+        return record.toString();
+    }
+
+    /**
+     * Returns the record for a task replaced at the given task number (1-based),
+     * such as after its fields were updated.
+     */
+    public static String formatReplace(int taskNumber, Task task) {
+        StringBuilder record = new StringBuilder().append(REPLACE).append(SEPARATOR)
+                .append(taskNumber).append(SEPARATOR);
+        task.appendSaveFormat(record);
+        return record.toString();
+    }
+
+    /**
+     * Returns the record for a task put back at the given task number (1-based),
+     * such as when a delete is undone.
+     */
+    public static String formatInsert(int taskNumber, Task task) {
+        StringBuilder record = new StringBuilder().append(INSERT).append(SEPARATOR)
+                .append(taskNumber).append(SEPARATOR);
+        task.appendSaveFormat(record);
+        return record.toString();
+    }
+
+    /**
+     * Returns the records for a change made to the task list, such as one undone or redone.
+     */
+    public static List<String> format(TaskChange change) {
+        int[] taskNumbers = change.getTaskNumbers();
+        List<Task> tasks = change.getTasks();
+        switch (change.getKind()) {
+        case ADD:
+            return List.of(formatAdd(tasks.get(0)));
+        case INSERT:
+            List<String> records = new ArrayList<>(taskNumbers.length);
+            for (int i = 0; i < taskNumbers.length; i += 1) {
+                records.add(formatInsert(taskNumbers[i], tasks.get(i)));
+            }
+            return records;
+        case DELETE:
+            return List.of(formatDelete(taskNumbers));
+        case MARK:
+            return List.of(formatMark(taskNumbers));
+        case UNMARK:
+            return List.of(formatUnmark(taskNumbers));
+        case REPLACE:
+            return List.of(formatReplace(taskNumbers[0], tasks.get(0)));
+        default:
+            throw new AssertionError("Unknown change: " + change.getKind());
+        }
+    }
+
+    /**
+     * Applies every record in the given journal file to the tasks, in order.
+     * Records which cannot be applied (e.g. a half-written last line) are skipped.
+     * Changed tasks are always set back into the list, so lazily loaded lists keep them.
+     * Does nothing if the file does not exist.
+     */
+    public static void replay(File file, List<Task> tasks, Parser parser) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    apply(line, tasks, parser);
+                } catch (CherryException e) {
+                    System.out.println("Skipped corrupted journal record: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a single journal record to the tasks.
+     */
+    private static void apply(String record, List<Task> tasks, Parser parser) throws CherryException {
+        if (record.length() < 2 || record.charAt(1) != SEPARATOR) {
+            throw new CherryException("Invalid journal record: " + record);
+        }
+
+        String payload = record.substring(2);
+        switch (record.charAt(0)) {
+        case ADD:
+            tasks.add(parser.getTaskFromString(payload));
+            break;
+        case DELETE:
+            int[] deleteIndexes = toIndexes(payload, tasks);
+            for (int i = deleteIndexes.length - 1; i >= 0; i -= 1) {
+                tasks.remove(deleteIndexes[i]);
+            }
+            break;
+        case MARK:
+            for (int markIndex : toIndexes(payload, tasks)) {
+                Task markedTask = tasks.get(markIndex);
+                markedTask.markTask();
+                tasks.set(markIndex, markedTask);
+            }
+            break;
+        case UNMARK:
+            for (int unmarkIndex : toIndexes(payload, tasks)) {
+                Task unmarkedTask = tasks.get(unmarkIndex);
+                unmarkedTask.unmarkTask();
+                tasks.set(unmarkIndex, unmarkedTask);
+            }
+            break;
+        case REPLACE:
+            int separatorIndex = payload.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new CherryException("Invalid journal record: " + record);
+            }
+            int index = toIndex(payload.substring(0, separatorIndex), tasks);
+            tasks.set(index, parser.getTaskFromString(payload.substring(separatorIndex + 1)));
+            break;
+        case INSERT:
+            int insertSeparatorIndex = payload.indexOf(SEPARATOR);
+            if (insertSeparatorIndex < 0) {
+                throw new CherryException("Invalid journal record: " + record);
+            }
+            int insertIndex = toInsertIndex(payload.substring(0, insertSeparatorIndex), tasks);
+            tasks.add(insertIndex, parser.getTaskFromString(payload.substring(insertSeparatorIndex + 1)));
+            break;
+        default:
+            throw new CherryException("Unknown journal record: " + record);
+        }
+    }
+
+    /**
+     * Converts the comma-separated, ascending 1-based task numbers and ranges in a record into valid
+     * 0-based list indexes. Every number is checked before any is used, so a bad record changes nothing.
+     */
+    private static int[] toIndexes(String taskNumbers, List<Task> tasks) throws CherryException {
+        List<Integer> indexes = new ArrayList<>();
+        for (String part : taskNumbers.split(String.valueOf(NUMBER_SEPARATOR))) {
+            int rangeIndex = part.indexOf(RANGE_SEPARATOR);
+            int first = toIndex(rangeIndex < 0 ? part : part.substring(0, rangeIndex), tasks);
+            int last = rangeIndex < 0 ? first : toIndex(part.substring(rangeIndex + 1), tasks);
+            if (last < first || (!indexes.isEmpty() && first <= indexes.get(indexes.size() - 1))) {
+                throw new CherryException("Task numbers out of order in journal: " + taskNumbers);
+            }
+            for (int index = first; index <= last; index += 1) {
+                indexes.add(index);
+            }
+        }
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Converts a 1-based task number in an insert record into a 0-based list index,
+     * which may be just past the last task.
+     */
+    private static int toInsertIndex(String taskNumber, List<Task> tasks) throws CherryException {
+        if (taskNumber.trim().equals(String.valueOf(tasks.size() + 1))) {
+            return tasks.size();
+        }
+        return toIndex(taskNumber, tasks);
+    }
+
+    /**
+     * Converts a 1-based task number in a record into a valid 0-based list index.
+     */
+    private static int toIndex(String taskNumber, List<Task> tasks) throws CherryException {
+        try {
+            int index = Integer.parseInt(taskNumber.trim()) - 1;
+            if (index < 0 || index >= tasks.size()) {
+                throw new CherryException("Task number out of range in journal: " + taskNumber);
+            }
+            return index;
+        } catch (NumberFormatException e) {
+            throw new CherryException("Invalid task number in journal: " + taskNumber);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package cherry.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import cherry.task.Task;
+
+/**
+ * Represents a list of tasks backed by a binary data file, which only builds a {@link Task}
+ * when it is first accessed.
+ * <p>
+ * Opening the list only records where each record starts in the memory-mapped file.
+ * Tasks read from the file are kept in a bounded cache, so touching a few tasks in a huge list
+ * stays cheap. A private copy of the data file is mapped rather than the data file itself, as a
+ * mapped file cannot be replaced on some platforms (e.g. Windows) and the data file is replaced by
+ * every snapshot while the list is still in use.
+ * The ids in the file are read when it is opened, without decoding the records, so that tasks
+ * without an id can be given ids which no task in the file has.
+ * Tasks which are added or replaced are held in memory until the list is saved.
+ * Callers which change a task must {@link #set} it back, or the change may be lost when the
+ * task is evicted from the cache.
+ * </p>
+ */
+public class LazyTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final int NOT_IN_FILE = -1;
+
+    private final ByteBuffer records;
+    private final Map<Integer, Task> cache;
+    private final byte[] scratch = new byte[256];
+    private final boolean hasIds;
+    private final int[] offsetsWithoutIds;
+    private final long firstMissingId;
+    private int[] offsets;
+    private Task[] heldTasks;
+    private int size;
+
+    private LazyTaskList(ByteBuffer records, int[] offsets, boolean hasIds, int cacheSize) {
+        this.records = records;
+        this.hasIds = hasIds;
+        this.offsets = offsets;
+        this.heldTasks = new Task[offsets.length];
+        this.size = offsets.length;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Task> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        long largestId = 0;
+        int[] withoutIds = new int[offsets.length];
+        int withoutIdCount = 0;
+        for (int offset : offsets) {
+            long id = hasIds ? BinaryTaskFormat.readId(records, offset) : 0;
+            if (id == 0) {
+                withoutIds[withoutIdCount] = offset;
+                withoutIdCount += 1;
+            }
+            largestId = Math.max(largestId, id);
+        }
+        this.offsetsWithoutIds = Arrays.copyOf(withoutIds, withoutIdCount);
+        this.firstMissingId = largestId + 1;
+    }
+
+    /**
+     * Opens a binary data file and indexes its records, keeping at most cacheSize tasks read
+     * from the file in memory at a time. The file is copied first, so it can be replaced afterwards.
+     */
+    public static LazyTaskList open(File file, int cacheSize) throws IOException {
+        assert cacheSize > 0 : "Cache size should be positive";
+        Path copy = Files.createTempFile("cherry", ".map");
+        try {
+            Files.copy(file.toPath(), copy, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel channel = FileChannel.open(copy, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int count = BinaryTaskFormat.readHeader(buffer, file.getPath());
+                boolean hasIds = BinaryTaskFormat.hasIds(buffer);
+                int[] offsets = BinaryTaskFormat.indexRecords(buffer, count, hasIds);
+                return new LazyTaskList(buffer, offsets, hasIds, cacheSize);
+            }
+        } finally {
+            deleteCopy(copy);
+        }
+    }
+
+    /**
+     * Deletes the private copy of the data file. The mapping keeps its contents readable where
+     * a mapped file can be deleted; elsewhere it is deleted when the program exits, if it can be.
+     */
+    private static void deleteCopy(Path copy) {
+        try {
+            Files.deleteIfExists(copy);
+        } catch (IOException e) {
+            copy.toFile().deleteOnExit();
+        }
+    }
+
+    @Override
+    public synchronized Task get(int index) {
+        checkIndex(index, size);
+        Task task = heldTasks[index];
+        if (task != null) {
+            return task;
+        }
+        return cache.computeIfAbsent(offsets[index], this::readTask);
+    }
+
+    @Override
+    public synchronized Task set(int index, Task task) {
+        assert task != null : "Task should not be null";
+        Task previous = get(index);
+        if (offsets[index] != NOT_IN_FILE) {
+            cache.remove(offsets[index]);
+            offsets[index] = NOT_IN_FILE;
+        }
+        heldTasks[index] = task;
+        return previous;
+    }
+
+    @Override
+    public synchronized void add(int index, Task task) {
+        assert task != null : "Task should not be null";
+        checkIndex(index, size + 1);
+        if (size == offsets.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            offsets = Arrays.copyOf(offsets, capacity);
+            heldTasks = Arrays.copyOf(heldTasks, capacity);
+        }
+        System.arraycopy(offsets, index, offsets, index + 1, size - index);
+        System.arraycopy(heldTasks, index, heldTasks, index + 1, size - index);
+        offsets[index] = NOT_IN_FILE;
+        heldTasks[index] = task;
+        size += 1;
+        modCount += 1;
+    }
+
+    @Override
+    public synchronized Task remove(int index) {
+        Task removed = get(index);
+        if (offsets[index] != NOT_IN_FILE) {
+            cache.remove(offsets[index]);
+        }
+        System.arraycopy(offsets, index + 1, offsets, index, size - index - 1);
+        System.arraycopy(heldTasks, index + 1, heldTasks, index, size - index - 1);
+        size -= 1;
+        heldTasks[size] = null;
+        modCount += 1;
+        return removed;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of tasks currently built in memory, whether cached or held.
+     */
+    public synchronized int getMaterializedCount() {
+        int held = 0;
+        for (int i = 0; i < size; i += 1) {
+            if (heldTasks[i] != null) {
+                held += 1;
+            }
+        }
+        return held + cache.size();
+    }
+
+    /**
+     * Gives each task added to the list without an id, such as by replaying an old journal, an id after
+     * every id in the list, and returns the id after the largest one. Tasks in the file are not read,
+     * as their ids were already found when the file was opened.
+     */
+    public synchronized long assignMissingIds() {
+        long nextId = firstMissingId + offsetsWithoutIds.length;
+        for (int i = 0; i < size; i += 1) {
+            if (heldTasks[i] != null) {
+                nextId = Math.max(nextId, heldTasks[i].getId() + 1);
+            }
+        }
+        for (int i = 0; i < size; i += 1) {
+            if (heldTasks[i] != null && heldTasks[i].getId() == 0) {
+                heldTasks[i].assignId(nextId);
+                nextId += 1;
+            }
+        }
+        return nextId;
+    }
+
+    /**
+     * Decodes the task whose record starts at the given offset in the file. Records without an id,
+     * such as every record in files written before tasks had ids, are given the next id after the
+     * largest one in the file, in file order, just as {@link SnapshotReader} gives them when reading
+     * the whole file.
+     */
+    private Task readTask(int offset) {
+        records.position(offset);
+        try {
+            Task task = BinaryTaskFormat.readRecord(records, scratch, hasIds);
+            if (task.getId() == 0) {
+                task.assignId(firstMissingId + Arrays.binarySearch(offsetsWithoutIds, offset));
+            }
+            return task;
+        } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+            // The records were checked when the file was opened, so the mapped file must have changed
+            throw new IllegalStateException("Data file changed while it was open: " + e.getMessage());
+        }
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package cherry.storage;
+
+/**
+ * Records how many lines a load read and how fast it read them.
+ */
+public class LoadStatistics {
+    /** Names the system property which prints these statistics at startup, {@code -Dcherry.stats=true}. */
+    public static final String PROPERTY = "cherry.stats";
+
+    private long lineCount = 0;
+    private long skippedCount = 0;
+    private long elapsedNanos = 0;
+
+    /**
+     * Adds the given number of lines read, of which skippedLines were corrupted and skipped.
+     */
+    public void addLines(long lines, long skippedLines) {
+        lineCount += lines;
+        skippedCount += skippedLines;
+    }
+
+    /**
+     * Sets how long the load took.
+     */
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of lines (or binary records) read, including skipped ones.
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Returns the number of corrupted lines skipped.
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Returns how long the load took, in milliseconds.
+     */
+    public double getElapsedMillis() {
+        return elapsedNanos / 1_000_000.0;
+    }
+
+    /**
+     * Returns the load throughput in lines per second, or 0 if nothing was timed.
+     */
+    public double getLinesPerSecond() {
+        return elapsedNanos == 0 ? 0 : lineCount * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Loaded %d lines (%d skipped) in %.1f ms, %.0f lines/s",
+                lineCount, skippedCount, getElapsedMillis(), getLinesPerSecond());
+    }
+}
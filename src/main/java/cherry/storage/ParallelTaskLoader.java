@@ -0,0 +1,140 @@
+package cherry.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import cherry.exception.CherryException;
+import cherry.parser.Parser;
+import cherry.task.Task;
+
+/**
+ * Loads a text data file by splitting it into newline-aligned chunks and parsing the
+ * chunks in parallel on a {@link ForkJoinPool}, each worker with its own {@link Parser}.
+ * Tasks come back in the order of the file, and corrupted lines are reported in that order too.
+ * The file is read into memory rather than mapped, so that it can be replaced by the next save straight away.
+ */
+public class ParallelTaskLoader {
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Parser> parsers = ThreadLocal.withInitial(Parser::new);
+
+    public ParallelTaskLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a loader which parses chunks on the given pool.
+     */
+    public ParallelTaskLoader(ForkJoinPool pool) {
+        assert pool != null : "Pool should not be null";
+        this.pool = pool;
+    }
+
+    /**
+     * Loads every task in the text data file, skipping corrupted lines,
+     * and adds the lines read to the statistics.
+     */
+    public ArrayList<Task> load(File file, LoadStatistics statistics) throws IOException {
+        byte[] data = FileContents.read(file).array();
+
+        List<Callable<ChunkResult>> chunks = new ArrayList<>();
+        int start = 0;
+        for (int end : findChunkEnds(data)) {
+            int chunkStart = start;
+            chunks.add(() -> parseChunk(data, chunkStart, end));
+            start = end;
+        }
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (Future<ChunkResult> future : pool.invokeAll(chunks)) {
+            ChunkResult result = getResult(future);
+            tasks.addAll(result.tasks);
+            for (String message : result.skippedMessages) {
+                System.out.println("Skipped corrupted line: " + message);
+            }
+            statistics.addLines(result.lineCount, result.skippedMessages.size());
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the end of each chunk, moving each split point just past the next newline
+     * so that no line is cut in two.
+     */
+    private List<Integer> findChunkEnds(byte[] data) {
+        int length = data.length;
+        int chunkCount = Math.max(1, pool.getParallelism() * CHUNKS_PER_WORKER);
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, length / chunkCount + 1);
+
+        List<Integer> ends = new ArrayList<>();
+        int end = 0;
+        while (end < length) {
+            end = Math.min(length, end + chunkSize);
+            while (end < length && data[end - 1] != '\n') {
+                end += 1;
+            }
+            ends.add(end);
+        }
+        return ends;
+    }
+
+    /**
+     * Parses the lines between start (inclusive) and end (exclusive) on the calling worker.
+     */
+    private ChunkResult parseChunk(byte[] data, int start, int end) {
+        Parser parser = parsers.get();
+        Charset charset = Charset.defaultCharset();
+        ChunkResult result = new ChunkResult();
+
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && data[lineEnd] != '\n') {
+                lineEnd += 1;
+            }
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && data[contentEnd - 1] == '\r') {
+                contentEnd -= 1;
+            }
+
+            result.lineCount += 1;
+            try {
+                String line = new String(data, lineStart, contentEnd - lineStart, charset);
+                result.tasks.add(parser.getTaskFromString(line));
+            } catch (CherryException e) {
+                result.skippedMessages.add(e.getMessage());
+            }
+            lineStart = lineEnd + 1;
+        }
+        return result;
+    }
+
+    private static ChunkResult getResult(Future<ChunkResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Loading was interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Error reading file: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Holds the tasks and corrupted lines found in one chunk.
+     */
+    private static class ChunkResult {
+        private final List<Task> tasks = new ArrayList<>();
+        private final List<String> skippedMessages = new ArrayList<>();
+        private long lineCount = 0;
+    }
+}
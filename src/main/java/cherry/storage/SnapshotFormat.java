@@ -0,0 +1,11 @@
+package cherry.storage;
+
+/**
+ * Represents the formats a snapshot of the task list can be written in.
+ */
+public enum SnapshotFormat {
+    /** Human-readable, pipe-delimited lines which can be edited by hand. */
+    TEXT,
+    /** Compact {@link BinaryTaskFormat}, which loads much faster for large task lists. */
+    BINARY
+}
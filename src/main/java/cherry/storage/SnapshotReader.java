@@ -0,0 +1,129 @@
+package cherry.storage;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import cherry.exception.CherryException;
+import cherry.parser.Parser;
+import cherry.task.Task;
+
+/**
+ * Reads snapshots of the task list in either {@link SnapshotFormat}.
+ * The format of a data file is detected from its first bytes.
+ * Large text files are parsed in parallel by a {@link ParallelTaskLoader}.
+ * Tasks saved before tasks had ids are given ids as they are read.
+ */
+public class SnapshotReader {
+    private static final long PARALLEL_LOAD_THRESHOLD = 1024 * 1024;
+    private static final ParallelTaskLoader PARALLEL_LOADER = new ParallelTaskLoader();
+
+    private SnapshotReader() {
+    }
+
+    /**
+     * Returns the format the given data file is written in. Missing files count as text.
+     */
+    public static SnapshotFormat detectFormat(File file) throws IOException {
+        return BinaryTaskFormat.isBinary(file) ? SnapshotFormat.BINARY : SnapshotFormat.TEXT;
+    }
+
+    /**
+     * Reads every task in the data file, skipping corrupted lines.
+     * If the data file does not exist, returns an empty list.
+     */
+    public static ArrayList<Task> read(File file) {
+        return read(file, new LoadStatistics());
+    }
+
+    /**
+     * Reads every task in the data file, skipping corrupted lines, and records
+     * the number of lines read and the time taken in the statistics.
+     */
+    public static ArrayList<Task> read(File file, LoadStatistics statistics) {
+        long startNanos = System.nanoTime();
+        ArrayList<Task> tasks = readTasks(file, statistics);
+        assignMissingIds(tasks);
+        statistics.setElapsedNanos(System.nanoTime() - startNanos);
+        return tasks;
+    }
+
+    /**
+     * Gives each task without an id the next id after the largest one in the list, in list order,
+     * so reading the same file always gives the same ids. Returns the id after the largest one,
+     * which no task in the list has. A {@link LazyTaskList} does this without reading its file again.
+     */
+    public static long assignMissingIds(List<Task> tasks) {
+        if (tasks instanceof LazyTaskList lazyTasks) {
+            return lazyTasks.assignMissingIds();
+        }
+        long nextId = 1;
+        for (Task task : tasks) {
+            nextId = Math.max(nextId, task.getId() + 1);
+        }
+        for (Task task : tasks) {
+            if (task.getId() == 0) {
+                task.assignId(nextId);
+                nextId += 1;
+            }
+        }
+        return nextId;
+    }
+
+    private static ArrayList<Task> readTasks(File file, LoadStatistics statistics) {
+        if (!file.exists()) {
+            return new ArrayList<>(); // return new list
+        }
+
+        try {
+            if (detectFormat(file) == SnapshotFormat.BINARY) {
+                ArrayList<Task> tasks = BinaryTaskFormat.read(file);
+                statistics.addLines(tasks.size(), 0);
+                return tasks;
+            }
+            if (file.length() >= PARALLEL_LOAD_THRESHOLD && file.length() <= Integer.MAX_VALUE) {
+                return PARALLEL_LOADER.load(file, statistics);
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+            return new ArrayList<>();
+        }
+        return readText(file, statistics);
+    }
+
+    /**
+     * Reads every task in a text data file line by line, skipping corrupted lines.
+     */
+    private static ArrayList<Task> readText(File file, LoadStatistics statistics) {
+        ArrayList<Task> tasks = new ArrayList<>();
+        long lineCount = 0;
+        long skippedCount = 0;
+
+        // load existing list
+        Parser parser = new Parser();
+        try (BufferedReader fileReader = new BufferedReader(new FileReader(file))) {
+            String line;
+
+            while ((line = fileReader.readLine()) != null) {
+                lineCount += 1;
+                try {
+                    Task task = parser.getTaskFromString(line);
+                    tasks.add(task);
+                } catch (CherryException e) {
+                    skippedCount += 1;
+                    System.out.println("Skipped corrupted line: " + e.getMessage());
+                }
+            }
+        } catch (FileNotFoundException e) {
+            System.out.println("File not found at " + file.getPath());
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+        }
+        statistics.addLines(lineCount, skippedCount);
+        return tasks;
+    }
+}
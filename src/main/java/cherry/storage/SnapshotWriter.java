@@ -0,0 +1,162 @@
+package cherry.storage;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import cherry.task.Task;
+
+/**
+ * Writes snapshots of the task list so that the data file is never left half-written.
+ * A snapshot is written to a temporary file first, forced to the disk, and only then
+ * renamed over the data file.
+ * <p>
+ * Snapshots are forced on every write unless the {@link DurabilityPolicy} never syncs,
+ * because renaming a file that is not yet on the disk can lose the whole task list on a
+ * power failure. Interval policies only space out the syncs of the {@link Journal}.
+ * </p>
+ */
+public class SnapshotWriter {
+    private static final int TEXT_BUFFER_SIZE = 64 * 1024;
+
+    private final DurabilityPolicy policy;
+
+    /**
+     * Creates a snapshot writer which forces data to the disk according to the given policy.
+     */
+    public SnapshotWriter(DurabilityPolicy policy) {
+        assert policy != null : "Durability policy should not be null";
+        this.policy = policy;
+    }
+
+    /**
+     * Writes the tasks into the temporary file in the given format, replacing anything already in it.
+     */
+    public void writeTemp(File tempFile, List<Task> tasks, SnapshotFormat format) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            if (format == SnapshotFormat.BINARY) {
+                BinaryTaskFormat.write(out, tasks);
+            } else {
+                writeText(out, tasks);
+            }
+            if (policy.isEnabled()) {
+                out.getFD().sync();
+            }
+        } catch (IOException e) {
+            throw new IOException("Failed to save tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the tasks as lines of text to the stream, flushing but not closing it.
+     * Every task is serialized into one reused builder and copied out through one reused
+     * array, so saving does not create any objects per task.
+     */
+    private static void writeText(OutputStream out, List<Task> tasks) throws IOException {
+        Writer writer = new OutputStreamWriter(out);
+        StringBuilder lines = new StringBuilder(TEXT_BUFFER_SIZE + 1024);
+        char[] chars = new char[0];
+        String lineSeparator = System.lineSeparator();
+
+        for (Task task : tasks) {
+            task.appendSaveFormat(lines);
+            lines.append(lineSeparator);
+            if (lines.length() >= TEXT_BUFFER_SIZE) {
+                chars = drain(lines, chars, writer);
+            }
+        }
+        drain(lines, chars, writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes the builder's contents through the given array (growing it if needed) and empties
+     * the builder. Returns the array to reuse.
+     */
+    private static char[] drain(StringBuilder lines, char[] chars, Writer writer) throws IOException {
+        int length = lines.length();
+        char[] buffer = chars.length >= length ? chars : new char[Math.max(length, chars.length * 2)];
+        lines.getChars(0, length, buffer, 0);
+        writer.write(buffer, 0, length);
+        lines.setLength(0);
+        return buffer;
+    }
+
+    /**
+     * Renames the finished temporary file over the data file, then makes the rename durable.
+     */
+    public void commit(File tempFile, File targetFile) throws IOException {
+        moveReplacing(tempFile, targetFile);
+        if (policy.isEnabled()) {
+            syncDirectory(targetFile.getAbsoluteFile().getParentFile());
+        }
+    }
+
+    /**
+     * Creates the given directory and any missing parents, then makes the new entries durable.
+     * Does nothing if the directory already exists.
+     */
+    public void createDirectory(File dir) throws IOException {
+        if (dir == null || dir.exists()) {
+            return;
+        }
+        File existingAncestor = dir.getAbsoluteFile();
+        while (existingAncestor != null && !existingAncestor.exists()) {
+            existingAncestor = existingAncestor.getParentFile();
+        }
+        if (!dir.mkdirs()) {
+            throw new IOException("Failed to create directory: " + dir.getPath());
+        }
+        if (!policy.isEnabled()) {
+            return;
+        }
+        for (File created = dir.getAbsoluteFile(); created != null; created = created.getParentFile()) {
+            syncDirectory(created);
+            if (created.equals(existingAncestor)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns the durability policy of this writer.
+     */
+    public DurabilityPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Renames source over target, atomically where the file system supports it.
+     */
+    static void moveReplacing(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forces the entries of a directory (new, renamed or deleted files) onto the disk.
+     */
+    static void syncDirectory(File dir) {
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms (e.g. Windows) cannot open directories; renames there are durable already
+        }
+    }
+}
@@ -1,82 +1,520 @@
 package cherry.storage;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
-import cherry.exception.CherryException;
 import cherry.parser.Parser;
 import cherry.task.Task;
+import cherry.task.TaskChange;
 
 /**
  * Handles reading to and writing from the storage file on hard disk.
+ * <p>
+ * The data file holds a snapshot of the task list. Changes made after the snapshot
+ * are appended to a {@link Journal} next to it, and the journal is folded back into
+ * the snapshot in the background once it grows past a size threshold.
+ * </p>
+ * <p>
+ * How often written data is forced onto the disk is set by a {@link DurabilityPolicy}.
+ * Snapshots are always replaced atomically, so a crash never leaves a half-written data file.
+ * </p>
+ * <p>
+ * With {@link #enableAsyncWrites(long)}, changes are only queued by the caller, and a single
+ * background writer appends everything queued within the coalescing interval in one write.
+ * {@link #flush()} writes out whatever is still queued.
+ * </p>
+ * <p>
+ * Between {@link #beginBatch()} and {@link #commitBatch()}, changes are held back and then
+ * appended in one write, or dropped with {@link #discardBatch()}.
+ * </p>
  */
 public class Storage {
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 256 * 1024;
+    private static final long LAZY_LOAD_THRESHOLD = 16 * 1024 * 1024;
+    private static final int LAZY_CACHE_SIZE = 4096;
+
     private final String filePath;
+    private final File snapshotFile;
+    private final File journalFile;
+    private final File compactingJournalFile;
+    private final File tempFile;
+    private final long compactionThreshold;
+    private final SnapshotFormat snapshotFormat;
+    private final Object snapshotLock = new Object();
+    private final ExecutorService compactor;
+    private final ScheduledExecutorService writer;
+    private final Object pendingLock = new Object();
+    private final SnapshotWriter snapshotWriter;
+    private final Journal journal;
+    private volatile boolean isCompactionPending = false;
+    private boolean isSyncScheduled = false;
+    private volatile long coalesceIntervalMillis = 0;
+    private List<String> pendingRecords = new ArrayList<>();
+    private boolean isWriteScheduled = false;
+    private List<String> batchRecords;
+    private volatile IOException backgroundWriteError;
+    private LoadStatistics lastLoadStatistics = new LoadStatistics();
+    private long nextTaskId = 1;
 
     public Storage(String filePath) {
-        this.filePath = filePath;
+        this(filePath, DurabilityPolicy.DEFAULT);
     }
 
     /**
-     * Loads tasks from existing data file, skips corrupted lines.
-     * If data file does not exist, returns an empty list.
+     * Creates a storage for the given data file, which forces data to the disk according to
+     * the given durability policy.
      */
-    public ArrayList<Task> load() throws IOException {
-        File file = new File(filePath);
-        ArrayList<Task> tasks = new ArrayList<>();
+    public Storage(String filePath, DurabilityPolicy durabilityPolicy) {
+        this(filePath, DEFAULT_COMPACTION_THRESHOLD, durabilityPolicy, null);
+    }
 
-        if (!file.exists()) {
-            return tasks; // return new list
-        }
+    /**
+     * Creates a storage for the given data file, which compacts its journal
+     * once the journal grows past compactionThreshold bytes, and forces data
+     * to the disk according to the given durability policy.
+     * Snapshots are written in snapshotFormat, or in the format the data file already has if it is null.
+     */
+    public Storage(String filePath, long compactionThreshold, DurabilityPolicy durabilityPolicy,
+                   SnapshotFormat snapshotFormat) {
+        assert compactionThreshold > 0 : "Compaction threshold should be positive";
+        assert durabilityPolicy != null : "Durability policy should not be null";
+        this.filePath = filePath;
+        this.snapshotFile = new File(filePath);
+        this.journalFile = new File(filePath + ".journal");
+        this.compactingJournalFile = new File(filePath + ".journal.old");
+        this.tempFile = new File(filePath + ".tmp");
+        this.compactionThreshold = compactionThreshold;
+        this.snapshotFormat = snapshotFormat;
+        this.snapshotWriter = new SnapshotWriter(durabilityPolicy);
+        this.journal = new Journal(journalFile, durabilityPolicy);
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cherry-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledThreadPoolExecutor writer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "cherry-storage-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // close() writes out the queue itself, so a write still waiting for its interval is dropped
+        writer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.writer = writer;
+    }
 
-        // load existing list
-        Parser parser = new Parser();
-        try (BufferedReader fileReader = new BufferedReader(new FileReader(file))) {
-            String line;
+    /**
+     * Loads tasks from existing data file and replays the journal on top of it, skipping
+     * corrupted lines. If data file does not exist, returns an empty list.
+     * Large binary data files are loaded lazily, building each task only when it is accessed.
+     * Every loaded task has an id, below {@link #getNextTaskId()}.
+     */
+    public List<Task> load() throws IOException {
+        synchronized (snapshotLock) {
+            recoverInterruptedSnapshot();
 
-            while ((line = fileReader.readLine()) != null) {
-                try {
-                    Task task = parser.getTaskFromString(line);
-                    tasks.add(task);
-                } catch (CherryException e) {
-                    System.out.println("Skipped corrupted line: " + e.getMessage());
-                }
-            }
-        } catch (FileNotFoundException e) {
-            System.out.println("File not found at " + filePath);
-        } catch (IOException e) {
-            System.out.println("Error reading file: " + e.getMessage());
+            lastLoadStatistics = new LoadStatistics();
+            List<Task> tasks = isLazyLoadable()
+                    ? LazyTaskList.open(snapshotFile, LAZY_CACHE_SIZE)
+                    : SnapshotReader.read(snapshotFile, lastLoadStatistics);
+            Parser parser = new Parser();
+            Journal.replay(compactingJournalFile, tasks, parser);
+            Journal.replay(journalFile, tasks, parser);
+            nextTaskId = SnapshotReader.assignMissingIds(tasks);
+            return tasks;
         }
-        return tasks;
     }
 
     /**
-     * Saves tasks to data file.
+     * Saves tasks to data file as a new snapshot, discarding the journal.
      * If file does not exist, creates a new directory.
+     * A {@link cherry.task.TaskList#getSnapshot() snapshot} of a task list can be saved from any thread
+     * while the list goes on changing.
      */
-    public void save(ArrayList<Task> tasks) throws IOException {
+    public void save(List<Task> tasks) throws IOException {
         assert tasks != null : "Tasks list to save should not be null";
         assert filePath != null : "File path should be initialized";
-        File file = new File(filePath);
-        File parentDir = file.getParentFile();
-        if (parentDir != null && !parentDir.exists()) {
-            if (!parentDir.mkdirs()) {
-                throw new IOException("Failed to create directory: " + parentDir.getPath());
+        createParentDirectory();
+
+        synchronized (snapshotLock) {
+            synchronized (this) {
+                writePendingRecords();
+                rotateJournal();
+            }
+            writeSnapshot(tasks);
+        }
+    }
+
+    /**
+     * Records a task added to the bottom of the list.
+     */
+    public void appendAdd(Task task) throws IOException {
+        append(Journal.formatAdd(task));
+    }
+
+    /**
+     * Records the deletion, all at once, of the tasks at the given ascending task numbers (1-based).
+     */
+    public void appendDelete(int... taskNumbers) throws IOException {
+        append(Journal.formatDelete(taskNumbers));
+    }
+
+    /**
+     * Records the tasks at the given task numbers (1-based) being marked as done.
+     */
+    public void appendMark(int... taskNumbers) throws IOException {
+        append(Journal.formatMark(taskNumbers));
+    }
+
+    /**
+     * Records the tasks at the given task numbers (1-based) being unmarked.
+     */
+    public void appendUnmark(int... taskNumbers) throws IOException {
+        append(Journal.formatUnmark(taskNumbers));
+    }
+
+    /**
+     * Records the new contents of the task at the given task number (1-based).
+     */
+    public void appendUpdate(int taskNumber, Task task) throws IOException {
+        append(Journal.formatReplace(taskNumber, task));
+    }
+
+    /**
+     * Records the given changes, such as those made by undoing or redoing a step, in one write.
+     */
+    public void appendChanges(List<TaskChange> changes) throws IOException {
+        List<String> records = new ArrayList<>();
+        for (TaskChange change : changes) {
+            records.addAll(Journal.format(change));
+        }
+        if (!records.isEmpty()) {
+            append(records);
+        }
+    }
+
+    /**
+     * Returns the format the next snapshot will be written in.
+     */
+    public SnapshotFormat getSnapshotFormat() throws IOException {
+        return snapshotFormat != null ? snapshotFormat : SnapshotReader.detectFormat(snapshotFile);
+    }
+
+    /**
+     * Returns the number of lines and throughput of the last snapshot loaded by {@link #load()}.
+     */
+    public LoadStatistics getLastLoadStatistics() {
+        return lastLoadStatistics;
+    }
+
+    /**
+     * Returns the id after the largest id among the tasks last loaded, which a new task can be given.
+     */
+    public long getNextTaskId() {
+        return nextTaskId;
+    }
+
+    /**
+     * Returns the durability policy used by this storage.
+     */
+    public DurabilityPolicy getDurabilityPolicy() {
+        return snapshotWriter.getPolicy();
+    }
+
+    /**
+     * Makes later changes return as soon as they are queued, leaving a background writer to
+     * append all changes queued within coalesceIntervalMillis to the journal in one write.
+     */
+    public void enableAsyncWrites(long coalesceIntervalMillis) {
+        assert coalesceIntervalMillis > 0 : "Coalescing interval should be positive";
+        this.coalesceIntervalMillis = coalesceIntervalMillis;
+    }
+
+    /**
+     * Writes out any queued changes and forces the journal to the disk, unless the
+     * durability policy never syncs. Returns once every change recorded so far is saved.
+     */
+    public synchronized void flush() throws IOException {
+        throwBackgroundWriteError();
+        writePendingRecords();
+        journal.sync();
+    }
+
+    /**
+     * Writes out any queued changes, waits for any running compaction
+     * and closes the journal, forcing it to the disk.
+     */
+    public void close() throws IOException {
+        flush();
+        writer.shutdown();
+        compactor.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+            compactor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Holds back the changes recorded from now on until the batch is committed or discarded.
+     * Batches cannot be nested.
+     */
+    public void beginBatch() {
+        assert batchRecords == null : "A batch should not already be in progress";
+        batchRecords = new ArrayList<>();
+    }
+
+    /**
+     * Saves every change recorded since {@link #beginBatch()} in one write, together with any changes
+     * still queued. The write is made straight away even if writes are asynchronous, so that a failure
+     * reaches the caller while the batch can still be rolled back. If it throws, none of the batch
+     * is in the journal, as a journal append which fails part of the way is cut back.
+     */
+    public void commitBatch() throws IOException {
+        assert batchRecords != null : "A batch should be in progress";
+        List<String> records = batchRecords;
+        batchRecords = null;
+        if (!records.isEmpty()) {
+            writeBatch(records);
+        }
+    }
+
+    /**
+     * Drops every change recorded since {@link #beginBatch()} without saving it.
+     * Does nothing if the batch has already ended, such as by a commit which failed.
+     */
+    public void discardBatch() {
+        batchRecords = null;
+    }
+
+    /**
+     * Holds a record back if a batch is in progress, or else appends it.
+     */
+    private void append(String record) throws IOException {
+        append(List.of(record));
+    }
+
+    /**
+     * Holds records back if a batch is in progress, or else appends them in one write.
+     */
+    private void append(List<String> records) throws IOException {
+        if (batchRecords != null) {
+            batchRecords.addAll(records);
+            return;
+        }
+        appendAll(records);
+    }
+
+    /**
+     * Appends records to the journal, or queues them for the background writer if writes are asynchronous.
+     */
+    private void appendAll(List<String> records) throws IOException {
+        if (coalesceIntervalMillis == 0) {
+            writeRecords(records);
+            return;
+        }
+
+        throwBackgroundWriteError();
+        synchronized (pendingLock) {
+            pendingRecords.addAll(records);
+            if (!isWriteScheduled) {
+                isWriteScheduled = true;
+                writer.schedule(this::writePendingRecordsInBackground,
+                        coalesceIntervalMillis, TimeUnit.MILLISECONDS);
             }
         }
+    }
+
+    /**
+     * Writes out queued records on the background writer, keeping any error for the next caller.
+     */
+    private void writePendingRecordsInBackground() {
+        try {
+            writePendingRecords();
+        } catch (IOException e) {
+            backgroundWriteError = e;
+            System.out.println("Error saving tasks: " + e.getMessage());
+        }
+    }
 
-        try (FileWriter fileWriter = new FileWriter(filePath)) {
-            for (Task task : tasks) {
-                fileWriter.write(task.toSaveFormat() + System.lineSeparator());
+    /**
+     * Appends every queued record to the journal in one write.
+     */
+    private synchronized void writePendingRecords() throws IOException {
+        List<String> records;
+        synchronized (pendingLock) {
+            records = pendingRecords;
+            pendingRecords = new ArrayList<>();
+            isWriteScheduled = false;
+        }
+        if (!records.isEmpty()) {
+            writeRecords(records);
+        }
+    }
+
+    /**
+     * Appends the queued records followed by the batch in one write. If the write fails,
+     * the queued records are queued again for the background writer.
+     */
+    private synchronized void writeBatch(List<String> records) throws IOException {
+        throwBackgroundWriteError();
+        List<String> queued;
+        synchronized (pendingLock) {
+            queued = pendingRecords;
+            pendingRecords = new ArrayList<>();
+        }
+        List<String> allRecords = new ArrayList<>(queued);
+        allRecords.addAll(records);
+        try {
+            writeRecords(allRecords);
+        } catch (IOException e) {
+            synchronized (pendingLock) {
+                pendingRecords.addAll(0, queued);
             }
+            throw e;
+        }
+    }
+
+    /**
+     * Throws the error of a failed background write once, so the failure is not silently lost.
+     */
+    private void throwBackgroundWriteError() throws IOException {
+        IOException error = backgroundWriteError;
+        if (error != null) {
+            backgroundWriteError = null;
+            throw new IOException(error.getMessage());
+        }
+    }
+
+    /**
+     * Appends records to the journal, scheduling a compaction if the journal has grown too large.
+     */
+    private synchronized void writeRecords(List<String> records) throws IOException {
+        createParentDirectory();
+        try {
+            journal.appendAll(records);
         } catch (IOException e) {
             throw new IOException("Failed to save tasks: " + e.getMessage());
         }
+
+        if (journal.isDirty() && !isSyncScheduled) {
+            isSyncScheduled = true;
+            writer.schedule(this::syncJournal,
+                    snapshotWriter.getPolicy().getIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (journal.getSize() >= compactionThreshold && !isCompactionPending) {
+            if (!compactingJournalFile.exists()) {
+                rotateJournal();
+            }
+            isCompactionPending = true;
+            compactor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Forces journal records which were not synced when they were written onto the disk,
+     * so under an interval policy no record stays unsynced for much longer than the interval.
+     */
+    private synchronized void syncJournal() {
+        isSyncScheduled = false;
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            System.out.println("Error syncing journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns true if the snapshot is a binary data file large enough to be worth loading lazily.
+     */
+    private boolean isLazyLoadable() throws IOException {
+        return snapshotFile.length() >= LAZY_LOAD_THRESHOLD
+                && SnapshotReader.detectFormat(snapshotFile) == SnapshotFormat.BINARY;
+    }
+
+    /**
+     * Moves the records in the live journal into the journal being compacted,
+     * leaving the live journal empty. The journal being compacted always exists afterwards,
+     * which marks any snapshot written from here on as unfinished until it is deleted.
+     */
+    private void rotateJournal() throws IOException {
+        journal.close();
+        if (!compactingJournalFile.exists()) {
+            if (journalFile.exists()) {
+                SnapshotWriter.moveReplacing(journalFile, compactingJournalFile);
+            } else {
+                Files.createFile(compactingJournalFile.toPath());
+            }
+        } else if (journalFile.exists()) {
+            Files.write(compactingJournalFile.toPath(), Files.readAllBytes(journalFile.toPath()),
+                    StandardOpenOption.APPEND);
+            Files.delete(journalFile.toPath());
+        }
+        journal.reset();
+    }
+
+    /**
+     * Folds the journal being compacted into the snapshot.
+     */
+    private void compact() {
+        try {
+            synchronized (snapshotLock) {
+                if (!compactingJournalFile.exists()) {
+                    return; // already folded in by a save
+                }
+                ArrayList<Task> tasks = SnapshotReader.read(snapshotFile);
+                Journal.replay(compactingJournalFile, tasks, new Parser());
+                writeSnapshot(tasks);
+            }
+        } catch (IOException e) {
+            System.out.println("Error compacting journal: " + e.getMessage());
+        } finally {
+            isCompactionPending = false;
+        }
+    }
+
+    /**
+     * Writes the tasks to a temporary file, then replaces the snapshot with it.
+     * The journal being compacted is deleted only once the temporary file is complete,
+     * so a crash at any point leaves enough on disk for {@link #recoverInterruptedSnapshot()}.
+     */
+    private void writeSnapshot(List<Task> tasks) throws IOException {
+        snapshotWriter.writeTemp(tempFile, tasks, getSnapshotFormat());
+        Files.deleteIfExists(compactingJournalFile.toPath());
+        snapshotWriter.commit(tempFile, snapshotFile);
     }
-}
 
+    /**
+     * Finishes or discards a snapshot left behind by an interrupted save or compaction.
+     * A temporary snapshot is complete only if the journal it was built from has been deleted.
+     */
+    private void recoverInterruptedSnapshot() throws IOException {
+        if (!tempFile.exists()) {
+            return;
+        }
+        if (compactingJournalFile.exists()) {
+            Files.delete(tempFile.toPath());
+        } else {
+            snapshotWriter.commit(tempFile, snapshotFile);
+        }
+    }
+
+    /**
+     * Creates the directory holding the data file if it does not exist.
+     */
+    private void createParentDirectory() throws IOException {
+        snapshotWriter.createDirectory(snapshotFile.getParentFile());
+    }
+}
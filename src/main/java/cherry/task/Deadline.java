@@ -9,8 +9,9 @@ import java.util.Map;
  * Extends {@link Task} by including a {@link java.time.LocalDate} deadline.
  */
 public class Deadline extends Task {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd MMM yyyy");
+
     protected LocalDate deadlineLocalDate;
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
 
     /**
      * Creates a deadline task with the given description and deadline, unmarked.
@@ -37,11 +38,21 @@ public class Deadline extends Task {
         }
     }
 
+    @Override
+    public TaskType getType() {
+        return TaskType.DEADLINE;
+    }
+
+    @Override
+    public Deadline copy() {
+        return new Deadline(taskDescription, isDone, deadlineLocalDate);
+    }
+
     /**
      * Gets the formatted deadline string.
      */
     public String getDeadline() {
-        return deadlineLocalDate.format(formatter);
+        return deadlineLocalDate.format(FORMATTER);
     }
 
     /**
@@ -73,14 +84,16 @@ public class Deadline extends Task {
     public String toString() {
         return "(D) " + (isDone ? "[X] |" : "[ ] | ")
                 + this.taskDescription
-                + " (by: " + this.deadlineLocalDate.format(formatter)
+                + " (by: " + this.deadlineLocalDate.format(FORMATTER)
                 + ")";
     }
 
     @Override
-    public String toSaveFormat() {
-        return "(D) | " + (isDone ? "[X] | " : "[ ] | ")
-                + this.taskDescription
-                + " | " + this.deadlineLocalDate.toString();
+    public void appendSaveFormat(StringBuilder out) {
+        appendId(out);
+        out.append("(D) | ").append(isDone ? "[X] | " : "[ ] | ")
+                .append(this.taskDescription)
+                .append(" | ");
+        appendDate(out, this.deadlineLocalDate);
     }
 }
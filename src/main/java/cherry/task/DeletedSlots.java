@@ -0,0 +1,121 @@
+package cherry.task;
+
+/**
+ * Holds which places (slots) in a task list are deleted, and never changes. Deleting or restoring
+ * a slot returns a new set sharing all but one path of small nodes with this one, so every snapshot
+ * of a list can keep its own set and turn positions into slots without a pass over the list.
+ * <p>
+ * The slots are kept in a binary tree over a range of a power of two slots, in which each node counts
+ * the deleted slots below it and a range without deleted slots has no node at all. Finding the slot
+ * of the task at a position walks one path, steering by those counts, as {@link FenwickTree#select}
+ * does for the list itself.
+ * </p>
+ */
+final class DeletedSlots {
+    static final DeletedSlots NONE = new DeletedSlots(null, 0);
+
+    private final Node root;
+    private final int levels;
+
+    private DeletedSlots(Node root, int levels) {
+        this.root = root;
+        this.levels = levels;
+    }
+
+    /**
+     * Returns the number of deleted slots.
+     */
+    int size() {
+        return count(root);
+    }
+
+    /**
+     * Returns a set with the given slot deleted too.
+     */
+    DeletedSlots withDeleted(int slot) {
+        assert slot >= 0 : "Slot should not be negative";
+        Node newRoot = root;
+        int newLevels = levels;
+        while (slot >= 1L << newLevels) {
+            newRoot = newRoot == null ? null : new Node(newRoot.count, newRoot, null);
+            newLevels += 1;
+        }
+        return new DeletedSlots(add(newRoot, newLevels, slot, 1), newLevels);
+    }
+
+    /**
+     * Returns a set without the given slot, which must be deleted.
+     */
+    DeletedSlots withRestored(int slot) {
+        assert slot >= 0 && slot < 1L << levels : "Slot should be deleted before it is restored";
+        return new DeletedSlots(add(root, levels, slot, -1), levels);
+    }
+
+    /**
+     * Returns the slot of the task at the given position (0-based) among the slots which are not deleted.
+     */
+    int select(int position) {
+        assert position >= 0 : "Position should not be negative";
+        Node node = root;
+        if (node == null || position >= (1L << levels) - node.count) {
+            return position + count(node);
+        }
+        int slot = 0;
+        int remaining = position;
+        for (int level = levels; level > 0 && node != null; level -= 1) {
+            int half = 1 << (level - 1);
+            int leftLive = half - count(node.left);
+            if (remaining < leftLive) {
+                node = node.left;
+            } else {
+                remaining -= leftLive;
+                slot += half;
+                node = node.right;
+            }
+        }
+        return slot + remaining;
+    }
+
+    /**
+     * Returns a copy of the node covering 2 to the power of level slots, with delta added to the count
+     * of the given slot, or null if no slot under it is left deleted.
+     */
+    private static Node add(Node node, int level, int slot, int delta) {
+        int count = count(node) + delta;
+        assert count >= 0 : "Slot should be deleted before it is restored";
+        assert level > 0 || count <= 1 : "Slot should not already be deleted";
+        if (count == 0) {
+            return null;
+        }
+        if (level == 0) {
+            return new Node(count, null, null);
+        }
+        Node left = node == null ? null : node.left;
+        Node right = node == null ? null : node.right;
+        if (((slot >>> (level - 1)) & 1) == 0) {
+            left = add(left, level - 1, slot, delta);
+        } else {
+            right = add(right, level - 1, slot, delta);
+        }
+        return new Node(count, left, right);
+    }
+
+    private static int count(Node node) {
+        return node == null ? 0 : node.count;
+    }
+
+    /**
+     * Represents a range of slots with at least one deleted slot in it.
+     */
+    private static final class Node {
+        private final int count;
+        private final Node left;
+        private final Node right;
+
+        Node(int count, Node left, Node right) {
+            this.count = count;
+            this.left = left;
+            this.right = right;
+        }
+    }
+}
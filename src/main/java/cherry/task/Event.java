@@ -59,6 +59,16 @@ public class Event extends Task {
         return isDone ? "✓" : "○";
     }
 
+    @Override
+    public TaskType getType() {
+        return TaskType.EVENT;
+    }
+
+    @Override
+    public Event copy() {
+        return new Event(taskDescription, isDone, eventStart, eventEnd);
+    }
+
     /**
      * Gets the formatted status string.
      */
@@ -80,12 +90,15 @@ public class Event extends Task {
     }
 
     /**
-     * Returns the following to-do string representation for saving in the data file.
+     * Appends the following event representation for saving in the data file:
+     * (E) | done status | taskDescription | start | end
      */
-    public String toSaveFormat() {
-        return "(E) | " + (isDone ? "[X] | " : "[ ] | ")
-                + this.taskDescription
-                + " | " + this.eventStart
-                + " | " + this.eventEnd;
+    @Override
+    public void appendSaveFormat(StringBuilder out) {
+        appendId(out);
+        out.append("(E) | ").append(isDone ? "[X] | " : "[ ] | ")
+                .append(this.taskDescription)
+                .append(" | ").append(this.eventStart)
+                .append(" | ").append(this.eventEnd);
     }
 }
@@ -0,0 +1,100 @@
+package cherry.task;
+
+import java.util.Arrays;
+
+/**
+ * Keeps a growable list of non-negative counts and answers prefix sums, and which entry
+ * a running total falls in, each in logarithmic time.
+ * <p>
+ * A task list keeps a count of one for each live slot and zero for each deleted one, which turns
+ * a task number into its slot, and a slot back into its task number, without shifting any tasks.
+ * </p>
+ */
+class FenwickTree {
+    private int[] tree;
+    private int size;
+
+    private FenwickTree(int capacity) {
+        this.tree = new int[Math.max(16, capacity) + 1];
+    }
+
+    /**
+     * Returns a tree of the given number of entries, each with a count of one.
+     */
+    static FenwickTree ofOnes(int size) {
+        FenwickTree fenwickTree = new FenwickTree(size);
+        int[] tree = fenwickTree.tree;
+        for (int i = 1; i <= size; i += 1) {
+            tree[i] += 1;
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+        fenwickTree.size = size;
+        return fenwickTree;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds an entry with the given count to the end.
+     */
+    void append(int count) {
+        assert count >= 0 : "Counts should not be negative";
+        if (size + 1 == tree.length) {
+            tree = Arrays.copyOf(tree, tree.length * 2);
+        }
+        size += 1;
+        tree[size] = count + prefixSum(size - 1) - prefixSum(size - (size & -size));
+    }
+
+    /**
+     * Drops the last entry.
+     */
+    void removeLast() {
+        assert size > 0 : "Tree should not be empty";
+        size -= 1;
+    }
+
+    /**
+     * Adds delta to the count of the entry at the given index (0-based).
+     */
+    void add(int index, int delta) {
+        assert index >= 0 && index < size : "Index should be valid";
+        for (int i = index + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the sum of the counts of the first count entries.
+     */
+    int prefixSum(int count) {
+        int sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the index (0-based) of the entry in which the running total of counts reaches total,
+     * or the size if the counts never add up to it.
+     */
+    int select(int total) {
+        assert total > 0 : "Total should be positive";
+        int index = 0;
+        int remaining = total;
+        for (int step = Integer.highestOneBit(Math.max(size, 1)); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next <= size && tree[next] < remaining) {
+                index = next;
+                remaining -= tree[next];
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,125 @@
+package cherry.task;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Maps positive long keys to int values in flat arrays, without boxing either.
+ * <p>
+ * Keys are placed by open addressing with linear probing, and removals shift later keys back
+ * into the gap, so no deleted markers pile up. Zero marks an empty entry, so keys must be positive.
+ * </p>
+ */
+class LongIntMap {
+    static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * Creates a map with room for about the expected number of keys before it grows.
+     */
+    LongIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value for the key, or {@link #MISSING} if the key is not in the map.
+     */
+    int get(long key) {
+        assert key > 0 : "Keys should be positive";
+        for (int slot = slotOf(key); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Sets the value for the key, replacing any value it had.
+     */
+    void put(long key, int value) {
+        assert key > 0 : "Keys should be positive";
+        int slot = slotOf(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size += 1;
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * Removes the key, if it is in the map.
+     */
+    void remove(long key) {
+        assert key > 0 : "Keys should be positive";
+        int slot = slotOf(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == 0) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = slotOf(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        size -= 1;
+    }
+
+    /**
+     * Replaces every value with the result of applying the function to it.
+     */
+    void replaceValues(IntUnaryOperator function) {
+        for (int slot = 0; slot < keys.length; slot += 1) {
+            if (keys[slot] != 0) {
+                values[slot] = function.applyAsInt(values[slot]);
+            }
+        }
+    }
+
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i += 1) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
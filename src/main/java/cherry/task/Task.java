@@ -1,5 +1,6 @@
 package cherry.task;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 /**
@@ -9,6 +10,7 @@ import java.util.Map;
 public abstract class Task {
     protected String taskDescription;
     protected boolean isDone;
+    private long id;
 
     /**
      * Creates a to-do task with the given description, unmarked.
@@ -58,6 +60,22 @@ public abstract class Task {
         return taskDescription;
     }
 
+    /**
+     * Returns the task's id, which stays the same while other tasks are added and deleted,
+     * or 0 if it has not been given one yet.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gives the task its id. The task list gives an id to every task added without one.
+     */
+    public void assignId(long id) {
+        assert id > 0 : "Task ids should be positive";
+        this.id = id;
+    }
+
     /**
      * Returns whether the task is done.
      */
@@ -93,7 +111,50 @@ public abstract class Task {
      * Returns the following to-do string representation for saving in the data file.
      */
     public String toSaveFormat() {
-        return this.toString();
+        StringBuilder saveFormat = new StringBuilder();
+        appendSaveFormat(saveFormat);
+        return saveFormat.toString();
+    }
+
+    /**
+     * Appends the same text as {@link #toSaveFormat()} to the builder, without creating
+     * any intermediate strings. Used to save large lists through a single reused builder.
+     */
+    public void appendSaveFormat(StringBuilder out) {
+        appendId(out);
+        out.append("(T) | ").append(isDone ? "[X] | " : "[ ] | ").append(taskDescription);
+    }
+
+    /**
+     * Appends the task's id in the form {@code #12 | }, if it has one, to start its saved line.
+     */
+    protected void appendId(StringBuilder out) {
+        if (id != 0) {
+            out.append('#').append(id).append(" | ");
+        }
+    }
+
+    /**
+     * Appends a date in yyyy-MM-dd format, exactly as {@link LocalDate#toString()} would.
+     */
+    protected static void appendDate(StringBuilder out, LocalDate date) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            out.append(date);
+            return;
+        }
+        appendPadded(out, year, 4).append('-');
+        appendPadded(out, date.getMonthValue(), 2).append('-');
+        appendPadded(out, date.getDayOfMonth(), 2);
+    }
+
+    private static StringBuilder appendPadded(StringBuilder out, int value, int width) {
+        for (int limit = 10; width > 1; width -= 1, limit *= 10) {
+            if (value < limit) {
+                out.append('0');
+            }
+        }
+        return out.append(value);
     }
 
     /**
@@ -117,4 +178,14 @@ public abstract class Task {
      * </p>
      */
     public abstract void update(Map<String, String> fields);
+
+    /**
+     * Returns the kind of this task.
+     */
+    public abstract TaskType getType();
+
+    /**
+     * Returns a new task with the same fields as this task, which can be changed independently.
+     */
+    public abstract Task copy();
 }
@@ -0,0 +1,127 @@
+package cherry.task;
+
+import java.util.List;
+
+/**
+ * Represents one change to a task list, in the same terms as the records of the journal,
+ * so that a change undone or redone can be saved as a few short records.
+ */
+public final class TaskChange {
+    /**
+     * Represents the kinds of change a task list can go through.
+     */
+    public enum Kind {
+        ADD,
+        INSERT,
+        DELETE,
+        MARK,
+        UNMARK,
+        REPLACE
+    }
+
+    private static final int[] NO_NUMBERS = new int[0];
+    private static final int[] NO_SLOTS = new int[0];
+    private static final long BASE_BYTES = 48;
+    private static final long TASK_BYTES = 96;
+
+    private final Kind kind;
+    private final int[] taskNumbers;
+    private final List<Task> tasks;
+    private final int[] slots;
+    private final int layoutVersion;
+    private final long estimatedBytes;
+
+    private TaskChange(Kind kind, int[] taskNumbers, List<Task> tasks, int[] slots, int layoutVersion) {
+        this.kind = kind;
+        this.taskNumbers = taskNumbers;
+        this.tasks = tasks;
+        this.slots = slots;
+        this.layoutVersion = layoutVersion;
+
+        long bytes = BASE_BYTES + 4L * (taskNumbers.length + slots.length);
+        for (Task task : tasks) {
+            bytes += TASK_BYTES + 2L * task.getDescription().length();
+        }
+        this.estimatedBytes = bytes;
+    }
+
+    /**
+     * Returns the change adding the task to the bottom of the list.
+     */
+    static TaskChange add(Task task) {
+        return new TaskChange(Kind.ADD, NO_NUMBERS, List.of(task), NO_SLOTS, 0);
+    }
+
+    /**
+     * Returns the change putting the tasks back at the given ascending task numbers (1-based for user).
+     * The tasks were deleted from the given places in the list, which they can be brought back to
+     * if the list has not been compacted since, as told by its layout version.
+     */
+    static TaskChange insert(int[] taskNumbers, List<Task> tasks, int[] slots, int layoutVersion) {
+        assert taskNumbers.length == tasks.size() && slots.length == tasks.size()
+                : "Each inserted task should have its task number and place";
+        return new TaskChange(Kind.INSERT, taskNumbers.clone(), List.copyOf(tasks), slots.clone(), layoutVersion);
+    }
+
+    /**
+     * Returns the change deleting the tasks at the given ascending task numbers (1-based for user).
+     */
+    static TaskChange delete(int... taskNumbers) {
+        return new TaskChange(Kind.DELETE, taskNumbers.clone(), List.of(), NO_SLOTS, 0);
+    }
+
+    /**
+     * Returns the change marking the task at the given task number (1-based for user) as done.
+     */
+    static TaskChange mark(int taskNumber) {
+        return new TaskChange(Kind.MARK, new int[] {taskNumber}, List.of(), NO_SLOTS, 0);
+    }
+
+    /**
+     * Returns the change unmarking the task at the given task number (1-based for user).
+     */
+    static TaskChange unmark(int taskNumber) {
+        return new TaskChange(Kind.UNMARK, new int[] {taskNumber}, List.of(), NO_SLOTS, 0);
+    }
+
+    /**
+     * Returns the change putting the given task in place of the one at the given task number (1-based for user).
+     */
+    static TaskChange replace(int taskNumber, Task task) {
+        return new TaskChange(Kind.REPLACE, new int[] {taskNumber}, List.of(task), NO_SLOTS, 0);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the task numbers (1-based for user) the change acts on, in ascending order.
+     * An add has none, as it always adds to the bottom of the list.
+     */
+    public int[] getTaskNumbers() {
+        return taskNumbers.clone();
+    }
+
+    /**
+     * Returns the tasks the change puts into the list, one for each task number if it has any.
+     */
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    int[] getSlots() {
+        return slots;
+    }
+
+    int getLayoutVersion() {
+        return layoutVersion;
+    }
+
+    /**
+     * Returns roughly how many bytes of memory the change keeps alive, counting every task it holds.
+     */
+    long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+}
@@ -0,0 +1,249 @@
+package cherry.task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntUnaryOperator;
+
+import cherry.search.InvertedIndex;
+import cherry.search.Postings;
+
+/**
+ * Keeps secondary indexes over a task list: which tasks are done, the tasks of each type,
+ * the deadlines on each date, and the terms in each description. The deadlines on each date are
+ * kept as sorted slots rather than bit sets, as a bit set per date would grow with the whole list.
+ * <p>
+ * Tasks are indexed by their place (slot) in the {@link TaskList}, which does not change when tasks
+ * before them are deleted, as the list only marks deleted tasks. Deleting a task therefore only takes it
+ * out of the indexes, and the list turns the slots the indexes return into task numbers. When the list
+ * cuts its deleted tasks out, it moves the indexed slots along with {@link #remap}.
+ * The index must be told about every change, before and after it happens.
+ * </p>
+ */
+class TaskIndex {
+    private BitSet slots = new BitSet();
+    private BitSet doneSlots = new BitSet();
+    private int doneCount;
+    private final Map<TaskType, BitSet> typeSlots = new EnumMap<>(TaskType.class);
+    private final int[] typeCounts = new int[TaskType.values().length];
+    private final TreeMap<LocalDate, Postings> deadlineSlots = new TreeMap<>();
+    private final InvertedIndex descriptionTerms = new InvertedIndex();
+    private String descriptionBeforeChange;
+
+    private TaskIndex() {
+        for (TaskType type : TaskType.values()) {
+            typeSlots.put(type, new BitSet());
+        }
+    }
+
+    /**
+     * Builds the indexes for the tasks in the snapshot which are not deleted.
+     */
+    static TaskIndex build(TaskSnapshot snapshot) {
+        TaskIndex index = new TaskIndex();
+        for (int slot = 0; slot < snapshot.getSlotCount(); slot += 1) {
+            Task task = snapshot.getSlot(slot);
+            if (task != TaskSnapshot.DELETED) {
+                index.add(slot, task);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Indexes a task added at the given slot, or put back there, such as when a delete is undone.
+     */
+    void add(int slot, Task task) {
+        assert !slots.get(slot) : "Slot should not already be indexed";
+        slots.set(slot);
+        indexFields(slot, task);
+    }
+
+    /**
+     * Removes the task which was at the given slot from the indexes.
+     */
+    void remove(int slot, Task removed) {
+        assert slots.get(slot) : "Slot should be indexed";
+        slots.clear(slot);
+        unindexFields(slot, removed);
+    }
+
+    /**
+     * Moves every indexed slot to its mapping, which must keep the slots in the same order,
+     * such as when the list cuts out its deleted tasks.
+     */
+    void remap(IntUnaryOperator mapping) {
+        slots = remapSlots(slots, mapping);
+        doneSlots = remapSlots(doneSlots, mapping);
+        for (Map.Entry<TaskType, BitSet> entry : typeSlots.entrySet()) {
+            entry.setValue(remapSlots(entry.getValue(), mapping));
+        }
+        for (Postings slotsOnDate : deadlineSlots.values()) {
+            slotsOnDate.remap(mapping);
+        }
+        descriptionTerms.remap(mapping);
+    }
+
+    /**
+     * Removes the task at the given slot from the indexes before it is changed.
+     * {@link #afterChange} must be called once the change is done, even if it fails.
+     * The description's terms are left in place, as most changes keep the description.
+     */
+    void beforeChange(int slot, Task task) {
+        unindexAttributes(slot, task);
+        descriptionBeforeChange = task.getDescription();
+    }
+
+    /**
+     * Indexes the task at the given slot again after it was changed,
+     * reindexing its description only if the change replaced it.
+     */
+    void afterChange(int slot, Task task) {
+        indexAttributes(slot, task);
+        if (!task.getDescription().equals(descriptionBeforeChange)) {
+            descriptionTerms.remove(slot, descriptionBeforeChange);
+            descriptionTerms.add(slot, task.getDescription());
+        }
+        descriptionBeforeChange = null;
+    }
+
+    int getDoneCount() {
+        return doneCount;
+    }
+
+    int getTypeCount(TaskType type) {
+        return typeCounts[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of deadlines due between the given dates, both inclusive.
+     */
+    int countDeadlinesBetween(LocalDate from, LocalDate to) {
+        int count = 0;
+        for (Postings slotsOnDate : deadlineSlots.subMap(from, true, to, true).values()) {
+            count += slotsOnDate.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the slots of the deadlines due between the given dates, both inclusive, in list order.
+     */
+    List<Integer> getDeadlineSlots(LocalDate from, LocalDate to) {
+        BitSet due = new BitSet();
+        for (Postings slotsOnDate : deadlineSlots.subMap(from, true, to, true).values()) {
+            for (int i = 0; i < slotsOnDate.size(); i += 1) {
+                due.set(slotsOnDate.get(i));
+            }
+        }
+        return toList(due);
+    }
+
+    /**
+     * Returns the slots of the tasks which are done, or not done, in list order.
+     */
+    List<Integer> getSlotsByStatus(boolean isDone) {
+        if (isDone) {
+            return toList(doneSlots);
+        }
+        BitSet pending = (BitSet) slots.clone();
+        pending.andNot(doneSlots);
+        return toList(pending);
+    }
+
+    /**
+     * Returns the slots of the tasks of the given type, in list order.
+     */
+    List<Integer> getSlotsByType(TaskType type) {
+        return toList(typeSlots.get(type));
+    }
+
+    /**
+     * Returns the slots of the tasks whose descriptions match the query, in list order.
+     *
+     * @see InvertedIndex#search(String)
+     */
+    List<Integer> getSlotsMatching(String query) {
+        return toList(descriptionTerms.search(query));
+    }
+
+    /**
+     * Returns the slots of at most limit tasks whose descriptions approximately match the query,
+     * closest first.
+     *
+     * @see InvertedIndex#searchApproximately(String, int)
+     */
+    List<Integer> getSlotsApproximatelyMatching(String query, int limit) {
+        return toList(descriptionTerms.searchApproximately(query, limit));
+    }
+
+    private void indexFields(int slot, Task task) {
+        indexAttributes(slot, task);
+        descriptionTerms.add(slot, task.getDescription());
+    }
+
+    private void unindexFields(int slot, Task task) {
+        unindexAttributes(slot, task);
+        descriptionTerms.remove(slot, task.getDescription());
+    }
+
+    /**
+     * Indexes everything about the task except its description.
+     */
+    private void indexAttributes(int slot, Task task) {
+        if (task.isDone()) {
+            doneSlots.set(slot);
+            doneCount += 1;
+        }
+        typeSlots.get(task.getType()).set(slot);
+        typeCounts[task.getType().ordinal()] += 1;
+        if (task instanceof Deadline deadline) {
+            deadlineSlots.computeIfAbsent(deadline.getDeadlineDate(), date -> new Postings()).add(slot);
+        }
+    }
+
+    private void unindexAttributes(int slot, Task task) {
+        if (doneSlots.get(slot)) {
+            doneSlots.clear(slot);
+            doneCount -= 1;
+        }
+        typeSlots.get(task.getType()).clear(slot);
+        typeCounts[task.getType().ordinal()] -= 1;
+        if (task instanceof Deadline deadline) {
+            Postings slotsOnDate = deadlineSlots.get(deadline.getDeadlineDate());
+            assert slotsOnDate != null && slotsOnDate.contains(slot) : "Deadline should be indexed under its date";
+            slotsOnDate.remove(slot);
+            if (slotsOnDate.isEmpty()) {
+                deadlineSlots.remove(deadline.getDeadlineDate());
+            }
+        }
+    }
+
+    private static List<Integer> toList(BitSet set) {
+        List<Integer> list = new ArrayList<>(set.cardinality());
+        for (int slot = set.nextSetBit(0); slot >= 0; slot = set.nextSetBit(slot + 1)) {
+            list.add(slot);
+        }
+        return list;
+    }
+
+    private static List<Integer> toList(int[] slots) {
+        List<Integer> list = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            list.add(slot);
+        }
+        return list;
+    }
+
+    private static BitSet remapSlots(BitSet set, IntUnaryOperator mapping) {
+        BitSet remapped = new BitSet();
+        for (int slot = set.nextSetBit(0); slot >= 0; slot = set.nextSetBit(slot + 1)) {
+            remapped.set(mapping.applyAsInt(slot));
+        }
+        return remapped;
+    }
+}
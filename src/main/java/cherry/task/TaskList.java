@@ -1,86 +1,663 @@
 package cherry.task;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import cherry.exception.CherryException;
+import cherry.ui.ResponseType;
 
 /**
  * Represents a collection of tasks.
  * Provides methods to add, delete, mark, and unmark tasks.
+ * <p>
+ * Every task is given an id when it is added, which never changes, and a task can be found by its id
+ * in constant time. Where each task is by its id is noted as tasks are read or changed, so tasks
+ * loaded lazily are not all read up front; only looking up an id not noted yet reads every task.
+ * Deleted tasks are only marked as deleted, so later tasks need not be shifted down,
+ * and are cut out of the list together once enough of them pile up. Task numbers are turned into
+ * places in the list, and back, by counting the live tasks before them in a {@link FenwickTree}.
+ * </p>
+ * <p>
+ * The tasks themselves are held in a {@link TaskSnapshot}, which never changes. Each change makes
+ * a new snapshot sharing nearly everything with the last one, changing a copy of the task rather than
+ * the task itself, and swaps it in. Other threads can therefore read {@link #getSnapshot()} without
+ * locking while one thread makes changes; everything else on this class is for that one thread only.
+ * </p>
+ * <p>
+ * Counts and queries by status, type and deadline date are answered from a {@link TaskIndex},
+ * which is built on the first query and kept up to date by every change made through this list.
+ * Tasks in the list should therefore only be changed through this list.
+ * </p>
+ * <p>
+ * Changes made between {@link #beginTransaction()} and {@link #commitTransaction()} can be
+ * undone together with {@link #rollbackTransaction()}.
+ * </p>
+ * <p>
+ * Every change is also recorded, with the change which undoes it, in an {@link UndoHistory}.
+ * The changes made until {@link #endUndoStep(String)} form one step, which {@link #undo()} and
+ * {@link #redo()} take back and bring back by making those small changes again.
+ * </p>
  */
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    public static final long DEFAULT_UNDO_MEMORY_LIMIT = 4 * 1024 * 1024;
+    private static final int MIN_DELETED_BEFORE_COMPACTION = 64;
+
+    private volatile TaskSnapshot current;
+    private BitSet deletedSlots = new BitSet();
+    private int deletedCount;
+    private FenwickTree liveSlots;
+    private LongIntMap slotsById = new LongIntMap(0);
+    private boolean hasAllIds;
+    private long nextId = 1;
+    private TaskIndex index;
+    private TaskSnapshot transactionStart;
+    private BitSet deletedSlotsAtStart;
+    private int layoutVersion;
+    private final UndoHistory history = new UndoHistory(DEFAULT_UNDO_MEMORY_LIMIT);
+    private boolean isReplayingHistory;
 
     /**
-     * Creates task list from an existing list of tasks.
+     * Creates an empty task list.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this(List.of());
+    }
+
+    /**
+     * Creates task list from an existing list of tasks, which is read but never changed.
+     * The list must not be changed by anything else afterwards either.
+     * Every task is read once, to give the tasks without an id, or sharing one, new ids.
+     */
+    public TaskList(List<Task> tasks) {
+        this.current = TaskSnapshot.of(tasks);
+        readAllIds();
     }
 
     /**
-     * Creates task list from an existing list of tasks.
+     * Creates task list from an existing list of tasks which all have distinct ids below nextId,
+     * as loaded tasks do, without reading any of them. The list is read but never changed, and must
+     * not be changed by anything else afterwards either.
      */
-    public TaskList(ArrayList<Task> tasks) {
-        this.tasks = tasks;
+    public TaskList(List<Task> tasks, long nextId) {
+        assert nextId > 0 : "Next id should be positive";
+        this.current = TaskSnapshot.of(tasks);
+        this.nextId = nextId;
     }
 
     /**
      * Returns a task at the given task number (1-based for user).
      */
     public Task getTask(int taskNumber) throws CherryException {
-        if (taskNumber <= 0 || taskNumber > tasks.size()) {
+        if (taskNumber <= 0 || taskNumber > getTaskCount()) {
             throw new CherryException("This task does not exist");
         }
 
-        Task task = tasks.get(taskNumber - 1);
+        int slot = toSlot(taskNumber);
+        Task task = current.getSlot(slot);
         assert task != null : "Retrieved task should not be null";
+        slotsById.put(task.getId(), slot);
         return task;
     }
 
     /**
-     * Returns a task at the given task number (1-based for user).
+     * Returns the task number (1-based for user) of the task with the given id.
+     * If no task read so far has the id, every task is read to find it.
+     */
+    public int getTaskNumber(long id) throws CherryException {
+        int slot = slotsById.get(id);
+        if (slot == LongIntMap.MISSING && !hasAllIds) {
+            readAllIds();
+            slot = slotsById.get(id);
+        }
+        if (slot == LongIntMap.MISSING) {
+            throw new CherryException("No order has the id #" + id + ".");
+        }
+        return toTaskNumber(slot);
+    }
+
+    /**
+     * Returns a copy of every task in the list, in list order.
+     * Prefer {@link #getSnapshot()}, which copies nothing.
      */
     public ArrayList<Task> getTasks() {
-        return new ArrayList<>(tasks);
+        return new ArrayList<>(current);
     }
 
     /**
-     * Adds a task to the bottom of the list.
+     * Returns the tasks in the list as they are now, in list order, without copying them.
+     * The snapshot stays the same however the list changes afterwards, and may be read from any thread.
+     */
+    public TaskSnapshot getSnapshot() {
+        return current;
+    }
+
+    /**
+     * Adds a task to the bottom of the list, giving it an id if it does not have one yet.
+     * The list keeps the task itself, which should not be changed afterwards except through this list.
      */
     public void addTask(Task task) {
         assert task != null : "Task to add should not be null";
-        tasks.add(task);
-        assert tasks.contains(task) : "Task should be in list after adding";
+        if (task.getId() == 0) {
+            task.assignId(nextId);
+        }
+        assert slotsById.get(task.getId()) == LongIntMap.MISSING : "Task ids should be unique";
+        nextId = Math.max(nextId, task.getId() + 1);
+
+        current = current.withAppended(task);
+        slotsById.put(task.getId(), current.getSlotCount() - 1);
+        if (liveSlots != null) {
+            liveSlots.append(1);
+        }
+        if (index != null) {
+            index.add(current.getSlotCount() - 1, task);
+        }
+        record(TaskChange.add(task), TaskChange.delete(getTaskCount()));
     }
 
     /**
      * Deletes a task at the given task number (1-based for user).
      */
     public void deleteTask(int taskNumber) {
-        assert taskNumber >= 0 && taskNumber < tasks.size() : "Task index should be valid";
-        tasks.remove(taskNumber);
+        assert taskNumber >= 0 && taskNumber < getTaskCount() : "Task index should be valid";
+        int slot = toSlot(taskNumber + 1);
+        Task removed = current.getSlot(slot);
+        current = markDeleted(current, slot, removed);
+        if (index != null) {
+            index.remove(slot, removed);
+        }
+        record(TaskChange.delete(taskNumber + 1),
+                TaskChange.insert(new int[] {taskNumber + 1}, List.of(removed), new int[] {slot}, layoutVersion));
+        compactIfWorthwhile();
+    }
+
+    /**
+     * Deletes the tasks at the given task numbers (1-based for user), given in ascending order
+     * without repeats. Returns the deleted tasks.
+     */
+    public List<Task> deleteTasks(int[] taskNumbers) {
+        int[] deleted = new int[taskNumbers.length];
+        for (int i = 0; i < taskNumbers.length; i += 1) {
+            assert taskNumbers[i] > 0 && taskNumbers[i] <= getTaskCount() : "Task number should be valid";
+            assert i == 0 || taskNumbers[i] > taskNumbers[i - 1] : "Task numbers should be ascending";
+            deleted[i] = toSlot(taskNumbers[i]);
+        }
+        if (deleted.length == 0) {
+            return List.of();
+        }
+
+        List<Task> removed = new ArrayList<>(deleted.length);
+        TaskSnapshot next = current;
+        for (int slot : deleted) {
+            Task task = next.getSlot(slot);
+            next = markDeleted(next, slot, task);
+            removed.add(task);
+            if (index != null) {
+                index.remove(slot, task);
+            }
+        }
+        current = next;
+        record(TaskChange.delete(taskNumbers),
+                TaskChange.insert(taskNumbers, removed, deleted, layoutVersion));
+        compactIfWorthwhile();
+        return removed;
     }
 
     /**
      * Marks a task as done at the given task number (1-based for user).
+     * Returns the task as marked.
      */
-    public void markTask(int taskNumber) throws CherryException {
-        getTask(taskNumber).markTask();
+    public Task markTask(int taskNumber) throws CherryException {
+        boolean wasDone = getTask(taskNumber).isDone();
+        Task marked = changeTask(taskNumber, Task::markTask);
+        if (!wasDone) {
+            record(TaskChange.mark(taskNumber), TaskChange.unmark(taskNumber));
+        }
+        return marked;
     }
 
     /**
      * Unmarks a task as done at the given task number (1-based for user).
+     * Returns the task as unmarked.
+     */
+    public Task unmarkTask(int taskNumber) throws CherryException {
+        boolean wasDone = getTask(taskNumber).isDone();
+        Task unmarked = changeTask(taskNumber, Task::unmarkTask);
+        if (wasDone) {
+            record(TaskChange.unmark(taskNumber), TaskChange.mark(taskNumber));
+        }
+        return unmarked;
+    }
+
+    /**
+     * Updates the fields of the task at the given task number (1-based for user).
+     * Returns the task as updated.
+     */
+    public Task updateTask(int taskNumber, Map<String, String> fields) throws CherryException {
+        Task original = getTask(taskNumber);
+        Task updated = changeTask(taskNumber, task -> task.update(fields));
+        record(TaskChange.replace(taskNumber, updated), TaskChange.replace(taskNumber, original));
+        return updated;
+    }
+
+    /**
+     * Ends the step of changes made since the last step ended, so that {@link #undo()} takes them
+     * back together. The description is what the user typed to make them. Does nothing if there
+     * were no changes.
+     */
+    public void endUndoStep(String description) {
+        history.endStep(description);
+    }
+
+    /**
+     * Takes back the newest step of changes which has not been undone, and returns it.
+     * Its {@link UndoStep#getUndoChanges()} are the changes just made to the list.
+     */
+    public UndoStep undo() throws CherryException {
+        checkNoTransaction("undo");
+        UndoStep step = history.takeUndo();
+        if (step == null) {
+            throw new CherryException("There is nothing to undo.", ResponseType.WARNING);
+        }
+        replay(step.getUndoChanges());
+        return step;
+    }
+
+    /**
+     * Brings back the newest step of changes which was undone, and returns it.
+     * Its {@link UndoStep#getRedoChanges()} are the changes just made to the list.
+     */
+    public UndoStep redo() throws CherryException {
+        checkNoTransaction("redo");
+        UndoStep step = history.takeRedo();
+        if (step == null) {
+            throw new CherryException("There is nothing to redo.", ResponseType.WARNING);
+        }
+        replay(step.getRedoChanges());
+        return step;
+    }
+
+    /**
+     * Sets roughly how many bytes of memory the steps which can be undone or redone may keep alive.
+     * The oldest steps are forgotten to stay within it.
      */
+    public void setUndoMemoryLimit(long bytes) {
+        history.setMemoryLimit(bytes);
+    }
 
-    public void unmarkTask(int taskNumber) throws CherryException {
-        getTask(taskNumber).unmarkTask();
+    /**
+     * Starts recording changes, so that every change made until the transaction is committed
+     * can be undone. Transactions cannot be nested.
+     */
+    public void beginTransaction() {
+        assert transactionStart == null : "A transaction should not already be in progress";
+        transactionStart = current;
+        deletedSlotsAtStart = (BitSet) deletedSlots.clone();
+    }
+
+    /**
+     * Keeps every change made since {@link #beginTransaction()}.
+     */
+    public void commitTransaction() {
+        assert transactionStart != null : "A transaction should be in progress";
+        transactionStart = null;
+        deletedSlotsAtStart = null;
+        compactIfWorthwhile();
+    }
+
+    /**
+     * Undoes every change made since {@link #beginTransaction()}, by going back to the snapshot
+     * taken when it began.
+     */
+    public void rollbackTransaction() {
+        assert transactionStart != null : "A transaction should be in progress";
+        current = transactionStart;
+        deletedSlots = deletedSlotsAtStart;
+        deletedCount = deletedSlots.cardinality();
+        transactionStart = null;
+        deletedSlotsAtStart = null;
+        index = null;
+        liveSlots = null;
+        forgetIds();
+        history.discardOpenStep();
     }
 
     /**
      * Returns the size of the task list.
      */
     public int getTaskCount() {
-        return tasks.size();
+        return current.size();
+    }
+
+    /**
+     * Returns the number of tasks which are done.
+     */
+    public int getDoneCount() {
+        return getIndex().getDoneCount();
+    }
+
+    /**
+     * Returns the number of tasks which are not done.
+     */
+    public int getPendingCount() {
+        return getTaskCount() - getIndex().getDoneCount();
+    }
+
+    /**
+     * Returns the number of tasks of the given type.
+     */
+    public int getTypeCount(TaskType type) {
+        return getIndex().getTypeCount(type);
+    }
+
+    /**
+     * Returns the number of deadlines due between the given dates, both inclusive.
+     */
+    public int countDeadlinesBetween(LocalDate from, LocalDate to) {
+        return getIndex().countDeadlinesBetween(from, to);
+    }
+
+    /**
+     * Returns the task numbers (1-based for user) of the deadlines due between the given dates,
+     * both inclusive, in list order.
+     */
+    public List<Integer> getDeadlinesBetween(LocalDate from, LocalDate to) {
+        return toTaskNumbers(getIndex().getDeadlineSlots(from, to));
+    }
+
+    /**
+     * Returns the task numbers (1-based for user) of the tasks which are done, or not done.
+     */
+    public List<Integer> getTaskNumbersByStatus(boolean isDone) {
+        return toTaskNumbers(getIndex().getSlotsByStatus(isDone));
+    }
+
+    /**
+     * Returns the task numbers (1-based for user) of the tasks of the given type.
+     */
+    public List<Integer> getTaskNumbersByType(TaskType type) {
+        return toTaskNumbers(getIndex().getSlotsByType(type));
+    }
+
+    /**
+     * Returns the task numbers (1-based for user) of the tasks whose descriptions contain,
+     * for every word in the query, a word starting with it.
+     */
+    public List<Integer> findTasks(String query) {
+        return toTaskNumbers(getIndex().getSlotsMatching(query));
+    }
+
+    /**
+     * Returns the task numbers (1-based for user) of at most limit tasks whose descriptions contain,
+     * for every word in the query, a word with at most a few typos. The closest matches come first.
+     */
+    public List<Integer> findTasksApproximately(String query, int limit) {
+        return toTaskNumbers(getIndex().getSlotsApproximatelyMatching(query, limit));
+    }
+
+    /**
+     * Changes a copy of the task at the given task number (1-based for user) and puts the copy
+     * in its place, so snapshots already taken keep the task as it was. Returns the copy.
+     */
+    private Task changeTask(int taskNumber, Consumer<Task> change) throws CherryException {
+        Task task = getTask(taskNumber);
+        Task changed = task.copy();
+        changed.assignId(task.getId());
+        change.accept(changed);
+
+        int slot = toSlot(taskNumber);
+        current = current.withSlot(slot, changed);
+        if (index != null) {
+            index.beforeChange(slot, task);
+            index.afterChange(slot, changed);
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the place in the list of the task at the given task number (1-based for user).
+     */
+    private int toSlot(int taskNumber) {
+        return deletedCount == 0 ? taskNumber - 1 : getLiveSlots().select(taskNumber);
+    }
+
+    /**
+     * Returns the task number (1-based for user) of the task at the given place in the list.
+     */
+    private int toTaskNumber(int slot) {
+        return deletedCount == 0 ? slot + 1 : getLiveSlots().prefixSum(slot + 1);
+    }
+
+    /**
+     * Marks the task at the given place in the list as deleted, returning the snapshot without it.
+     */
+    private TaskSnapshot markDeleted(TaskSnapshot snapshot, int slot, Task task) {
+        assert !deletedSlots.get(slot) : "Task should not already be deleted";
+        getLiveSlots().add(slot, -1);
+        deletedSlots.set(slot);
+        deletedCount += 1;
+        slotsById.remove(task.getId());
+        return snapshot.withDeleted(slot);
+    }
+
+    /**
+     * Cuts the deleted tasks out of the list once they make up a large enough part of it,
+     * unless a transaction still needs their places.
+     */
+    private void compactIfWorthwhile() {
+        if (transactionStart != null
+                || deletedCount < Math.max(MIN_DELETED_BEFORE_COMPACTION, current.getSlotCount() / 4)) {
+            return;
+        }
+
+        FenwickTree live = getLiveSlots();
+        slotsById.replaceValues(live::prefixSum);
+        if (index != null) {
+            index.remap(live::prefixSum);
+        }
+        current = current.compacted();
+        deletedSlots.clear();
+        deletedCount = 0;
+        liveSlots = null;
+        layoutVersion += 1;
+    }
+
+    /**
+     * Makes the given changes, taken from the history, without recording them again.
+     * The list is exactly as it was when the changes were first recorded, so they always apply.
+     */
+    private void replay(List<TaskChange> changes) throws CherryException {
+        isReplayingHistory = true;
+        try {
+            for (TaskChange change : changes) {
+                int[] taskNumbers = change.getTaskNumbers();
+                switch (change.getKind()) {
+                case ADD:
+                    addTask(change.getTasks().get(0));
+                    break;
+                case INSERT:
+                    insertTasks(taskNumbers, change);
+                    break;
+                case DELETE:
+                    deleteTasks(taskNumbers);
+                    break;
+                case MARK:
+                    markTask(taskNumbers[0]);
+                    break;
+                case UNMARK:
+                    unmarkTask(taskNumbers[0]);
+                    break;
+                case REPLACE:
+                    replaceTask(taskNumbers[0], change.getTasks().get(0));
+                    break;
+                default:
+                    throw new AssertionError("Unknown change: " + change.getKind());
+                }
+            }
+        } finally {
+            isReplayingHistory = false;
+        }
+    }
+
+    /**
+     * Puts deleted tasks back at the given ascending task numbers (1-based for user).
+     * If the list was not compacted since they were deleted, they are brought back in their old places.
+     * Otherwise the list is built again with them in it, which takes a pass over the whole list.
+     */
+    private void insertTasks(int[] taskNumbers, TaskChange change) {
+        List<Task> tasks = change.getTasks();
+        if (change.getLayoutVersion() == layoutVersion) {
+            int[] slots = change.getSlots();
+            TaskSnapshot next = current;
+            for (int i = 0; i < slots.length; i += 1) {
+                next = markRestored(next, slots[i], tasks.get(i));
+                if (index != null) {
+                    index.add(slots[i], tasks.get(i));
+                }
+            }
+            current = next;
+        } else {
+            rebuildWith(taskNumbers, tasks);
+        }
+    }
+
+    /**
+     * Brings a deleted task back to its place in the list, returning the snapshot with it.
+     */
+    private TaskSnapshot markRestored(TaskSnapshot snapshot, int slot, Task task) {
+        assert deletedSlots.get(slot) : "Task should be deleted before it is restored";
+        if (liveSlots != null) {
+            liveSlots.add(slot, 1);
+        }
+        deletedSlots.clear(slot);
+        deletedCount -= 1;
+        slotsById.put(task.getId(), slot);
+        return snapshot.withRestored(slot, task);
+    }
+
+    /**
+     * Builds the list again without deleted places and with the tasks at the given ascending
+     * task numbers (1-based for user), dropping the lookups so that they are rebuilt when needed.
+     */
+    private void rebuildWith(int[] taskNumbers, List<Task> tasks) {
+        List<Task> rebuilt = new ArrayList<>(getTaskCount() + tasks.size());
+        int next = 0;
+        for (Task task : current) {
+            while (next < taskNumbers.length && taskNumbers[next] == rebuilt.size() + 1) {
+                rebuilt.add(tasks.get(next));
+                next += 1;
+            }
+            rebuilt.add(task);
+        }
+        while (next < taskNumbers.length) {
+            rebuilt.add(tasks.get(next));
+            next += 1;
+        }
+        current = TaskSnapshot.of(rebuilt);
+        deletedSlots.clear();
+        deletedCount = 0;
+        liveSlots = null;
+        forgetIds();
+        index = null;
+        layoutVersion += 1;
+    }
+
+    /**
+     * Puts the given task in place of the one at the given task number (1-based for user),
+     * where the two are versions of the same task.
+     */
+    private void replaceTask(int taskNumber, Task task) throws CherryException {
+        Task replaced = getTask(taskNumber);
+        assert replaced.getId() == task.getId() : "Replacing task should be a version of the same task";
+        int slot = toSlot(taskNumber);
+        current = current.withSlot(slot, task);
+        if (index != null) {
+            index.beforeChange(slot, replaced);
+            index.afterChange(slot, task);
+        }
+    }
+
+    /**
+     * Records a change and the change which undoes it, unless the change is itself being replayed
+     * from the history.
+     */
+    private void record(TaskChange change, TaskChange inverse) {
+        if (!isReplayingHistory) {
+            history.record(change, inverse);
+        }
+    }
+
+    private void checkNoTransaction(String action) throws CherryException {
+        if (transactionStart != null) {
+            throw new CherryException("You can't " + action + " in the middle of a batch of commands.");
+        }
+    }
+
+    private TaskIndex getIndex() {
+        if (index == null) {
+            index = TaskIndex.build(current);
+        }
+        return index;
+    }
+
+    private FenwickTree getLiveSlots() {
+        if (liveSlots == null) {
+            liveSlots = FenwickTree.ofOnes(current.getSlotCount());
+            for (int slot = deletedSlots.nextSetBit(0); slot >= 0; slot = deletedSlots.nextSetBit(slot + 1)) {
+                liveSlots.add(slot, -1);
+            }
+        }
+        return liveSlots;
+    }
+
+    /**
+     * Forgets where the tasks are by their ids, so that they are noted again as they are read.
+     */
+    private void forgetIds() {
+        slotsById = new LongIntMap(0);
+        hasAllIds = false;
+    }
+
+    /**
+     * Notes the place in the list of every task by its id, reading every task.
+     * Tasks without an id, or sharing one with an earlier task, are given new ids.
+     */
+    private void readAllIds() {
+        LongIntMap ids = new LongIntMap(getTaskCount());
+        List<Integer> unassigned = new ArrayList<>();
+        TaskSnapshot snapshot = current;
+        for (int slot = deletedSlots.nextClearBit(0); slot < snapshot.getSlotCount();
+                slot = deletedSlots.nextClearBit(slot + 1)) {
+            long id = snapshot.getSlot(slot).getId();
+            if (id == 0 || ids.get(id) != LongIntMap.MISSING) {
+                unassigned.add(slot);
+            } else {
+                ids.put(id, slot);
+                nextId = Math.max(nextId, id + 1);
+            }
+        }
+        for (int slot : unassigned) {
+            Task task = snapshot.getSlot(slot).copy();
+            task.assignId(nextId);
+            nextId += 1;
+            ids.put(task.getId(), slot);
+            snapshot = snapshot.withSlot(slot, task);
+        }
+        current = snapshot;
+        slotsById = ids;
+        hasAllIds = true;
+    }
+
+    /**
+     * Turns the places in the list, as given by the index, into task numbers (1-based for user).
+     */
+    private List<Integer> toTaskNumbers(List<Integer> slots) {
+        for (int i = 0; i < slots.size(); i += 1) {
+            slots.set(i, toTaskNumber(slots.get(i)));
+        }
+        return slots;
     }
 }
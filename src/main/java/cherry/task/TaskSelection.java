@@ -0,0 +1,115 @@
+package cherry.task;
+
+import java.util.BitSet;
+import java.util.List;
+
+import cherry.exception.CherryException;
+import cherry.ui.ResponseType;
+
+/**
+ * Represents the tasks a command acts on: a single task number or {@code #id}, a list of task
+ * numbers, ranges and ids such as {@code 3-40,55,#102}, or every task which is done, or not done.
+ */
+public class TaskSelection {
+    private static final int[] NO_NUMBERS = new int[0];
+    private static final long[] NO_IDS = new long[0];
+
+    private final int[] starts;
+    private final int[] ends;
+    private final long[] ids;
+    private final Boolean isDone;
+    private final String description;
+
+    private TaskSelection(int[] starts, int[] ends, long[] ids, Boolean isDone, String description) {
+        this.starts = starts;
+        this.ends = ends;
+        this.ids = ids;
+        this.isDone = isDone;
+        this.description = description;
+    }
+
+    /**
+     * Returns a selection of the single task with the given task number (1-based for user).
+     */
+    public static TaskSelection of(int taskNumber) {
+        assert taskNumber > 0 : "Task number should be positive";
+        return new TaskSelection(new int[] {taskNumber}, new int[] {taskNumber}, NO_IDS, null,
+                String.valueOf(taskNumber));
+    }
+
+    /**
+     * Returns a selection of the single task with the given id.
+     */
+    public static TaskSelection ofId(long id) {
+        assert id > 0 : "Task id should be positive";
+        return new TaskSelection(NO_NUMBERS, NO_NUMBERS, new long[] {id}, null, "#" + id);
+    }
+
+    /**
+     * Returns a selection of the tasks numbered from starts[i] to ends[i], both inclusive, for each i,
+     * and the tasks with the given ids. The description is what the user typed, for messages.
+     */
+    public static TaskSelection ofRanges(int[] starts, int[] ends, long[] ids, String description) {
+        assert starts.length == ends.length : "Ranges should be given in pairs";
+        assert starts.length + ids.length > 0 : "Selection should not be empty";
+        for (int i = 0; i < starts.length; i += 1) {
+            assert starts[i] > 0 && starts[i] <= ends[i] : "Ranges should be positive and in order";
+        }
+        return new TaskSelection(starts.clone(), ends.clone(), ids.clone(), null, description);
+    }
+
+    /**
+     * Returns a selection of every task which is done, or not done.
+     */
+    public static TaskSelection byStatus(boolean isDone) {
+        return new TaskSelection(NO_NUMBERS, NO_NUMBERS, NO_IDS, isDone, isDone ? "done" : "pending");
+    }
+
+    /**
+     * Returns true if this selects exactly one task by its number or id.
+     */
+    public boolean isSingle() {
+        if (isDone != null) {
+            return false;
+        }
+        return starts.length == 1 && starts[0] == ends[0] && ids.length == 0
+                || starts.length == 0 && ids.length == 1;
+    }
+
+    /**
+     * Returns the task numbers (1-based for user) selected in the list, in ascending order
+     * and without repeats. Throws if a selected number is past the end of the list,
+     * or if nothing is selected.
+     */
+    public int[] resolve(TaskList tasks) throws CherryException {
+        if (isDone != null) {
+            List<Integer> taskNumbers = tasks.getTaskNumbersByStatus(isDone);
+            if (taskNumbers.isEmpty()) {
+                throw new CherryException("No orders are " + description + " right now.",
+                        ResponseType.WARNING);
+            }
+            return taskNumbers.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        int taskCount = tasks.getTaskCount();
+        BitSet selected = new BitSet();
+        for (int i = 0; i < starts.length; i += 1) {
+            if (ends[i] > taskCount) {
+                throw isSingle()
+                        ? new CherryException("This task does not exist")
+                        : new CherryException("Task " + ends[i] + " does not exist.\n"
+                                + "You have " + taskCount + " orders on your list.");
+            }
+            selected.set(starts[i], ends[i] + 1);
+        }
+        for (long id : ids) {
+            selected.set(tasks.getTaskNumber(id));
+        }
+        return selected.stream().toArray();
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
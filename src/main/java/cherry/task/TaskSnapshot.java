@@ -0,0 +1,167 @@
+package cherry.task;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Represents the tasks of a {@link TaskList} as they were at one moment, in list order.
+ * A snapshot never changes, and may be read from any thread without locking while the list goes on
+ * changing, so long as nobody changes the tasks in it.
+ * <p>
+ * The tasks loaded with the list are read from that list until they are changed, and every changed,
+ * added or deleted task is kept in a {@link TaskVector}, so taking the next snapshot after a change
+ * costs a few small arrays rather than a copy of the list. Deleted tasks are left in place as
+ * {@link #DELETED} until the list cuts them out, and their places are kept in {@link DeletedSlots},
+ * which snapshots share in the same way, so that a task is found by its position without a pass
+ * over the list.
+ * </p>
+ */
+public final class TaskSnapshot extends AbstractList<Task> implements RandomAccess {
+    /** Stands in for a deleted task. */
+    static final Task DELETED = new Todo("deleted order");
+
+    private final List<Task> loadedTasks;
+    private final TaskVector slots;
+    private final DeletedSlots deletedSlots;
+
+    private TaskSnapshot(List<Task> loadedTasks, TaskVector slots, DeletedSlots deletedSlots) {
+        this.loadedTasks = loadedTasks;
+        this.slots = slots;
+        this.deletedSlots = deletedSlots;
+    }
+
+    /**
+     * Returns a snapshot of the given tasks, which must not be changed afterwards.
+     */
+    static TaskSnapshot of(List<Task> loadedTasks) {
+        return new TaskSnapshot(loadedTasks, TaskVector.ofNulls(loadedTasks.size()), DeletedSlots.NONE);
+    }
+
+    /**
+     * Returns the task at the given position (0-based).
+     * After deletes, its place is found in time logarithmic in the number of places.
+     */
+    @Override
+    public Task get(int index) {
+        Objects.checkIndex(index, size());
+        return getSlot(deletedSlots.select(index));
+    }
+
+    @Override
+    public int size() {
+        return slots.size() - deletedSlots.size();
+    }
+
+    /**
+     * Walks the tasks in one pass, skipping deleted ones.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private int slot = nextLiveSlot(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot < slots.size();
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Task task = getSlot(slot);
+                slot = nextLiveSlot(slot + 1);
+                return task;
+            }
+        };
+    }
+
+    /**
+     * Returns the tasks at the given task numbers (1-based for user) in this snapshot, in the given order.
+     */
+    public List<Task> getTasks(List<Integer> taskNumbers) {
+        assert taskNumbers != null : "Task numbers should not be null";
+        return new TasksAt(List.copyOf(taskNumbers));
+    }
+
+    /**
+     * Returns the number of places in the list, deleted or not.
+     */
+    int getSlotCount() {
+        return slots.size();
+    }
+
+    /**
+     * Returns the task at the given place in the list, which is {@link #DELETED} if it was deleted.
+     */
+    Task getSlot(int slot) {
+        Task task = slots.get(slot);
+        return task != null ? task : loadedTasks.get(slot);
+    }
+
+    TaskSnapshot withSlot(int slot, Task task) {
+        assert task != null && task != DELETED : "Use withDeleted to delete a task";
+        return new TaskSnapshot(loadedTasks, slots.set(slot, task), deletedSlots);
+    }
+
+    TaskSnapshot withAppended(Task task) {
+        assert task != null && task != DELETED : "Added task should not be null";
+        return new TaskSnapshot(loadedTasks, slots.append(task), deletedSlots);
+    }
+
+    TaskSnapshot withDeleted(int slot) {
+        assert getSlot(slot) != DELETED : "Task should not already be deleted";
+        return new TaskSnapshot(loadedTasks, slots.set(slot, DELETED), deletedSlots.withDeleted(slot));
+    }
+
+    TaskSnapshot withRestored(int slot, Task task) {
+        assert getSlot(slot) == DELETED : "Task should be deleted before it is restored";
+        return new TaskSnapshot(loadedTasks, slots.set(slot, task), deletedSlots.withRestored(slot));
+    }
+
+    /**
+     * Returns a snapshot of the same tasks with the deleted places cut out. Every task is taken
+     * out of the loaded list, so a lazily loaded list builds each of its tasks.
+     */
+    TaskSnapshot compacted() {
+        TaskVector live = TaskVector.EMPTY;
+        for (Task task : this) {
+            live = live.append(task);
+        }
+        return new TaskSnapshot(List.of(), live, DeletedSlots.NONE);
+    }
+
+    private int nextLiveSlot(int from) {
+        int slot = from;
+        while (deletedSlots.size() > 0 && slot < slots.size() && slots.get(slot) == DELETED) {
+            slot += 1;
+        }
+        return slot;
+    }
+
+    /**
+     * Represents the tasks of this snapshot at some task numbers.
+     */
+    private class TasksAt extends AbstractList<Task> implements RandomAccess {
+        private final List<Integer> taskNumbers;
+
+        TasksAt(List<Integer> taskNumbers) {
+            this.taskNumbers = taskNumbers;
+        }
+
+        @Override
+        public Task get(int index) {
+            return TaskSnapshot.this.get(taskNumbers.get(index) - 1);
+        }
+
+        @Override
+        public int size() {
+            return taskNumbers.size();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package cherry.task;
+
+/**
+ * Represents the kinds of task which can be placed on the list.
+ */
+public enum TaskType {
+    TODO,
+    DEADLINE,
+    EVENT
+}
@@ -0,0 +1,219 @@
+package cherry.task;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Holds a list of tasks which never changes. Setting, appending or removing a task returns a new
+ * vector which shares all but a few small arrays with this one, so keeping old versions is cheap.
+ * <p>
+ * The tasks are kept in the leaves of a tree of arrays of 32, with the last few tasks in a separate
+ * tail array. A change copies only the path from the root to its leaf, about four arrays for a
+ * million tasks, and a lookup follows that same path.
+ * </p>
+ */
+final class TaskVector {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+
+    static final TaskVector EMPTY = new TaskVector(0, BITS, EMPTY_NODE, new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private TaskVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Returns a vector of the given size holding only nulls. Every full array in it is shared,
+     * so it takes a few arrays whatever its size.
+     */
+    static TaskVector ofNulls(int size) {
+        assert size >= 0 : "Size should not be negative";
+        if (size == 0) {
+            return EMPTY;
+        }
+        int tailOffset = tailOffset(size);
+        int shift = BITS;
+        while (tailOffset > 1L << (shift + BITS)) {
+            shift += BITS;
+        }
+        Object[] root = tailOffset == 0 ? EMPTY_NODE : nullNode(shift, tailOffset);
+        return new TaskVector(size, shift, root, new Object[size - tailOffset]);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the task at the given index (0-based).
+     */
+    Task get(int index) {
+        Objects.checkIndex(index, size);
+        return (Task) leafFor(index)[index & MASK];
+    }
+
+    /**
+     * Returns a vector with the task at the given index (0-based) replaced.
+     */
+    TaskVector set(int index, Task task) {
+        Objects.checkIndex(index, size);
+        int tailOffset = tailOffset(size);
+        if (index >= tailOffset) {
+            Object[] newTail = tail.clone();
+            newTail[index - tailOffset] = task;
+            return new TaskVector(size, shift, root, newTail);
+        }
+        return new TaskVector(size, shift, setInNode(shift, root, index, task), tail);
+    }
+
+    /**
+     * Returns a vector with the task added to the end.
+     */
+    TaskVector append(Task task) {
+        if (tail.length < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = task;
+            return new TaskVector(size + 1, shift, root, newTail);
+        }
+
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > 1 << shift) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new TaskVector(size + 1, newShift, newRoot, new Object[] {task});
+    }
+
+    /**
+     * Returns a vector without its last task.
+     */
+    TaskVector removeLast() {
+        assert size > 0 : "Vector should not be empty";
+        if (size == 1) {
+            return EMPTY;
+        }
+        if (tail.length > 1) {
+            return new TaskVector(size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+        }
+
+        Object[] newTail = leafFor(size - 2);
+        Object[] newRoot = popTail(shift, root);
+        int newShift = shift;
+        if (newRoot == null) {
+            newRoot = EMPTY_NODE;
+        }
+        if (shift > BITS && newRoot[1] == null) {
+            newRoot = (Object[]) newRoot[0];
+            newShift -= BITS;
+        }
+        return new TaskVector(size - 1, newShift, newRoot, newTail);
+    }
+
+    private static int tailOffset(int size) {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset(size)) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private static Object[] setInNode(int level, Object[] node, int index, Task task) {
+        Object[] copy = node.clone();
+        if (level == 0) {
+            copy[index & MASK] = task;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = setInNode(level - BITS, (Object[]) node[child], index, task);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns a copy of the node at the given level with the full tail added as its last leaf.
+     */
+    private Object[] pushTail(int level, Object[] node, Object[] tailNode) {
+        int child = ((size - 1) >>> level) & MASK;
+        Object[] copy = node.clone();
+        if (level == BITS) {
+            copy[child] = tailNode;
+        } else {
+            Object[] existing = (Object[]) node[child];
+            copy[child] = existing != null
+                    ? pushTail(level - BITS, existing, tailNode)
+                    : newPath(level - BITS, tailNode);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns a copy of the node at the given level without its last leaf, or null if that leaves it empty.
+     */
+    private Object[] popTail(int level, Object[] node) {
+        int child = ((size - 2) >>> level) & MASK;
+        if (level > BITS) {
+            Object[] newChild = popTail(level - BITS, (Object[]) node[child]);
+            if (newChild == null && child == 0) {
+                return null;
+            }
+            Object[] copy = node.clone();
+            copy[child] = newChild;
+            return copy;
+        }
+        if (child == 0) {
+            return null;
+        }
+        Object[] copy = node.clone();
+        copy[child] = null;
+        return copy;
+    }
+
+    private static Object[] newPath(int level, Object[] leaf) {
+        if (level == 0) {
+            return leaf;
+        }
+        Object[] node = new Object[WIDTH];
+        node[0] = newPath(level - BITS, leaf);
+        return node;
+    }
+
+    /**
+     * Returns a node at the given level whose leaves hold count nulls, count being a multiple of 32.
+     * Full children are all the same array, as nothing ever changes them in place.
+     */
+    private static Object[] nullNode(int level, int count) {
+        if (level == 0) {
+            return new Object[WIDTH];
+        }
+        int childCapacity = 1 << level;
+        Object[] fullChild = count >= childCapacity ? nullNode(level - BITS, childCapacity) : null;
+        Object[] node = new Object[WIDTH];
+        int child = 0;
+        for (int remaining = count; remaining > 0; remaining -= childCapacity) {
+            node[child] = remaining >= childCapacity ? fullChild : nullNode(level - BITS, remaining);
+            child += 1;
+        }
+        return node;
+    }
+}
@@ -34,5 +34,15 @@ public class Todo extends Task {
     public void update(Map<String, String> fields) {
         updateDescription(fields.get("desc"));
     }
+
+    @Override
+    public TaskType getType() {
+        return TaskType.TODO;
+    }
+
+    @Override
+    public Todo copy() {
+        return new Todo(taskDescription, isDone);
+    }
 }
 
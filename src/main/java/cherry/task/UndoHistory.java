@@ -0,0 +1,123 @@
+package cherry.task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the steps which can be undone and redone, as the changes which make and undo each step
+ * rather than copies of the list, within a limit on the memory they keep alive.
+ * <p>
+ * Changes are gathered into an open step until it is ended. Once the steps hold more than the limit,
+ * the oldest are forgotten. A step which alone holds more than the limit cannot be kept, and as the
+ * steps before it can only be undone after it, they are forgotten with it.
+ * </p>
+ */
+class UndoHistory {
+    private final Deque<UndoStep> undoSteps = new ArrayDeque<>();
+    private final Deque<UndoStep> redoSteps = new ArrayDeque<>();
+    private final List<TaskChange> openChanges = new ArrayList<>();
+    private final List<TaskChange> openInverses = new ArrayList<>();
+    private long openBytes;
+    private boolean isOpenStepDropped;
+    private long storedBytes;
+    private long memoryLimit;
+
+    UndoHistory(long memoryLimit) {
+        setMemoryLimit(memoryLimit);
+    }
+
+    /**
+     * Sets the memory the steps may keep alive, forgetting the oldest steps if they hold more.
+     */
+    void setMemoryLimit(long memoryLimit) {
+        assert memoryLimit >= 0 : "Memory limit should not be negative";
+        this.memoryLimit = memoryLimit;
+        trim();
+    }
+
+    /**
+     * Adds a change, and the change undoing it, to the open step.
+     */
+    void record(TaskChange change, TaskChange inverse) {
+        if (isOpenStepDropped) {
+            return;
+        }
+        openChanges.add(change);
+        openInverses.add(inverse);
+        openBytes += change.getEstimatedBytes() + inverse.getEstimatedBytes();
+        if (openBytes > memoryLimit) {
+            discardOpenStep();
+            isOpenStepDropped = true;
+            undoSteps.clear();
+            redoSteps.clear();
+            storedBytes = 0;
+        }
+    }
+
+    /**
+     * Ends the open step, keeping it as the next step to undo if it changed anything.
+     * A new step means the undone steps can no longer be redone.
+     */
+    void endStep(String description) {
+        if (!openChanges.isEmpty()) {
+            for (UndoStep step : redoSteps) {
+                storedBytes -= step.getEstimatedBytes();
+            }
+            redoSteps.clear();
+            undoSteps.push(new UndoStep(description, openChanges, openInverses, openBytes));
+            storedBytes += openBytes;
+            trim();
+        }
+        discardOpenStep();
+        isOpenStepDropped = false;
+    }
+
+    /**
+     * Forgets the changes in the open step, such as after they were rolled back.
+     */
+    void discardOpenStep() {
+        openChanges.clear();
+        openInverses.clear();
+        openBytes = 0;
+    }
+
+    /**
+     * Moves the newest step to undo over to the steps to redo, and returns it,
+     * or returns null if there is nothing to undo.
+     */
+    UndoStep takeUndo() {
+        assert openChanges.isEmpty() : "Steps should only be undone between commands";
+        UndoStep step = undoSteps.poll();
+        if (step != null) {
+            redoSteps.push(step);
+        }
+        return step;
+    }
+
+    /**
+     * Moves the newest step to redo back over to the steps to undo, and returns it,
+     * or returns null if there is nothing to redo.
+     */
+    UndoStep takeRedo() {
+        assert openChanges.isEmpty() : "Steps should only be redone between commands";
+        UndoStep step = redoSteps.poll();
+        if (step != null) {
+            undoSteps.push(step);
+        }
+        return step;
+    }
+
+    /**
+     * Forgets the oldest steps to undo, then the furthest steps to redo, until the rest fit the limit.
+     */
+    private void trim() {
+        while (storedBytes > memoryLimit && !undoSteps.isEmpty()) {
+            storedBytes -= undoSteps.removeLast().getEstimatedBytes();
+        }
+        while (storedBytes > memoryLimit && !redoSteps.isEmpty()) {
+            storedBytes -= redoSteps.removeLast().getEstimatedBytes();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package cherry.task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the changes made to a task list by one command, or one batch of commands,
+ * together with the changes which undo them.
+ */
+public final class UndoStep {
+    private final String description;
+    private final List<TaskChange> changes;
+    private final List<TaskChange> inverses;
+    private final long estimatedBytes;
+
+    /**
+     * Creates a step from its changes, in the order they were made, and the change undoing each,
+     * in the same order.
+     */
+    UndoStep(String description, List<TaskChange> changes, List<TaskChange> inverses, long estimatedBytes) {
+        assert changes.size() == inverses.size() : "Each change should have its inverse";
+        this.description = description;
+        this.changes = List.copyOf(changes);
+        List<TaskChange> newestFirst = new ArrayList<>(inverses);
+        Collections.reverse(newestFirst);
+        this.inverses = List.copyOf(newestFirst);
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    /**
+     * Returns what the user typed to make the changes.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the changes which undo this step, newest change first.
+     */
+    public List<TaskChange> getUndoChanges() {
+        return inverses;
+    }
+
+    /**
+     * Returns the changes which redo this step, in the order they were first made.
+     */
+    public List<TaskChange> getRedoChanges() {
+        return changes;
+    }
+
+    long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+}
@@ -0,0 +1,24 @@
+package cherry.ui;
+
+/**
+ * Represents the outcome of a command, which decides how its response is styled.
+ */
+public enum ResponseType {
+    ERROR("error"),
+    SUCCESS("success"),
+    WARNING("warning"),
+    INFO(null);
+
+    private final String styleName;
+
+    ResponseType(String styleName) {
+        this.styleName = styleName;
+    }
+
+    /**
+     * Returns the name used for this outcome's style classes, or null if it is not styled.
+     */
+    public String getStyleName() {
+        return styleName;
+    }
+}
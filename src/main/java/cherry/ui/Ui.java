@@ -1,5 +1,6 @@
 package cherry.ui;
 
+import java.util.List;
 import java.util.Scanner;
 
 import cherry.exception.CherryException;
@@ -13,6 +14,7 @@ import cherry.task.TaskList;
  * Supports both CLI (print methods) and GUI (format methods) modes.
  */
 public class Ui {
+    public static final int DEFAULT_PAGE_SIZE = 20;
     private static final String LINE =
             "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━";
     private static final String DIVIDER = "┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈┈";
@@ -21,8 +23,12 @@ public class Ui {
     private static final String CHECK = "✓";
     private static final String CIRCLE = "○";
     private static final String CROSS = "✗";
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SUMMARY_TASKS = 5;
 
     private final Scanner scanner;
+    private int listCursor = 0;
+    private int listPageSize = DEFAULT_PAGE_SIZE;
 
     public Ui() {
         this.scanner = new Scanner(System.in);
@@ -89,7 +95,7 @@ public class Ui {
     /**
      * Prints the matching task list (CLI mode).
      */
-    public void printMatchingList(TaskList tasks) throws CherryException {
+    public void printMatchingList(List<Task> tasks) {
         printMessage(formatMatchingList(tasks));
     }
 
@@ -151,19 +157,27 @@ public class Ui {
                 + "  3. event DESCRIPTION /from START /to END\n"
                 + "     └─ Example: event team meeting /from 2pm /to 4pm\n\n"
                 + COFFEE + formatAsBold("MANAGING ORDERS (Task Management):\n")
-                + "  4. list - View your complete order list\n"
-                + "  5. find KEYWORD - Search for specific orders\n"
+                + "  4. list [PAGE] [SIZE] - View your order list, a page at a time\n"
+                + "     └─ Example: list 2 50, or list next for the following page\n"
+                + "  5. find KEYWORDS - Search for orders with words starting with every keyword\n"
+                + "     └─ Example: find ~cofee (with ~, allows for typos)\n"
                 + "  6. mark INDEX - Mark an order as complete\n"
+                + "     └─ Example: mark 3-40,55 or mark pending for several at once\n"
                 + "  7. unmark INDEX - Mark an order as incomplete\n"
                 + "  8. update INDEX [/desc DESC] [/by DATE] [/from TIME] [/to TIME]\n"
                 + "  9. duplicate INDEX - Create a copy of an order\n"
-                + "  10. delete INDEX - Remove an order\n\n"
+                + "  10. delete INDEX - Remove an order\n"
+                + "     └─ Example: delete 3-40,55 or delete done for several at once\n\n"
                 + COFFEE + formatAsBold("OTHER:\n")
+                + "  • undo - Take back your last change\n"
+                + "  • redo - Bring back the change you just undid\n"
                 + "  • help - Show this menu\n"
                 + "  • bye - Close the café\n\n"
                 + formatAsBold("💡Tips:\n")
                 + "  • All commands are case-insensitive\n"
+                + "  • Commands can be shortened, e.g. 'dea' for deadline\n"
                 + "  • Task numbering starts from 1\n"
+                + "  • An INDEX can also be an order's id, like #14, which never changes\n"
                 + "  • Invalid dates will be caught\n";
     }
 
@@ -176,65 +190,67 @@ public class Ui {
     }
 
     /**
-     * Formats the task list as a cafe order list (GUI mode).
+     * Formats the first page of the task list as a cafe order list (GUI mode).
      */
     public String formatList(TaskList tasks) throws CherryException {
+        return formatListPage(tasks, 1, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Formats one page of the task list (GUI mode). Pages are numbered from 1.
+     * Only the tasks on the page are read, and the totals come from the list's counters.
+     */
+    public String formatListPage(TaskList tasks, int page, int pageSize) throws CherryException {
         if (tasks.getTaskCount() == 0) {
-            return MENU + " Your order list is empty!\n"
-                    + "Ready to place your first order?\n"
-                    + "Try: 'todo buy coffee beans' ";
+            return formatEmptyList();
         }
-
-        StringBuilder menu = new StringBuilder();
-        menu.append(MENU)
-                .append(formatAsBold("YOUR CAFÉ ORDER LIST"))
-                .append(MENU)
-                .append("\n");
-
-        int readyCount = 0;
-        int preparingCount = 0;
-
-        for (int i = 0; i < tasks.getTaskCount(); i += 1) {
-            Task task = tasks.getTask(i + 1);
-            menu.append(formatRow(i + 1, task));
-
-            if (i < tasks.getTaskCount() - 1) {
-                menu.append(DIVIDER).append("\n");
-            }
-
-            if (task.isDone()) {
-                readyCount += 1;
-            } else {
-                preparingCount += 1;
-            }
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new CherryException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".\n"
+                    + "Example: list 2 50");
         }
 
-        menu.append("\n");
-        menu.append(String.format("Total: %d orders │ %s %d ready │ %s %d preparing",
-                tasks.getTaskCount(), CHECK, readyCount, CIRCLE, preparingCount));
+        int pageCount = (tasks.getTaskCount() - 1) / pageSize + 1;
+        if (page < 1 || page > pageCount) {
+            throw new CherryException("Page " + page + " doesn't exist, your order list has "
+                    + pageCount + (pageCount == 1 ? " page." : " pages."));
+        }
+        return formatListWindow(tasks, (page - 1) * pageSize, pageSize);
+    }
 
-        return menu.toString();
+    /**
+     * Formats the page of the task list after the one shown last (GUI mode).
+     */
+    public String formatNextListPage(TaskList tasks) throws CherryException {
+        if (tasks.getTaskCount() == 0) {
+            return formatEmptyList();
+        }
+        if (listCursor >= tasks.getTaskCount()) {
+            return MENU + " You've reached the end of your order list!\n"
+                    + "Type 'list' to start again from the top.";
+        }
+        return formatListWindow(tasks, listCursor, listPageSize);
     }
 
     /**
      * Formats the matching task list (GUI mode).
      */
-    public String formatMatchingList(TaskList tasks) throws CherryException {
-        if (tasks.getTaskCount() == 0) {
+    public String formatMatchingList(List<Task> tasks) {
+        if (tasks.isEmpty()) {
             return CROSS + formatAsBold(" No matching orders found!\n")
                     + "Try a different search term or check your spelling.";
         }
 
         StringBuilder list = new StringBuilder();
-        list.append("Found ").append(tasks.getTaskCount()).append(" matching order(s):\n");
+        list.append("Found ").append(tasks.size()).append(" matching order(s):\n");
 
-        for (int i = 0; i < tasks.getTaskCount(); i += 1) {
-            Task task = tasks.getTask(i + 1);
+        for (int i = 0; i < tasks.size(); i += 1) {
+            Task task = tasks.get(i);
             String status = task.isDone() ? CHECK + " READY" : CIRCLE + " PREPARING";
             list.append(String.format("%d. %s │ ", i + 1, status));
+            list.append(formatId(task)).append(" │ ");
             list.append(formatTaskDetails(task)).append("\n");
 
-            if (i < tasks.getTaskCount() - 1) {
+            if (i < tasks.size() - 1) {
                 list.append("\n");
             }
         }
@@ -247,7 +263,7 @@ public class Ui {
      */
     public String formatTaskAdded(Task task, int totalTasks) {
         return CHECK + formatAsBold("Order placed!:\n")
-                + formatTaskDetails(task) + "\n"
+                + formatId(task) + " │ " + formatTaskDetails(task) + "\n"
                 + "Total items on your list: " + totalTasks;
     }
 
@@ -278,6 +294,56 @@ public class Ui {
                 + totalTasks;
     }
 
+    /**
+     * Formats a confirmation for several tasks marked as done at once (GUI mode).
+     */
+    public String formatTasksMarked(List<Task> marked, int alreadyDoneCount) {
+        StringBuilder message = new StringBuilder(
+                formatAsBold(formatOrderCount(marked.size()) + " complete! Great work!\n"));
+        appendTaskSummary(message, marked, CHECK);
+        if (alreadyDoneCount > 0) {
+            message.append("\n(").append(alreadyDoneCount).append(" already complete)");
+        }
+        return message.append("\nTime for a coffee break? ").append(COFFEE).toString();
+    }
+
+    /**
+     * Formats a confirmation for several tasks unmarked at once (GUI mode).
+     */
+    public String formatTasksUnmarked(List<Task> unmarked, int alreadyPendingCount) {
+        StringBuilder message = new StringBuilder("Back to preparing " + formatOrderCount(unmarked.size()) + ":\n");
+        appendTaskSummary(message, unmarked, CIRCLE);
+        if (alreadyPendingCount > 0) {
+            message.append("\n(").append(alreadyPendingCount).append(" already being prepared)");
+        }
+        return message.toString();
+    }
+
+    /**
+     * Formats a confirmation for several tasks deleted at once (GUI mode).
+     */
+    public String formatTasksDeleted(List<Task> deleted, int totalTasks) {
+        StringBuilder message = new StringBuilder(formatAsBold(formatOrderCount(deleted.size()) + " cancelled:\n"));
+        appendTaskSummary(message, deleted, CROSS);
+        return message.append("\nRemaining orders: ").append(totalTasks).toString();
+    }
+
+    /**
+     * Formats a confirmation that the changes made by the given command were undone (GUI mode).
+     */
+    public String formatUndone(String command, int totalTasks) {
+        return formatAsBold("Undone: ") + command + "\n"
+                + "Total items on your list: " + totalTasks;
+    }
+
+    /**
+     * Formats a confirmation that the changes made by the given command were made again (GUI mode).
+     */
+    public String formatRedone(String command, int totalTasks) {
+        return formatAsBold("Redone: ") + command + "\n"
+                + "Total items on your list: " + totalTasks;
+    }
+
     /**
      * Formats a task updated confirmation (GUI mode).
      */
@@ -286,16 +352,66 @@ public class Ui {
                 + CIRCLE + " " + formatTaskDetails(task);
     }
 
+    private String formatEmptyList() {
+        return MENU + " Your order list is empty!\n"
+                + "Ready to place your first order?\n"
+                + "Try: 'todo buy coffee beans' ";
+    }
+
     /**
-     * Formats a single row for the task list.
-     * Produces the order number, status, and task details.
+     * Formats the tasks from the given start (0-based) as a cafe order list, at most pageSize of them,
+     * and moves the list cursor past them.
      */
-    private String formatRow(int index, Task task) {
-        String orderNum = String.format("#%02d", index);
-        String status = task.isDone() ? CHECK + " READY    " : CIRCLE + " PREPARING";
+    private String formatListWindow(TaskList tasks, int start, int pageSize) throws CherryException {
+        int taskCount = tasks.getTaskCount();
+        int end = Math.min(taskCount, start + pageSize);
+
+        StringBuilder menu = new StringBuilder();
+        menu.append(MENU)
+                .append(formatAsBold("YOUR CAFÉ ORDER LIST"))
+                .append(MENU)
+                .append("\n");
+
+        for (int i = start; i < end; i += 1) {
+            appendRow(menu, i + 1, tasks.getTask(i + 1));
 
-        return orderNum + " │ " + status + "\n"
-                + "    " + formatTaskDetails(task) + "\n";
+            if (i < end - 1) {
+                menu.append(DIVIDER).append("\n");
+            }
+        }
+
+        menu.append("\n");
+        menu.append("Total: ").append(taskCount).append(" orders │ ")
+                .append(CHECK).append(' ').append(tasks.getDoneCount()).append(" ready │ ")
+                .append(CIRCLE).append(' ').append(tasks.getPendingCount()).append(" preparing");
+        if (start > 0 || end < taskCount) {
+            menu.append("\nShowing orders ").append(start + 1).append("-").append(end)
+                    .append(" of ").append(taskCount);
+            if (end < taskCount) {
+                menu.append(" │ type 'list next' for more");
+            }
+        }
+
+        listCursor = end;
+        listPageSize = pageSize;
+        return menu.toString();
+    }
+
+    /**
+     * Appends a single row for the task list.
+     * Produces the order number, status, id, and task details.
+     */
+    private void appendRow(StringBuilder menu, int index, Task task) {
+        if (index < 10) {
+            menu.append('0');
+        }
+        menu.append(index)
+                .append(" │ ")
+                .append(task.isDone() ? CHECK + " READY     │ " : CIRCLE + " PREPARING │ ")
+                .append(formatId(task))
+                .append("\n    ")
+                .append(formatTaskDetails(task))
+                .append("\n");
     }
 
     /**
@@ -313,6 +429,31 @@ public class Ui {
         }
     }
 
+    /**
+     * Formats the task's id as {@code #14}, which commands accept in place of its number.
+     */
+    private String formatId(Task task) {
+        return "#" + task.getId();
+    }
+
+    private String formatOrderCount(int count) {
+        return count == 1 ? "1 order" : count + " orders";
+    }
+
+    /**
+     * Appends one line per task, up to a few tasks, and the number of tasks left out.
+     */
+    private void appendTaskSummary(StringBuilder message, List<Task> tasks, String icon) {
+        int shown = Math.min(tasks.size(), MAX_SUMMARY_TASKS);
+        for (int i = 0; i < shown; i += 1) {
+            message.append(icon).append(' ').append(formatAsBold(tasks.get(i).getDescription())).append('\n');
+        }
+        if (tasks.size() > shown) {
+            message.append("...and ").append(tasks.size() - shown).append(" more\n");
+        }
+        message.setLength(message.length() - 1);
+    }
+
     /**
      * Formats a string as bold.
      */
@@ -14,4 +14,5 @@ module cherry {
     exports cherry.parser;
     exports cherry.command;
     exports cherry.storage;
+    exports cherry.search;
 }
\ No newline at end of file
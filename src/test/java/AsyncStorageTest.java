@@ -0,0 +1,166 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cherry.Cherry;
+import cherry.command.ByeCommand;
+import cherry.storage.Storage;
+import cherry.task.Task;
+import cherry.task.TaskList;
+import cherry.task.Todo;
+import cherry.ui.Ui;
+
+public class AsyncStorageTest {
+    // Long enough that the background writer never runs during a test.
+    private static final long COALESCE_INTERVAL_MILLIS = 60_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void flush_queuedRecords_writtenToJournal() throws IOException {
+        String filePath = dir.resolve("tasks.txt").toString();
+        Storage storage = createAsyncStorage(filePath);
+        storage.appendAdd(new Todo("task 1"));
+        storage.appendAdd(new Todo("task 2"));
+        storage.appendMark(1);
+
+        assertEquals(0, new File(filePath + ".journal").length());
+        storage.flush();
+
+        assertEquals(List.of("#1 | (T) | [X] | task 1", "#2 | (T) | [ ] | task 2"), toSaveFormats(load(filePath)));
+        storage.close();
+    }
+
+    @Test
+    public void bye_queuedRecords_writtenToJournal() throws IOException {
+        String filePath = dir.resolve("tasks.txt").toString();
+        Storage storage = createAsyncStorage(filePath);
+        storage.appendAdd(new Todo("task 1"));
+
+        new ByeCommand().execute(new TaskList(), new Ui(), storage);
+
+        assertEquals(List.of("#1 | (T) | [ ] | task 1"), toSaveFormats(load(filePath)));
+        storage.close();
+    }
+
+    @Test
+    public void close_fromAnotherThread_queuedRecordsWritten() throws Exception {
+        String filePath = dir.resolve("tasks.txt").toString();
+        Storage storage = createAsyncStorage(filePath);
+        storage.appendAdd(new Todo("task 1"));
+        storage.appendAdd(new Todo("task 2"));
+
+        Thread closer = new Thread(() -> {
+            try {
+                storage.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        closer.start();
+        closer.join();
+
+        assertEquals(List.of("#1 | (T) | [ ] | task 1", "#2 | (T) | [ ] | task 2"), toSaveFormats(load(filePath)));
+    }
+
+    @Test
+    public void close_writeWaitingForInterval_returnsWithoutWaiting() throws IOException {
+        String filePath = dir.resolve("tasks.txt").toString();
+        Storage storage = createAsyncStorage(filePath);
+        storage.appendAdd(new Todo("task 1"));
+
+        assertTimeout(Duration.ofSeconds(5), storage::close);
+
+        assertEquals(List.of("#1 | (T) | [ ] | task 1"), toSaveFormats(load(filePath)));
+    }
+
+    @Test
+    public void discardBatch_queuedBatch_neverWritten() throws IOException {
+        String filePath = dir.resolve("tasks.txt").toString();
+        Storage storage = createAsyncStorage(filePath);
+        storage.appendAdd(new Todo("task 1"));
+        storage.beginBatch();
+        storage.appendAdd(new Todo("task 2"));
+        storage.appendMark(1);
+        storage.discardBatch();
+        storage.appendAdd(new Todo("task 3"));
+        storage.close();
+
+        assertFalse(Files.readString(Path.of(filePath + ".journal")).contains("task 2"));
+        assertEquals(List.of("#1 | (T) | [ ] | task 1", "#2 | (T) | [ ] | task 3"), toSaveFormats(load(filePath)));
+    }
+
+    @Test
+    public void exit_changeStillQueued_writtenByShutdownHook() throws Exception {
+        Process process = new ProcessBuilder(getJavaCommand(), "-cp", getClassPath(), ExitAfterAdd.class.getName())
+                .directory(dir.toFile())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes());
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS), output);
+        assertEquals(0, process.exitValue(), output);
+
+        List<Task> loaded = load(dir.resolve("data").resolve("cherry.txt").toString());
+
+        assertEquals(1, loaded.size(), output);
+        assertEquals("read book", loaded.get(0).getDescription());
+    }
+
+    /**
+     * Adds a task and exits straight away, leaving the change to be written by the shutdown hook.
+     */
+    public static class ExitAfterAdd {
+        public static void main(String[] args) {
+            new Cherry().getResponse("todo read book");
+            System.exit(0);
+        }
+    }
+
+    private static Storage createAsyncStorage(String filePath) {
+        Storage storage = new Storage(filePath);
+        storage.enableAsyncWrites(COALESCE_INTERVAL_MILLIS);
+        return storage;
+    }
+
+    private static List<Task> load(String filePath) throws IOException {
+        Storage storage = new Storage(filePath);
+        List<Task> tasks = storage.load();
+        storage.close();
+        return tasks;
+    }
+
+    private static String getJavaCommand() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static String getClassPath() throws URISyntaxException {
+        return getLocation(Cherry.class) + File.pathSeparator + getLocation(ExitAfterAdd.class);
+    }
+
+    private static String getLocation(Class<?> type) throws URISyntaxException {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    private static List<String> toSaveFormats(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.toSaveFormat());
+        }
+        return lines;
+    }
+}
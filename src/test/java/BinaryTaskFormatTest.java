@@ -0,0 +1,189 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cherry.storage.BinaryTaskFormat;
+import cherry.task.Deadline;
+import cherry.task.Event;
+import cherry.task.Task;
+import cherry.task.Todo;
+
+public class BinaryTaskFormatTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void read_writtenTasks_sameTasks() throws IOException {
+        List<Task> tasks = createTasks();
+        File file = write(tasks);
+
+        assertTrue(BinaryTaskFormat.isBinary(file));
+        assertEquals(toSaveFormats(tasks), toSaveFormats(BinaryTaskFormat.read(file)));
+    }
+
+    @Test
+    public void read_versionWithoutIds_tasksWithoutIds() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeBytes("CHRY");
+        data.writeByte(1);
+        data.writeInt(2);
+        data.writeByte('T');
+        data.writeByte(1);
+        writeString(data, "read book");
+        data.writeByte('D');
+        data.writeByte(0);
+        writeString(data, "return book");
+        data.writeInt((int) LocalDate.of(2025, 1, 10).toEpochDay());
+        File file = dir.resolve("tasks.txt").toFile();
+        Files.write(file.toPath(), bytes.toByteArray());
+
+        assertEquals(List.of("(T) | [X] | read book", "(D) | [ ] | return book | 2025-01-10"),
+                toSaveFormats(BinaryTaskFormat.read(file)));
+    }
+
+    @Test
+    public void read_badMagic_exceptionThrown() throws IOException {
+        File file = dir.resolve("tasks.txt").toFile();
+        Files.write(file.toPath(), "CHRX\u0002\u0000\u0000\u0000\u0000".getBytes(StandardCharsets.ISO_8859_1));
+
+        assertFalse(BinaryTaskFormat.isBinary(file));
+        try {
+            BinaryTaskFormat.read(file);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Not a binary data file"));
+        }
+    }
+
+    @Test
+    public void read_unsupportedVersion_exceptionThrown() throws IOException {
+        File file = dir.resolve("tasks.txt").toFile();
+        Files.write(file.toPath(), "CHRY\u0009\u0000\u0000\u0000\u0000".getBytes(StandardCharsets.ISO_8859_1));
+
+        try {
+            BinaryTaskFormat.read(file);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Unsupported binary data file version 9"));
+        }
+    }
+
+    @Test
+    public void read_truncatedHeader_exceptionThrown() throws IOException {
+        File file = dir.resolve("tasks.txt").toFile();
+        Files.write(file.toPath(), "CHRY\u0002\u0000".getBytes(StandardCharsets.ISO_8859_1));
+
+        try {
+            BinaryTaskFormat.read(file);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Binary data file is too short"));
+        }
+    }
+
+    @Test
+    public void read_truncatedLastRecord_earlierTasksKept() throws IOException {
+        List<Task> tasks = createTasks();
+        File file = write(tasks);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+
+        List<Task> read = BinaryTaskFormat.read(file);
+
+        assertEquals(toSaveFormats(tasks.subList(0, tasks.size() - 1)), toSaveFormats(read));
+    }
+
+    @Test
+    public void read_severalMebibytes_noNativeCopyOfWholeFile() throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 100_000; i += 1) {
+            tasks.add(new Todo("task " + i + " with a description long enough to fill the file"));
+        }
+        File file = write(tasks);
+        assertTrue(file.length() > 6 * 1024 * 1024);
+        BufferPoolMXBean directBuffers = getDirectBufferPool();
+        List<Task> read = new ArrayList<>();
+        long[] directGrowth = new long[1];
+
+        // A new thread starts without cached native buffers, and drops any it caches when it ends
+        Thread reader = new Thread(() -> {
+            long before = directBuffers.getMemoryUsed();
+            try {
+                read.addAll(BinaryTaskFormat.read(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            directGrowth[0] = directBuffers.getMemoryUsed() - before;
+        });
+        reader.start();
+        reader.join();
+
+        assertEquals(tasks.size(), read.size());
+        assertEquals(tasks.get(tasks.size() - 1).getDescription(), read.get(read.size() - 1).getDescription());
+        assertTrue(directGrowth[0] <= 1024 * 1024, "native buffer growth: " + directGrowth[0]);
+    }
+
+    private static BufferPoolMXBean getDirectBufferPool() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool;
+            }
+        }
+        throw new IllegalStateException("No direct buffer pool");
+    }
+
+    private File write(List<Task> tasks) throws IOException {
+        File file = dir.resolve("tasks.txt").toFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            BinaryTaskFormat.write(out, tasks);
+        }
+        return file;
+    }
+
+    private static List<Task> createTasks() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("return book", true, LocalDate.of(2025, 1, 10)));
+        tasks.add(new Event("café meeting ☕", "2pm", "4pm"));
+        tasks.add(new Todo("last task", true));
+        for (int i = 0; i < tasks.size(); i += 1) {
+            tasks.get(i).assignId(10 + i);
+        }
+        return tasks;
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static List<String> toSaveFormats(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.toSaveFormat());
+        }
+        return lines;
+    }
+}
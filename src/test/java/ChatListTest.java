@@ -0,0 +1,201 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import cherry.gui.ChatMessage;
+import cherry.gui.ChatMessageCell;
+import cherry.gui.DialogBox;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.ListView;
+import javafx.scene.image.ImageView;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+import javafx.stage.Stage;
+
+/**
+ * Smoke-tests the conversation list on a headless JavaFX toolkit (Monocle).
+ */
+public class ChatListTest {
+    private static final int MESSAGE_COUNT = 1000;
+
+    private static boolean canLayOutText;
+
+    private Stage stage;
+
+    @BeforeAll
+    public static void startToolkit() throws Exception {
+        System.setProperty("glass.platform", System.getProperty("glass.platform", "Monocle"));
+        System.setProperty("monocle.platform", System.getProperty("monocle.platform", "Headless"));
+        System.setProperty("prism.order", System.getProperty("prism.order", "sw"));
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException e) {
+            // already started by another test class in this JVM
+        }
+        Platform.setImplicitExit(false);
+        canLayOutText = runOnFxThread(ChatListTest::tryLayOutText);
+    }
+
+    @AfterEach
+    public void closeStage() throws Exception {
+        if (stage != null) {
+            runOnFxThread(() -> {
+                stage.close();
+                return null;
+            });
+        }
+    }
+
+    @Test
+    public void scroll_longConversation_cellsReused() throws Exception {
+        assumeTrue(canLayOutText, "JavaFX cannot lay out text here (Pango is missing)");
+        AtomicInteger createdCells = new AtomicInteger();
+        ObservableList<ChatMessage> messages = FXCollections.observableArrayList();
+        for (int i = 0; i < MESSAGE_COUNT; i += 1) {
+            String text = "message " + i;
+            messages.add(i % 2 == 0 ? ChatMessage.fromUser(text) : ChatMessage.fromCherry(text, null));
+        }
+        ListView<ChatMessage> list = runOnFxThread(() -> {
+            ListView<ChatMessage> view = new ListView<>(messages);
+            view.setCellFactory(listView -> {
+                createdCells.incrementAndGet();
+                return new ChatMessageCell(listView, null, null);
+            });
+            show(view);
+            return view;
+        });
+        int cellsToFillWindow = createdCells.get();
+
+        for (int index = 0; index < MESSAGE_COUNT; index += 50) {
+            int target = index;
+            runOnFxThread(() -> {
+                list.scrollTo(target);
+                list.layout();
+                return null;
+            });
+        }
+        List<String> shown = runOnFxThread(() -> {
+            list.scrollTo(MESSAGE_COUNT - 1);
+            list.layout();
+            return getShownTexts(list);
+        });
+
+        assertTrue(cellsToFillWindow < 50, "cells created: " + cellsToFillWindow);
+        assertTrue(createdCells.get() <= cellsToFillWindow + 5, "cells created: " + createdCells.get());
+        assertTrue(shown.contains("message " + (MESSAGE_COUNT - 1)), shown.toString());
+    }
+
+    @Test
+    public void updateItem_cellReusedForOtherSpeaker_boxRefilled() throws Exception {
+        List<Node> children = runOnFxThread(() -> {
+            ListView<ChatMessage> list = new ListView<>();
+            ChatMessageCell cell = new ChatMessageCell(list, null, null);
+            cell.updateListView(list);
+            list.getItems().setAll(ChatMessage.fromUser("from user"),
+                    ChatMessage.fromCherry("**from** cherry", "error"));
+
+            cell.updateIndex(0);
+            DialogBox userBox = (DialogBox) cell.getGraphic();
+            List<Node> userChildren = new ArrayList<>(userBox.getChildren());
+            assertEquals("from user", getText(userBox));
+
+            cell.updateIndex(1);
+            DialogBox cherryBox = (DialogBox) cell.getGraphic();
+            assertSame(userBox, cherryBox);
+            assertEquals("from cherry", getText(cherryBox));
+            assertTrue(getTextFlow(cherryBox).getStyleClass().contains("error-flow"));
+
+            cell.updateIndex(0);
+            assertFalse(getTextFlow(userBox).getStyleClass().contains("error-flow"));
+            userChildren.addAll(cherryBox.getChildren());
+            return userChildren;
+        });
+
+        // The user's picture is on the right of their text, and Cherry's on the left of hers.
+        assertTrue(children.get(0) instanceof TextFlow);
+        assertTrue(children.get(1) instanceof ImageView);
+        assertTrue(children.get(2) instanceof TextFlow);
+        assertTrue(children.get(3) instanceof ImageView);
+    }
+
+    /**
+     * Returns whether the toolkit started by {@link #startToolkit()} can lay out text.
+     */
+    static boolean isTextLayoutAvailable() {
+        return canLayOutText;
+    }
+
+    /**
+     * Returns whether text can be measured, which needs the platform's font libraries.
+     */
+    private static boolean tryLayOutText() {
+        try {
+            new Text("x").getLayoutBounds();
+            return true;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    private void show(ListView<ChatMessage> list) {
+        stage = new Stage();
+        stage.setScene(new Scene(list, 400, 600));
+        stage.show();
+        list.layout();
+    }
+
+    private static List<String> getShownTexts(ListView<ChatMessage> list) {
+        List<String> texts = new ArrayList<>();
+        for (Node node : list.lookupAll(".list-cell")) {
+            ChatMessageCell cell = (ChatMessageCell) node;
+            if (cell.isVisible() && cell.getGraphic() instanceof DialogBox) {
+                texts.add(getText((DialogBox) cell.getGraphic()));
+            }
+        }
+        return texts;
+    }
+
+    private static TextFlow getTextFlow(DialogBox dialogBox) {
+        return (TextFlow) dialogBox.lookup("#dialog");
+    }
+
+    private static String getText(DialogBox dialogBox) {
+        StringBuilder text = new StringBuilder();
+        for (Node node : getTextFlow(dialogBox).getChildren()) {
+            text.append(((Text) node).getText());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Runs the action on the JavaFX thread and waits for its result.
+     */
+    static <T> T runOnFxThread(Callable<T> action) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(action.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,148 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cherry.Cherry;
+import cherry.Response;
+import cherry.storage.Storage;
+import cherry.task.Task;
+import cherry.ui.ResponseType;
+
+public class CherryBatchTest {
+    private static final int LONG_TASK_COUNT = 40;
+    private static final String REPLY_MARKER = "--- reply ---";
+    private static final String LIST_MARKER = "--- list ---";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void getResponses_allCommandsSucceed_savedAsOneBatch() throws IOException {
+        String filePath = dir.resolve("cherry.txt").toString();
+        Cherry cherry = new Cherry(filePath);
+
+        Response response = cherry.getResponses(List.of("todo read book", "", "todo buy milk", "mark 1"));
+
+        assertTrue(response.getText().startsWith("**Ran 3 commands as one batch.**"), response.getText());
+        assertEquals(ResponseType.SUCCESS, response.getType());
+        // Written by the commit itself, so no flush is needed before loading
+        assertEquals(List.of("[X] read book", "[ ] buy milk"), describe(load(filePath)));
+    }
+
+    @Test
+    public void getResponses_commandFails_batchRolledBackAndNothingSaved() throws IOException {
+        String filePath = dir.resolve("cherry.txt").toString();
+        Cherry cherry = new Cherry(filePath);
+        cherry.getResponse("todo keep");
+
+        Response response = cherry.getResponses(List.of("todo read book", "mark 5", "todo buy milk"));
+
+        assertTrue(response.getText().startsWith("**Error in command 2 ('mark 5'): **"), response.getText());
+        assertTrue(response.getText().endsWith("Nothing in the batch was saved."), response.getText());
+        assertEquals(ResponseType.ERROR, response.getType());
+        String list = cherry.getResponse("list").getText();
+        assertTrue(list.contains("keep") && !list.contains("read book"), list);
+        cherry.getResponse("bye");
+        assertEquals(List.of("[ ] keep"), describe(load(filePath)));
+    }
+
+    @Test
+    public void undo_afterBatch_wholeBatchUndoneInOneStep() throws IOException {
+        String filePath = dir.resolve("cherry.txt").toString();
+        Cherry cherry = new Cherry(filePath);
+        cherry.getResponse("todo keep");
+        cherry.getResponses(List.of("todo read book", "todo buy milk", "mark 1"));
+
+        Response response = cherry.getResponse("undo");
+
+        assertTrue(response.getText().contains("batch of 3 commands"), response.getText());
+        String list = cherry.getResponse("list").getText();
+        assertTrue(list.contains("keep") && !list.contains("read book") && !list.contains("buy milk"), list);
+        cherry.getResponse("bye");
+        assertEquals(List.of("[ ] keep"), describe(load(filePath)));
+    }
+
+    @Test
+    public void getResponses_writeFailsPartWay_batchRolledBackAndJournalCutBack() throws Exception {
+        assumeTrue(new File("/bin/sh").canExecute(), "needs a POSIX shell to limit the file size");
+        String filePath = dir.resolve("cherry.txt").toString();
+        // The batch is larger than the limit, while each of its records alone would fit
+        Process process = new ProcessBuilder("/bin/sh", "-c", "ulimit -f 8 && exec \"$0\" \"$@\"",
+                getJavaCommand(), "-XX:-UsePerfData", "-cp", getClassPath(),
+                BatchPastFileSizeLimit.class.getName(), filePath)
+                .directory(dir.toFile())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes());
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS), output);
+        assertEquals(0, process.exitValue(), output);
+
+        String reply = output.substring(output.indexOf(REPLY_MARKER), output.indexOf(LIST_MARKER));
+        String list = output.substring(output.indexOf(LIST_MARKER));
+        assertTrue(reply.contains("**Storage error! **"), output);
+        assertTrue(reply.strip().endsWith("Nothing in the batch was saved."), output);
+        assertTrue(list.contains("keep") && !list.contains("long task"), output);
+        assertFalse(Files.readString(Path.of(filePath + ".journal")).contains("long task"));
+        assertEquals(List.of("[ ] keep"), describe(load(filePath)));
+    }
+
+    /**
+     * Saves one task, then runs a batch which is too large to be written under the file size limit
+     * and prints its reply and then the task list, each after a marker.
+     */
+    public static class BatchPastFileSizeLimit {
+        public static void main(String[] args) {
+            Cherry cherry = new Cherry(args[0]);
+            cherry.getResponses(List.of("todo keep"));
+            List<String> inputs = new ArrayList<>();
+            for (int i = 0; i < LONG_TASK_COUNT; i += 1) {
+                inputs.add("todo long task " + i + " " + "x".repeat(300));
+            }
+            String reply = cherry.getResponses(inputs).getText();
+            System.out.println(REPLY_MARKER);
+            System.out.println(reply);
+            System.out.println(LIST_MARKER);
+            System.out.println(cherry.getResponse("list").getText());
+        }
+    }
+
+    private static List<Task> load(String filePath) throws IOException {
+        Storage storage = new Storage(filePath);
+        List<Task> tasks = storage.load();
+        storage.close();
+        return tasks;
+    }
+
+    private static String getJavaCommand() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static String getClassPath() throws URISyntaxException {
+        return getLocation(Cherry.class) + File.pathSeparator + getLocation(BatchPastFileSizeLimit.class);
+    }
+
+    private static String getLocation(Class<?> type) throws URISyntaxException {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add((task.isDone() ? "[X] " : "[ ] ") + task.getDescription());
+        }
+        return lines;
+    }
+}
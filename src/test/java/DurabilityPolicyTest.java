@@ -0,0 +1,48 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import org.junit.jupiter.api.Test;
+
+import cherry.exception.CherryException;
+import cherry.storage.DurabilityPolicy;
+
+public class DurabilityPolicyTest {
+
+    @Test
+    public void parse_namedPolicies_success() throws CherryException {
+        assertSame(DurabilityPolicy.ALWAYS, DurabilityPolicy.parse("always"));
+        assertSame(DurabilityPolicy.NEVER, DurabilityPolicy.parse(" NEVER "));
+    }
+
+    @Test
+    public void parse_interval_success() throws CherryException {
+        assertEquals(250, DurabilityPolicy.parse("250").getIntervalMillis());
+        assertEquals(500, DurabilityPolicy.parse("every 500 ms").getIntervalMillis());
+        assertEquals("every 1000 ms", DurabilityPolicy.parse(DurabilityPolicy.DEFAULT.toString()).toString());
+    }
+
+    @Test
+    public void parse_notAPolicy_exceptionThrown() {
+        for (String text : new String[] {"sometimes", "0", "-5", "every ms", ""}) {
+            try {
+                DurabilityPolicy.parse(text);
+                fail();
+            } catch (CherryException e) {
+                assertTrue(e.getMessage().startsWith("'" + text + "' is not a durability policy."));
+            }
+        }
+    }
+
+    @Test
+    public void isSyncDue_neverAndInterval_deferSync() {
+        long minute = 60_000_000_000L;
+        assertFalse(DurabilityPolicy.NEVER.isSyncDue(0, minute));
+        assertTrue(DurabilityPolicy.ALWAYS.isSyncDue(0, 0));
+        DurabilityPolicy everySecond = DurabilityPolicy.every(1000);
+        assertFalse(everySecond.isSyncDue(0, 999_999_999L));
+        assertTrue(everySecond.isSyncDue(0, 1_000_000_000L));
+    }
+}
@@ -0,0 +1,171 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cherry.parser.Parser;
+import cherry.storage.DurabilityPolicy;
+import cherry.storage.Journal;
+import cherry.task.Deadline;
+import cherry.task.Task;
+import cherry.task.Todo;
+
+public class JournalTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void format_runsOfTaskNumbers_writtenAsRanges() {
+        assertEquals("D|3-5,8,10-11", Journal.formatDelete(3, 4, 5, 8, 10, 11));
+        assertEquals("M|2", Journal.formatMark(2));
+        assertEquals("U|1-2", Journal.formatUnmark(1, 2));
+    }
+
+    @Test
+    public void replay_everyKindOfRecord_appliedInOrder() throws IOException {
+        File file = writeJournal(
+                Journal.formatAdd(new Todo("task 4")),
+                Journal.formatAdd(new Deadline("task 5", LocalDate.of(2025, 1, 10))),
+                Journal.formatMark(1, 2, 3, 5),
+                Journal.formatUnmark(2),
+                Journal.formatDelete(3, 4),
+                Journal.formatReplace(1, new Todo("task 1 changed")),
+                Journal.formatInsert(2, new Todo("task 2b")),
+                Journal.formatInsert(5, new Todo("task 6")));
+        List<Task> tasks = createTasks(3);
+
+        Journal.replay(file, tasks, new Parser());
+
+        assertEquals(List.of(
+                "(T) | [ ] | task 1 changed",
+                "(T) | [ ] | task 2b",
+                "(T) | [ ] | task 2",
+                "(D) | [X] | task 5 | 2025-01-10",
+                "(T) | [ ] | task 6"), toSaveFormats(tasks));
+    }
+
+    @Test
+    public void replay_taskNumbersOutOfOrder_recordSkipped() throws IOException {
+        File file = writeJournal("D|3,2", "D|5-3", "M|2-3,3", "M|4");
+        List<Task> tasks = createTasks(5);
+
+        Journal.replay(file, tasks, new Parser());
+
+        assertEquals(5, tasks.size());
+        assertEquals(List.of(false, false, false, true, false), toDoneFlags(tasks));
+    }
+
+    @Test
+    public void replay_taskNumberOutOfRange_recordSkipped() throws IOException {
+        File file = writeJournal("D|2-4", "R|0|(T) | [ ] | task 0", "I|5|(T) | [ ] | too far", "M|1");
+        List<Task> tasks = createTasks(3);
+
+        Journal.replay(file, tasks, new Parser());
+
+        assertEquals(3, tasks.size());
+        assertEquals(List.of(true, false, false), toDoneFlags(tasks));
+    }
+
+    @Test
+    public void replay_truncatedLastRecord_earlierRecordsKept() throws IOException {
+        File file = writeJournal(Journal.formatAdd(new Todo("task 2")), Journal.formatMark(1), "R|2");
+        List<Task> tasks = createTasks(1);
+
+        Journal.replay(file, tasks, new Parser());
+
+        assertEquals(List.of("(T) | [X] | task 1", "(T) | [ ] | task 2"), toSaveFormats(tasks));
+    }
+
+    @Test
+    public void replay_missingFile_nothingChanged() throws IOException {
+        List<Task> tasks = createTasks(2);
+
+        Journal.replay(dir.resolve("missing.journal").toFile(), tasks, new Parser());
+
+        assertEquals(2, tasks.size());
+    }
+
+    @Test
+    public void appendAll_afterReopen_recordsAppendedAfterExisting() throws IOException {
+        File file = dir.resolve("tasks.txt.journal").toFile();
+        Journal journal = new Journal(file, DurabilityPolicy.ALWAYS);
+        journal.append(Journal.formatAdd(new Todo("task 2")));
+        journal.close();
+        Journal reopened = new Journal(file, DurabilityPolicy.ALWAYS);
+        reopened.appendAll(List.of(Journal.formatAdd(new Todo("task 3")), Journal.formatMark(2)));
+        reopened.close();
+
+        assertEquals(Files.size(file.toPath()), reopened.getSize());
+        List<Task> tasks = createTasks(1);
+        Journal.replay(file, tasks, new Parser());
+        assertEquals(List.of("(T) | [ ] | task 1", "(T) | [X] | task 2", "(T) | [ ] | task 3"),
+                toSaveFormats(tasks));
+    }
+
+    @Test
+    public void appendAll_everyPolicy_forcesOnlyWhenDue() throws IOException {
+        File always = dir.resolve("always.journal").toFile();
+        File never = dir.resolve("never.journal").toFile();
+        File interval = dir.resolve("interval.journal").toFile();
+        Journal alwaysJournal = new Journal(always, DurabilityPolicy.ALWAYS);
+        Journal neverJournal = new Journal(never, DurabilityPolicy.NEVER);
+        Journal intervalJournal = new Journal(interval, DurabilityPolicy.every(60_000));
+
+        for (int i = 1; i <= 3; i += 1) {
+            alwaysJournal.append(Journal.formatMark(i));
+            neverJournal.append(Journal.formatMark(i));
+            intervalJournal.append(Journal.formatMark(i));
+        }
+
+        assertEquals(3, alwaysJournal.getSyncCount());
+        assertEquals(0, neverJournal.getSyncCount());
+        assertEquals(0, intervalJournal.getSyncCount());
+        assertTrue(intervalJournal.isDirty());
+
+        alwaysJournal.close();
+        neverJournal.close();
+        intervalJournal.close();
+        assertEquals(0, neverJournal.getSyncCount());
+        assertEquals(1, intervalJournal.getSyncCount());
+        assertEquals(3, Files.readAllLines(never.toPath()).size());
+    }
+
+    private File writeJournal(String... records) throws IOException {
+        Path file = dir.resolve("tasks.txt.journal");
+        Files.write(file, List.of(records));
+        return file.toFile();
+    }
+
+    private static List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= count; i += 1) {
+            tasks.add(new Todo("task " + i));
+        }
+        return tasks;
+    }
+
+    private static List<String> toSaveFormats(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.toSaveFormat());
+        }
+        return lines;
+    }
+
+    private static List<Boolean> toDoneFlags(List<Task> tasks) {
+        List<Boolean> flags = new ArrayList<>();
+        for (Task task : tasks) {
+            flags.add(task.isDone());
+        }
+        return flags;
+    }
+}
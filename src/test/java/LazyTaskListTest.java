@@ -0,0 +1,152 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cherry.exception.CherryException;
+import cherry.storage.BinaryTaskFormat;
+import cherry.storage.LazyTaskList;
+import cherry.storage.SnapshotReader;
+import cherry.task.Task;
+import cherry.task.TaskList;
+import cherry.task.Todo;
+
+public class LazyTaskListTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void get_tasksInFile_builtOnFirstAccess() throws IOException {
+        LazyTaskList tasks = LazyTaskList.open(write(5), 16);
+        assertEquals(5, tasks.size());
+        assertEquals(0, tasks.getMaterializedCount());
+
+        assertEquals("#4 | (T) | [ ] | task 4", tasks.get(3).toSaveFormat());
+        assertEquals(1, tasks.getMaterializedCount());
+    }
+
+    @Test
+    public void get_moreTasksThanCache_leastRecentlyUsedEvicted() throws IOException {
+        LazyTaskList tasks = LazyTaskList.open(write(3), 2);
+        Task first = tasks.get(0);
+        Task second = tasks.get(1);
+        assertSame(first, tasks.get(0));
+
+        tasks.get(2);
+
+        assertEquals(2, tasks.getMaterializedCount());
+        assertSame(first, tasks.get(0));
+        assertNotSame(second, tasks.get(1));
+        assertEquals("#2 | (T) | [ ] | task 2", tasks.get(1).toSaveFormat());
+    }
+
+    @Test
+    public void set_changedTask_keptAfterEviction() throws IOException {
+        LazyTaskList tasks = LazyTaskList.open(write(4), 1);
+        Task changed = tasks.get(1);
+        changed.markTask();
+        tasks.set(1, changed);
+        tasks.add(0, new Todo("task 0"));
+        tasks.remove(3);
+
+        for (Task task : tasks) {
+            task.getDescription();
+        }
+
+        assertEquals(List.of("(T) | [ ] | task 0", "#1 | (T) | [ ] | task 1", "#2 | (T) | [X] | task 2",
+                "#4 | (T) | [ ] | task 4"), toSaveFormats(tasks));
+    }
+
+    @Test
+    public void get_dataFileReplacedAfterOpening_readsOriginalTasks() throws IOException {
+        File file = write(3);
+        LazyTaskList tasks = LazyTaskList.open(file, 16);
+
+        Files.write(file.toPath(), new byte[0]);
+
+        assertEquals("#3 | (T) | [ ] | task 3", tasks.get(2).toSaveFormat());
+    }
+
+    @Test
+    public void assignMissingIds_recordsAndAddedTasksWithoutIds_idsAfterLargestWithoutReading() throws IOException {
+        Task withoutId = new Todo("task 2");
+        Task withSmallId = new Todo("task 3");
+        withSmallId.assignId(2);
+        LazyTaskList tasks = LazyTaskList.open(write(List.of(createTask(1, 5), withoutId, withSmallId)), 16);
+        tasks.add(new Todo("task 4"));
+
+        assertEquals(8, SnapshotReader.assignMissingIds(tasks));
+
+        assertEquals(1, tasks.getMaterializedCount());
+        assertEquals(List.of(5L, 6L, 2L, 7L), List.of(tasks.get(0).getId(), tasks.get(1).getId(),
+                tasks.get(2).getId(), tasks.get(3).getId()));
+    }
+
+    @Test
+    public void taskList_addMarkAndDelete_readsOnlyTouchedTasks() throws Exception {
+        LazyTaskList loaded = LazyTaskList.open(write(100), 16);
+        TaskList tasks = new TaskList(loaded, SnapshotReader.assignMissingIds(loaded));
+
+        tasks.addTask(new Todo("task 101"));
+        tasks.markTask(50);
+        tasks.deleteTask(9);
+
+        assertEquals(2, loaded.getMaterializedCount());
+        assertEquals(101, tasks.getTask(100).getId());
+        assertEquals(49, tasks.getTaskNumber(50));
+        assertEquals(100, tasks.getTaskNumber(101));
+        assertEquals(2, loaded.getMaterializedCount());
+    }
+
+    @Test
+    public void taskList_idOfUnreadTask_foundByReadingEveryTask() throws Exception {
+        LazyTaskList loaded = LazyTaskList.open(write(100), 16);
+        TaskList tasks = new TaskList(loaded, SnapshotReader.assignMissingIds(loaded));
+        tasks.deleteTask(0);
+
+        assertEquals(69, tasks.getTaskNumber(70));
+        assertThrows(CherryException.class, () -> tasks.getTaskNumber(1));
+        assertThrows(CherryException.class, () -> tasks.getTaskNumber(101));
+    }
+
+    private File write(int count) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= count; i += 1) {
+            tasks.add(createTask(i, i));
+        }
+        return write(tasks);
+    }
+
+    private File write(List<Task> tasks) throws IOException {
+        File file = dir.resolve("tasks.txt").toFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            BinaryTaskFormat.write(out, tasks);
+        }
+        return file;
+    }
+
+    private static Task createTask(int number, long id) {
+        Task task = new Todo("task " + number);
+        task.assignId(id);
+        return task;
+    }
+
+    private static List<String> toSaveFormats(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.toSaveFormat());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,135 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cherry.Cherry;
+import cherry.gui.ChatMessage;
+import cherry.gui.MainWindow;
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.control.Button;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+
+/**
+ * Smoke-tests sending commands from the main window on a headless JavaFX toolkit (Monocle).
+ */
+public class MainWindowTest {
+    private static final String PENDING_TYPE = "pending";
+    private static final long REPLY_TIMEOUT_MILLIS = 10_000;
+
+    @TempDir
+    Path dir;
+
+    private ListView<ChatMessage> dialogList;
+    private TextField userInput;
+    private Button sendButton;
+    private final List<Boolean> changedOnFxThread = new CopyOnWriteArrayList<>();
+
+    @BeforeAll
+    public static void startToolkit() throws Exception {
+        ChatListTest.startToolkit();
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void loadWindow() throws Exception {
+        // The window loads its fonts as it starts
+        assumeTrue(ChatListTest.isTextLayoutAvailable(), "JavaFX cannot load fonts here (Pango is missing)");
+        Cherry cherry = new Cherry(dir.resolve("cherry.txt").toString());
+        Parent root = ChatListTest.runOnFxThread(() -> {
+            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/MainWindow.fxml"));
+            Parent window = fxmlLoader.load();
+            MainWindow controller = fxmlLoader.getController();
+            controller.setCherry(cherry);
+            return window;
+        });
+        dialogList = (ListView<ChatMessage>) root.lookup("#dialogList");
+        userInput = (TextField) root.lookup("#userInput");
+        sendButton = (Button) root.lookup("#sendButton");
+        dialogList.getItems().addListener((ListChangeListener<ChatMessage>) change ->
+                changedOnFxThread.add(Platform.isFxApplicationThread()));
+    }
+
+    @Test
+    public void send_command_pendingBubbleReplacedByReply() throws Exception {
+        ChatMessage pending = ChatListTest.runOnFxThread(() -> {
+            send("todo read book");
+            List<ChatMessage> items = dialogList.getItems();
+            assertEquals("", userInput.getText());
+            assertEquals("todo read book", items.get(items.size() - 2).getText());
+            return items.get(items.size() - 1);
+        });
+        assertFalse(pending.isFromUser());
+        assertEquals(PENDING_TYPE, pending.getMessageType());
+
+        List<ChatMessage> items = waitForReplies();
+
+        assertEquals(3, items.size());
+        ChatMessage reply = items.get(2);
+        assertFalse(reply.isFromUser());
+        assertEquals("success", reply.getMessageType());
+        assertTrue(reply.getText().contains("read book"), reply.getText());
+        assertFalse(changedOnFxThread.isEmpty());
+        assertFalse(changedOnFxThread.contains(false), "conversation changed off the JavaFX thread");
+    }
+
+    @Test
+    public void send_severalCommandsAtOnce_repliesInOrder() throws Exception {
+        ChatListTest.runOnFxThread(() -> {
+            send("todo first");
+            send("todo second");
+            send("list");
+            return null;
+        });
+
+        List<ChatMessage> items = waitForReplies();
+
+        List<String> texts = new ArrayList<>();
+        for (ChatMessage message : items.subList(1, items.size())) {
+            texts.add(message.getText());
+        }
+        assertEquals(7, items.size());
+        assertEquals("todo first", texts.get(0));
+        assertTrue(texts.get(1).contains("first") && !texts.get(1).contains("second"), texts.get(1));
+        assertEquals("todo second", texts.get(2));
+        assertTrue(texts.get(3).contains("second"), texts.get(3));
+        assertEquals("list", texts.get(4));
+        assertTrue(texts.get(5).indexOf("first") < texts.get(5).indexOf("second"), texts.get(5));
+        assertFalse(changedOnFxThread.contains(false), "conversation changed off the JavaFX thread");
+    }
+
+    private void send(String input) {
+        userInput.setText(input);
+        sendButton.fire();
+    }
+
+    /**
+     * Waits until no pending bubble is left, and returns a copy of the conversation.
+     */
+    private List<ChatMessage> waitForReplies() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(REPLY_TIMEOUT_MILLIS);
+        while (true) {
+            List<ChatMessage> items = ChatListTest.runOnFxThread(() -> new ArrayList<>(dialogList.getItems()));
+            if (items.stream().noneMatch(message -> PENDING_TYPE.equals(message.getMessageType()))) {
+                return items;
+            }
+            assertTrue(System.nanoTime() < deadline, "replies still pending");
+            Thread.sleep(20);
+        }
+    }
+}
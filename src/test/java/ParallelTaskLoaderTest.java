@@ -0,0 +1,197 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cherry.Cherry;
+import cherry.storage.LoadStatistics;
+import cherry.storage.ParallelTaskLoader;
+import cherry.storage.Storage;
+import cherry.task.Task;
+
+public class ParallelTaskLoaderTest {
+    private static final int LINE_COUNT = 40_000;
+    private static final int CORRUPT_EVERY = 997;
+
+    @TempDir
+    Path dir;
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @BeforeEach
+    public void captureOutput() {
+        System.setOut(new PrintStream(output, true));
+    }
+
+    @AfterEach
+    public void restoreOutput() {
+        System.setOut(originalOut);
+        pool.shutdown();
+    }
+
+    @Test
+    public void load_largeFileWithCorruptLines_keepsFileOrder() throws IOException {
+        File file = writeLargeFile("\n");
+        assertTrue(file.length() > 1024 * 1024);
+        LoadStatistics statistics = new LoadStatistics();
+
+        List<Task> tasks = new ParallelTaskLoader(pool).load(file, statistics);
+
+        assertEquals(getExpectedDescriptions(), toDescriptions(tasks));
+        assertEquals(getExpectedSkippedLines(), getPrintedLines());
+        assertEquals(LINE_COUNT, statistics.getLineCount());
+        assertEquals(getExpectedSkippedLines().size(), statistics.getSkippedCount());
+    }
+
+    @Test
+    public void load_windowsLineEndings_carriageReturnsDropped() throws IOException {
+        File file = writeLargeFile("\r\n");
+
+        List<Task> tasks = new ParallelTaskLoader(pool).load(file, new LoadStatistics());
+
+        assertEquals(getExpectedDescriptions(), toDescriptions(tasks));
+        assertEquals(getExpectedSkippedLines(), getPrintedLines());
+    }
+
+    @Test
+    public void load_largeDataFile_statisticsRecorded() throws IOException {
+        File file = writeLargeFile("\n");
+        Storage storage = new Storage(file.getPath());
+
+        List<Task> tasks = storage.load();
+        storage.close();
+
+        LoadStatistics statistics = storage.getLastLoadStatistics();
+        assertEquals(getExpectedDescriptions(), toDescriptions(tasks));
+        assertEquals(LINE_COUNT, statistics.getLineCount());
+        assertTrue(statistics.getLinesPerSecond() > 0);
+        assertTrue(statistics.toString().endsWith(" lines/s"));
+    }
+
+    @Test
+    public void load_largeFile_noNativeCopyOfWholeFile() throws Exception {
+        File file = writeLargeFile("\n");
+        BufferPoolMXBean directBuffers = getDirectBufferPool();
+        List<Task> tasks = new ArrayList<>();
+        long[] directGrowth = new long[1];
+
+        // A new thread starts without cached native buffers, and drops any it caches when it ends
+        Thread loader = new Thread(() -> {
+            long before = directBuffers.getMemoryUsed();
+            try {
+                tasks.addAll(new ParallelTaskLoader(pool).load(file, new LoadStatistics()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            directGrowth[0] = directBuffers.getMemoryUsed() - before;
+        });
+        loader.start();
+        loader.join();
+
+        assertEquals(getExpectedDescriptions(), toDescriptions(tasks));
+        assertTrue(directGrowth[0] <= 1024 * 1024, "native buffer growth: " + directGrowth[0]);
+    }
+
+    @Test
+    public void startup_statsNotAskedFor_printsNothing() throws IOException {
+        File file = writeSmallFile();
+
+        new Cherry(file.getPath());
+
+        assertEquals(List.of(), getPrintedLines());
+    }
+
+    @Test
+    public void startup_statsProperty_printsThroughput() throws IOException {
+        File file = writeSmallFile();
+        System.setProperty(LoadStatistics.PROPERTY, "true");
+        try {
+            new Cherry(file.getPath());
+        } finally {
+            System.clearProperty(LoadStatistics.PROPERTY);
+        }
+
+        List<String> printed = getPrintedLines();
+        assertEquals(1, printed.size());
+        assertTrue(printed.get(0).startsWith("Loaded 2 lines (0 skipped) in "), printed.get(0));
+    }
+
+    private static BufferPoolMXBean getDirectBufferPool() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool;
+            }
+        }
+        throw new IllegalStateException("No direct buffer pool");
+    }
+
+    private File writeSmallFile() throws IOException {
+        Path file = dir.resolve("cherry.txt");
+        Files.write(file, List.of("(T) | [ ] | task 1", "(T) | [X] | task 2"));
+        return file.toFile();
+    }
+
+    private File writeLargeFile(String lineSeparator) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= LINE_COUNT; i += 1) {
+            if (i % CORRUPT_EVERY == 0) {
+                text.append("corrupt line ").append(i);
+            } else {
+                text.append("(T) | [ ] | task ").append(i).append(" with some padding to make the file larger");
+            }
+            text.append(lineSeparator);
+        }
+        Path file = dir.resolve("tasks.txt");
+        Files.writeString(file, text, Charset.defaultCharset());
+        return file.toFile();
+    }
+
+    private static List<String> getExpectedDescriptions() {
+        List<String> descriptions = new ArrayList<>();
+        for (int i = 1; i <= LINE_COUNT; i += 1) {
+            if (i % CORRUPT_EVERY != 0) {
+                descriptions.add("task " + i + " with some padding to make the file larger");
+            }
+        }
+        return descriptions;
+    }
+
+    private static List<String> getExpectedSkippedLines() {
+        List<String> lines = new ArrayList<>();
+        for (int i = CORRUPT_EVERY; i <= LINE_COUNT; i += CORRUPT_EVERY) {
+            lines.add("Skipped corrupted line: Invalid task format: corrupt line " + i);
+        }
+        return lines;
+    }
+
+    private List<String> getPrintedLines() {
+        return output.toString().lines().toList();
+    }
+
+    private static List<String> toDescriptions(List<Task> tasks) {
+        List<String> descriptions = new ArrayList<>();
+        for (Task task : tasks) {
+            descriptions.add(task.getDescription());
+        }
+        return descriptions;
+    }
+}
@@ -3,9 +3,16 @@ import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import cherry.command.AddCommand;
 import cherry.command.ByeCommand;
@@ -13,12 +20,21 @@ import cherry.command.Command;
 import cherry.command.DeleteCommand;
 import cherry.command.ListCommand;
 import cherry.command.MarkCommand;
+import cherry.command.RedoCommand;
+import cherry.command.UndoCommand;
 import cherry.command.UnmarkCommand;
+import cherry.command.UpdateCommand;
 import cherry.exception.CherryException;
 import cherry.parser.Parser;
+import cherry.storage.Storage;
+import cherry.task.Event;
+import cherry.task.TaskList;
+import cherry.ui.Ui;
 
 
 public class ParserTest {
+    @TempDir
+    Path dir;
 
     @Test
     public void parse_byeCommand_success() throws CherryException {
@@ -54,16 +70,19 @@ public class ParserTest {
             parser.parse("todo");
             fail(); // Should not reach this line
         } catch (CherryException e) {
-            assertEquals("No task description", e.getMessage());
+            assertEquals("Your todo needs more details!\n"
+                    + "Usage: todo DESCRIPTION\n"
+                    + "Example: todo read book", e.getMessage());
         }
     }
 
     @Test
     public void parse_deadlineCommand_success() throws CherryException {
         Parser parser = new Parser();
-        Command command = parser.parse("deadline return book /by 2024-12-31");
+        String nextYear = LocalDate.now().plusYears(1).toString();
+        Command command = parser.parse("deadline return book /by " + nextYear);
         assertInstanceOf(AddCommand.class, command);
-        command = parser.parse("DEADLINE return book /by 2024-12-31");
+        command = parser.parse("DEADLINE return book /by " + nextYear);
         assertInstanceOf(AddCommand.class, command);
     }
 
@@ -74,7 +93,7 @@ public class ParserTest {
             parser.parse("deadline return book");
             fail();
         } catch (CherryException e) {
-            assertEquals("/by not found in command", e.getMessage());
+            assertEquals("'/by' is missing from your command.\nDid you forget to add it?", e.getMessage());
         }
     }
 
@@ -85,7 +104,7 @@ public class ParserTest {
             parser.parse("deadline /by 2024-12-31");
             fail();
         } catch (CherryException e) {
-            assertEquals("Please give a deadline description", e.getMessage());
+            assertEquals("What's the deadline for?\nAdd a description before /by.", e.getMessage());
         }
     }
 
@@ -96,7 +115,7 @@ public class ParserTest {
             parser.parse("deadline return book /by 2024-13-45");
             fail();
         } catch (CherryException e) {
-            assertTrue(e.getMessage().contains("Invalid date format"));
+            assertTrue(e.getMessage().startsWith("'2024-13-45' is not a valid date."));
         }
     }
 
@@ -116,7 +135,7 @@ public class ParserTest {
             parser.parse("event meeting /to 4pm");
             fail();
         } catch (CherryException e) {
-            assertEquals("/from not found in command", e.getMessage());
+            assertEquals("'/from' is missing from your command.\nDid you forget to add it?", e.getMessage());
         }
     }
 
@@ -127,7 +146,7 @@ public class ParserTest {
             parser.parse("event meeting /from 2pm");
             fail();
         } catch (CherryException e) {
-            assertEquals("/to not found in command", e.getMessage());
+            assertEquals("'/to' is missing from your command.\nDid you forget to add it?", e.getMessage());
         }
     }
 
@@ -138,7 +157,7 @@ public class ParserTest {
             parser.parse("event meeting /to 4pm /from 2pm");
             fail();
         } catch (CherryException e) {
-            assertEquals("/from must come before /to", e.getMessage());
+            assertEquals("/from must come before /to in your command.", e.getMessage());
         }
     }
 
@@ -158,7 +177,7 @@ public class ParserTest {
             parser.parse("mark");
             fail();
         } catch (CherryException e) {
-            assertEquals("Missing task number", e.getMessage());
+            assertTrue(e.getMessage().startsWith("Please provide a task number."));
         }
     }
 
@@ -169,7 +188,7 @@ public class ParserTest {
             parser.parse("mark abc");
             fail();
         } catch (CherryException e) {
-            assertEquals("Invalid task number", e.getMessage());
+            assertTrue(e.getMessage().startsWith("'abc' is not a valid task number."));
         }
     }
 
@@ -198,7 +217,7 @@ public class ParserTest {
             parser.parse("");
             fail();
         } catch (CherryException e) {
-            assertEquals("No user input :(", e.getMessage());
+            assertTrue(e.getMessage().startsWith("I didn't catch that! Please type a command."));
         }
     }
 
@@ -209,7 +228,7 @@ public class ParserTest {
             parser.parse("unknown command");
             fail();
         } catch (CherryException e) {
-            assertEquals("Sorry, the task cafe can't help with that yet!", e.getMessage());
+            assertTrue(e.getMessage().startsWith("I don't recognise 'unknown' as a command."));
         }
     }
 
@@ -229,7 +248,230 @@ public class ParserTest {
             parser.getDate("invalid-date");
             fail();
         } catch (CherryException e) {
-            assertTrue(e.getMessage().contains("Invalid date format"));
+            assertTrue(e.getMessage().startsWith("'invalid-date' is not in the right format."));
+        }
+    }
+
+    @Test
+    public void parse_irregularSpacing_argumentsSingleSpaced() throws Exception {
+        TaskList taskList = new TaskList();
+
+        execute("  todo \t read   book  ", taskList);
+        execute("event  team   meeting /from  Mon   2pm /to 4pm", taskList);
+
+        assertEquals("read book", taskList.getTask(1).getDescription());
+        Event event = (Event) taskList.getTask(2);
+        assertEquals("team meeting", event.getDescription());
+        assertEquals("Mon 2pm", event.getFrom());
+        assertEquals("4pm", event.getTo());
+    }
+
+    @Test
+    public void parse_updateFlags_eachFieldReadUpToNextFlag() throws Exception {
+        TaskList taskList = new TaskList();
+        execute("event meeting /from 2pm /to 4pm", taskList);
+
+        execute("update 1 /to  5pm /desc  team   sync", taskList);
+
+        Event event = (Event) taskList.getTask(1);
+        assertEquals("team sync", event.getDescription());
+        assertEquals("2pm", event.getFrom());
+        assertEquals("5pm", event.getTo());
+    }
+
+    @Test
+    public void parse_flagRepeated_exceptionThrown() {
+        Parser parser = new Parser();
+
+        assertEquals("'/by' appears 2 times.\nPlease use each flag only once.",
+                getErrorMessage(parser, "deadline report /by 2030-01-01 /by 2030-01-02"));
+        assertEquals("'/to' is missing from your command.\nDid you forget to add it?",
+                getErrorMessage(parser, "event meeting /from 2pm"));
+    }
+
+    @Test
+    public void parse_taskNumberTooLargeForInt_tooHighMessage() {
+        Parser parser = new Parser();
+
+        assertTrue(getErrorMessage(parser, "mark 2147483647").startsWith("Task number 2147483647 is too high!"));
+        assertTrue(getErrorMessage(parser, "mark 99999999999999999999")
+                .startsWith("Task number 99999999999999999999 is too high!"));
+        assertTrue(getErrorMessage(parser, "delete 3-2147483648")
+                .startsWith("Task number 2147483648 is too high!"));
+    }
+
+    @Test
+    public void parse_taskNumberNotDigits_exceptionThrown() {
+        Parser parser = new Parser();
+
+        assertTrue(getErrorMessage(parser, "mark 0").startsWith("Task numbers start from 1."));
+        assertTrue(getErrorMessage(parser, "mark 1a").startsWith("'1a' is not a valid task number."));
+        assertTrue(getErrorMessage(parser, "mark -1").startsWith("'-1' is not a valid range of task numbers."));
+        assertTrue(getErrorMessage(parser, "mark \u0661").startsWith("'\u0661' is not a valid task number."));
+        assertTrue(getErrorMessage(parser, "list 0").startsWith("'0' is not a valid page number."));
+        assertTrue(getErrorMessage(parser, "list 2 2147483648").startsWith("'2147483648' is not a valid page size."));
+    }
+
+    @Test
+    public void parse_taskIdDigits_upToMaxIdDigits() throws CherryException {
+        Parser parser = new Parser();
+
+        assertInstanceOf(MarkCommand.class, parser.parse("mark #123456789012345678"));
+        assertTrue(getErrorMessage(parser, "mark #1234567890123456789")
+                .startsWith("'#1234567890123456789' is not a valid task id."));
+        assertTrue(getErrorMessage(parser, "mark #0").startsWith("'#0' is not a valid task id."));
+        assertTrue(getErrorMessage(parser, "mark #").startsWith("'#' is not a valid task id."));
+        assertTrue(getErrorMessage(parser, "mark #1x").startsWith("'#1x' is not a valid task id."));
+    }
+
+    @Test
+    public void getDate_malformedDate_formatMessage() {
+        Parser parser = new Parser();
+        for (String date : new String[] {"2025-1-01", "2025/01/01", "20250101", "2025-01-0a", "+202-01-01",
+                                         "2025-01-01x", "2025-01-\u0661\u0662"}) {
+            try {
+                parser.getDate(date);
+                fail(date);
+            } catch (CherryException e) {
+                assertTrue(e.getMessage().startsWith("'" + date + "' is not in the right format."), date);
+            }
+        }
+    }
+
+    @Test
+    public void getDate_impossibleDate_validDateMessage() {
+        Parser parser = new Parser();
+        for (String date : new String[] {"2025-02-29", "2025-13-01", "2025-00-10", "2025-04-31", "2025-01-00"}) {
+            try {
+                parser.getDate(date);
+                fail(date);
+            } catch (CherryException e) {
+                assertTrue(e.getMessage().startsWith("'" + date + "' is not a valid date."), date);
+            }
+        }
+    }
+
+    @Test
+    public void getDate_rangeEnds_onlyDatesInsideAccepted() throws CherryException {
+        SettableClock clock = new SettableClock(LocalDateTime.of(2025, 3, 15, 12, 0));
+        Parser parser = new Parser(clock);
+
+        assertEquals(LocalDate.of(2015, 3, 15), parser.getDate("2015-03-15"));
+        assertEquals(LocalDate.of(2075, 3, 15), parser.getDate("2075-03-15"));
+        assertTrue(getDateErrorMessage(parser, "2015-03-14")
+                .startsWith("'2015-03-14' is more than 10 years in the past."));
+        assertTrue(getDateErrorMessage(parser, "2075-03-16")
+                .startsWith("'2075-03-16' is more than 50 years in the future."));
+    }
+
+    @Test
+    public void parse_deadlineAfterMidnight_todayRefreshed() throws CherryException {
+        SettableClock clock = new SettableClock(LocalDateTime.of(2025, 3, 15, 23, 59, 59));
+        Parser parser = new Parser(clock);
+
+        assertInstanceOf(AddCommand.class, parser.parse("deadline report /by 2025-03-15"));
+        assertTrue(getErrorMessage(parser, "deadline report /by 2025-03-14")
+                .startsWith("That deadline has already passed!"));
+        assertTrue(getDateErrorMessage(parser, "2075-03-16").startsWith("'2075-03-16' is more than 50 years"));
+
+        clock.set(LocalDateTime.of(2025, 3, 16, 0, 0, 1));
+
+        assertTrue(getErrorMessage(parser, "deadline report /by 2025-03-15")
+                .startsWith("That deadline has already passed!"));
+        assertEquals(LocalDate.of(2075, 3, 16), parser.getDate("2075-03-16"));
+    }
+
+    @Test
+    public void parse_uniquePrefixOfThreeLetters_runsCommand() throws CherryException {
+        Parser parser = new Parser();
+
+        assertInstanceOf(AddCommand.class, parser.parse("tod read book"));
+        assertInstanceOf(AddCommand.class, parser.parse("DEA report /by " + LocalDate.now().plusYears(1)));
+        assertInstanceOf(DeleteCommand.class, parser.parse("del 1"));
+        assertInstanceOf(UnmarkCommand.class, parser.parse("unm 1"));
+        assertInstanceOf(UndoCommand.class, parser.parse("und"));
+        assertInstanceOf(RedoCommand.class, parser.parse("red"));
+        assertInstanceOf(UpdateCommand.class, parser.parse("upd 1 /desc report"));
+    }
+
+    @Test
+    public void parse_prefixTooShortOrAmbiguous_suggestsCompletions() {
+        Parser parser = new Parser();
+
+        assertEquals("I don't recognise 'de' as a command. Did you mean one of: deadline, delete?\n"
+                + "Type 'help' to see all available commands!", getErrorMessage(parser, "de 1"));
+        assertTrue(getErrorMessage(parser, "un").startsWith("I don't recognise 'un' as a command. "
+                + "Did you mean one of: unmark, undo?"));
+        assertTrue(getErrorMessage(parser, "to read book").startsWith("I don't recognise 'to' as a command. "
+                + "Did you mean 'todo'?"));
+    }
+
+    @Test
+    public void parse_typo_suggestsClosestCommand() {
+        Parser parser = new Parser();
+
+        assertTrue(getErrorMessage(parser, "dleete 1").contains("Did you mean 'delete'?"));
+        assertTrue(getErrorMessage(parser, "mrak 1").contains("Did you mean 'mark'?"));
+        assertTrue(getErrorMessage(parser, "lsit").contains("Did you mean 'list'?"));
+        // As close to 'undo' as to 'redo', so the command registered first wins.
+        assertTrue(getErrorMessage(parser, "rndo").contains("Did you mean 'undo'?"));
+        assertEquals("I don't recognise 'xyzzy' as a command. \nType 'help' to see all available commands!",
+                getErrorMessage(parser, "xyzzy"));
+    }
+
+    private void execute(String input, TaskList taskList) throws Exception {
+        Storage storage = new Storage(dir.resolve("tasks.txt").toString());
+        new Parser().parse(input).execute(taskList, new Ui(), storage);
+        storage.close();
+    }
+
+    private static String getErrorMessage(Parser parser, String input) {
+        try {
+            parser.parse(input);
+            fail(input);
+            return null;
+        } catch (CherryException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String getDateErrorMessage(Parser parser, String input) {
+        try {
+            parser.getDate(input);
+            fail(input);
+            return null;
+        } catch (CherryException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Represents a clock in UTC whose time is set by the test.
+     */
+    private static class SettableClock extends Clock {
+        private Instant instant;
+
+        SettableClock(LocalDateTime time) {
+            set(time);
+        }
+
+        void set(LocalDateTime time) {
+            instant = time.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
         }
     }
 }
@@ -0,0 +1,119 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cherry.storage.DurabilityPolicy;
+import cherry.storage.Journal;
+import cherry.storage.SnapshotFormat;
+import cherry.storage.SnapshotWriter;
+import cherry.task.Deadline;
+import cherry.task.Event;
+import cherry.task.Task;
+import cherry.task.Todo;
+
+/**
+ * Compares the saved text against golden files written by the Writer-based serializers
+ * that {@link Task#appendSaveFormat(StringBuilder)} replaced.
+ */
+public class SaveFormatGoldenTest {
+    // Enough copies of the tasks for the snapshot writer to empty its buffer several times.
+    private static final int REPEAT_COUNT = 500;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void writeTemp_everyTaskType_matchesGoldenSnapshot() throws IOException {
+        File file = dir.resolve("tasks.txt.tmp").toFile();
+
+        new SnapshotWriter(DurabilityPolicy.NEVER).writeTemp(file, createTasks(), SnapshotFormat.TEXT);
+
+        assertArrayEquals(readGolden("snapshot.txt").getBytes(Charset.defaultCharset()),
+                Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void writeTemp_largerThanBuffer_matchesGoldenSnapshot() throws IOException {
+        File file = dir.resolve("tasks.txt.tmp").toFile();
+        List<Task> tasks = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < REPEAT_COUNT; i += 1) {
+            tasks.addAll(createTasks());
+            expected.append(readGolden("snapshot.txt"));
+        }
+
+        new SnapshotWriter(DurabilityPolicy.NEVER).writeTemp(file, tasks, SnapshotFormat.TEXT);
+
+        assertArrayEquals(expected.toString().getBytes(Charset.defaultCharset()),
+                Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void format_everyTaskType_matchesGoldenJournal() throws IOException {
+        List<Task> tasks = createTasks();
+        List<String> records = new ArrayList<>();
+        for (Task task : tasks) {
+            records.add(Journal.formatAdd(task));
+        }
+        for (int i = 0; i < tasks.size(); i += 1) {
+            records.add(Journal.formatReplace(i + 1, tasks.get(i)));
+        }
+        records.add(Journal.formatMark(1));
+        records.add(Journal.formatUnmark(2));
+        records.add(Journal.formatDelete(10));
+
+        assertEquals(readGolden("journal.txt"), String.join(System.lineSeparator(), records) + System.lineSeparator());
+    }
+
+    @Test
+    public void toSaveFormat_taskWithId_goldenLineAfterId() throws IOException {
+        List<Task> tasks = createTasks();
+        String[] lines = readGolden("snapshot.txt").split(System.lineSeparator());
+        for (int i = 0; i < tasks.size(); i += 1) {
+            Task task = tasks.get(i);
+            task.assignId(i + 7);
+
+            assertEquals("#" + (i + 7) + " | " + lines[i], task.toSaveFormat());
+        }
+    }
+
+    /**
+     * Returns the same tasks the golden files were written from.
+     */
+    private static List<Task> createTasks() {
+        return List.of(
+                new Todo("read book"),
+                new Todo("return book", true),
+                new Todo("buy milk, eggs & bread (2 litres)"),
+                new Deadline("submit report", LocalDate.of(2025, 1, 10)),
+                new Deadline("pay rent", true, LocalDate.of(2025, 12, 31)),
+                new Deadline("ancient deadline", LocalDate.of(5, 3, 7)),
+                new Deadline("medieval deadline", true, LocalDate.of(999, 10, 1)),
+                new Deadline("far future deadline", LocalDate.of(10000, 1, 1)),
+                new Event("project meeting", "Mon 2pm", "4pm"),
+                new Event("conference", true, "2025-03-01", "2025-03-02"));
+    }
+
+    /**
+     * Returns a golden file with its line endings changed to this platform's, as the old writers used.
+     */
+    private static String readGolden(String name) throws IOException {
+        try (InputStream in = SaveFormatGoldenTest.class.getResourceAsStream("/golden/" + name)) {
+            assert in != null : "Golden file should exist";
+            String text = new String(in.readAllBytes(), Charset.defaultCharset());
+            return text.replace("\n", System.lineSeparator());
+        }
+    }
+}
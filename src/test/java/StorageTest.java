@@ -0,0 +1,182 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cherry.storage.DurabilityPolicy;
+import cherry.storage.Journal;
+import cherry.storage.Storage;
+import cherry.task.Task;
+import cherry.task.Todo;
+
+public class StorageTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void load_afterSaveAndAppends_replaysJournal() throws IOException {
+        String filePath = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        storage.save(createTasks(3));
+        storage.appendAdd(new Todo("task 4"));
+        storage.appendMark(1, 2);
+        storage.appendDelete(2, 3);
+        storage.appendUpdate(2, new Todo("task 4 changed"));
+        storage.close();
+
+        List<Task> loaded = new Storage(filePath).load();
+
+        assertEquals(List.of("#1 | (T) | [X] | task 1", "#2 | (T) | [ ] | task 4 changed"), toSaveFormats(loaded));
+    }
+
+    @Test
+    public void save_afterAppends_foldsJournalIntoSnapshot() throws IOException {
+        String filePath = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        storage.save(createTasks(1));
+        storage.appendAdd(new Todo("task 2"));
+        List<Task> tasks = storage.load();
+        storage.save(tasks);
+        storage.close();
+
+        assertFalse(new File(filePath + ".journal").exists());
+        assertFalse(new File(filePath + ".journal.old").exists());
+        assertEquals(List.of("#1 | (T) | [ ] | task 1", "#2 | (T) | [ ] | task 2"),
+                Files.readAllLines(Path.of(filePath)));
+    }
+
+    @Test
+    public void load_crashDuringCompaction_foldsOldJournalInFirst() throws IOException {
+        String filePath = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        storage.save(createTasks(2));
+        storage.close();
+        // The journal was moved aside for compaction, and more records were appended before the crash.
+        Files.write(Path.of(filePath + ".journal.old"),
+                List.of(Journal.formatAdd(new Todo("task 3")), Journal.formatDelete(1)));
+        Files.write(Path.of(filePath + ".journal"),
+                List.of(Journal.formatMark(2), "A|(D) | [ ] | task 4 | 20"));
+
+        List<Task> loaded = new Storage(filePath).load();
+
+        assertEquals(List.of("#2 | (T) | [ ] | task 2", "#3 | (T) | [X] | task 3"), toSaveFormats(loaded));
+    }
+
+    @Test
+    public void save_afterCrashDuringCompaction_keepsRecordsFromBothJournals() throws IOException {
+        String filePath = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        storage.save(createTasks(1));
+        storage.close();
+        Files.write(Path.of(filePath + ".journal.old"), List.of(Journal.formatAdd(new Todo("task 2"))));
+        Files.write(Path.of(filePath + ".journal"), List.of(Journal.formatMark(2)));
+
+        Storage reopened = new Storage(filePath);
+        reopened.save(reopened.load());
+        reopened.appendAdd(new Todo("task 3"));
+        reopened.close();
+
+        assertFalse(new File(filePath + ".journal.old").exists());
+        assertEquals(List.of("#1 | (T) | [ ] | task 1", "#2 | (T) | [X] | task 2", "#3 | (T) | [ ] | task 3"),
+                toSaveFormats(new Storage(filePath).load()));
+    }
+
+    @Test
+    public void appendAdd_journalPastThreshold_compactedIntoSnapshot() throws IOException {
+        String filePath = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath, 200, DurabilityPolicy.NEVER, null);
+        storage.save(createTasks(1));
+        for (int i = 2; i <= 20; i += 1) {
+            storage.appendAdd(new Todo("task " + i));
+        }
+        storage.close();
+
+        assertFalse(new File(filePath + ".journal.old").exists());
+        assertTrue(new File(filePath + ".journal").length() < 200);
+        assertTrue(Files.readAllLines(Path.of(filePath)).size() > 1);
+        List<Task> loaded = new Storage(filePath).load();
+        assertEquals(20, loaded.size());
+        assertEquals("task 20", loaded.get(19).getDescription());
+    }
+
+    @Test
+    public void load_leftoverTempWithOriginal_tempDiscarded() throws IOException {
+        String filePath = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        storage.save(createTasks(2));
+        storage.close();
+        // A save was interrupted while writing the temporary snapshot, before the old journal was deleted.
+        Files.write(Path.of(filePath + ".journal.old"), List.of(Journal.formatMark(2)));
+        Files.write(Path.of(filePath + ".tmp"), List.of("(T) | [ ] | task 1", "(T) | [ ] | tas"));
+
+        List<Task> loaded = new Storage(filePath).load();
+
+        assertFalse(new File(filePath + ".tmp").exists());
+        assertEquals(List.of("#1 | (T) | [ ] | task 1", "#2 | (T) | [X] | task 2"), toSaveFormats(loaded));
+    }
+
+    @Test
+    public void load_completeTempWithOriginal_tempCommitted() throws IOException {
+        String filePath = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        storage.save(createTasks(1));
+        storage.close();
+        // A save finished the temporary snapshot and deleted the old journal, but crashed before the rename.
+        Files.write(Path.of(filePath + ".tmp"), List.of("(T) | [X] | task 1", "(T) | [ ] | task 2"));
+
+        List<Task> loaded = new Storage(filePath).load();
+
+        assertFalse(new File(filePath + ".tmp").exists());
+        assertEquals(List.of("#1 | (T) | [X] | task 1", "#2 | (T) | [ ] | task 2"), toSaveFormats(loaded));
+    }
+
+    @Test
+    public void load_tempWithoutOriginal_tempCommitted() throws IOException {
+        String filePath = dir.resolve("tasks.txt").toString();
+        Files.write(Path.of(filePath + ".tmp"), List.of("(T) | [ ] | task 1"));
+
+        List<Task> loaded = new Storage(filePath).load();
+
+        assertFalse(new File(filePath + ".tmp").exists());
+        assertTrue(new File(filePath).exists());
+        assertEquals(List.of("#1 | (T) | [ ] | task 1"), toSaveFormats(loaded));
+    }
+
+    @Test
+    public void load_tempAndOldJournalWithoutOriginal_startsFromJournal() throws IOException {
+        String filePath = dir.resolve("tasks.txt").toString();
+        // The first save of a new data file was interrupted before its temporary snapshot was complete.
+        Files.write(Path.of(filePath + ".journal.old"), List.of(Journal.formatAdd(new Todo("task 1"))));
+        Files.write(Path.of(filePath + ".tmp"), List.of("(T) | [ ] | tas"));
+
+        List<Task> loaded = new Storage(filePath).load();
+
+        assertFalse(new File(filePath + ".tmp").exists());
+        assertEquals(List.of("#1 | (T) | [ ] | task 1"), toSaveFormats(loaded));
+    }
+
+    private static List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= count; i += 1) {
+            tasks.add(new Todo("task " + i));
+        }
+        return tasks;
+    }
+
+    private static List<String> toSaveFormats(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.toSaveFormat());
+        }
+        return lines;
+    }
+}
@@ -1,13 +1,22 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
+import cherry.command.FindCommand;
 import cherry.exception.CherryException;
+import cherry.task.Deadline;
 import cherry.task.Task;
 import cherry.task.TaskList;
+import cherry.task.TaskType;
+import cherry.task.Todo;
+import cherry.ui.Ui;
 
 public class TaskListTest {
 
@@ -20,8 +29,8 @@ public class TaskListTest {
     @Test
     public void constructor_existingList_success() {
         ArrayList<Task> tasks = new ArrayList<>();
-        tasks.add(new Task("task 1"));
-        tasks.add(new Task("task 2"));
+        tasks.add(new Todo("task 1"));
+        tasks.add(new Todo("task 2"));
 
         TaskList taskList = new TaskList(tasks);
         assertEquals(2, taskList.getTaskCount());
@@ -30,7 +39,7 @@ public class TaskListTest {
     @Test
     public void addTask_singleTask_success() {
         TaskList taskList = new TaskList();
-        Task task = new Task("read book");
+        Task task = new Todo("read book");
         taskList.addTask(task);
 
         assertEquals(1, taskList.getTaskCount());
@@ -39,9 +48,9 @@ public class TaskListTest {
     @Test
     public void addTask_multipleTasks_success() {
         TaskList taskList = new TaskList();
-        taskList.addTask(new Task("task 1"));
-        taskList.addTask(new Task("task 2"));
-        taskList.addTask(new Task("task 3"));
+        taskList.addTask(new Todo("task 1"));
+        taskList.addTask(new Todo("task 2"));
+        taskList.addTask(new Todo("task 3"));
 
         assertEquals(3, taskList.getTaskCount());
     }
@@ -49,26 +58,26 @@ public class TaskListTest {
     @Test
     public void getTask_invalidIndexTooLarge_exceptionThrown() {
         TaskList taskList = new TaskList();
-        taskList.addTask(new Task("task 1"));
+        taskList.addTask(new Todo("task 1"));
 
         try {
             taskList.getTask(5);
             fail();
         } catch (CherryException e) {
-            assertEquals("This task does not exist, did you mean something else?", e.getMessage());
+            assertEquals("This task does not exist", e.getMessage());
         }
     }
 
     @Test
     public void getTask_invalidIndexNegative_exceptionThrown() {
         TaskList taskList = new TaskList();
-        taskList.addTask(new Task("task 1"));
+        taskList.addTask(new Todo("task 1"));
 
         try {
             taskList.getTask(-1);
             fail();
         } catch (CherryException e) {
-            assertEquals("This task does not exist, did you mean something else?", e.getMessage());
+            assertEquals("This task does not exist", e.getMessage());
         }
     }
 
@@ -83,13 +92,248 @@ public class TaskListTest {
         TaskList taskList = new TaskList();
         assertEquals(0, taskList.getTaskCount());
 
-        taskList.addTask(new Task("task 1"));
+        taskList.addTask(new Todo("task 1"));
         assertEquals(1, taskList.getTaskCount());
 
-        taskList.addTask(new Task("task 2"));
+        taskList.addTask(new Todo("task 2"));
         assertEquals(2, taskList.getTaskCount());
 
         taskList.deleteTask(0);
         assertEquals(1, taskList.getTaskCount());
     }
+
+    @Test
+    public void getDoneCount_afterMarkAndDelete_correctCount() throws CherryException {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("task 1"));
+        taskList.addTask(new Todo("task 2"));
+        taskList.addTask(new Todo("task 3"));
+        assertEquals(0, taskList.getDoneCount());
+
+        taskList.markTask(1);
+        taskList.markTask(3);
+        assertEquals(2, taskList.getDoneCount());
+        assertEquals(List.of(1, 3), taskList.getTaskNumbersByStatus(true));
+
+        taskList.deleteTask(0);
+        assertEquals(1, taskList.getDoneCount());
+        assertEquals(List.of(1), taskList.getTaskNumbersByStatus(false));
+    }
+
+    @Test
+    public void getDeadlinesBetween_afterUpdate_followsNewDate() throws CherryException {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("task 1"));
+        taskList.addTask(new Deadline("task 2", LocalDate.of(2025, 1, 10)));
+        taskList.addTask(new Deadline("task 3", LocalDate.of(2025, 2, 10)));
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 31);
+        assertEquals(List.of(2), taskList.getDeadlinesBetween(from, to));
+        assertEquals(2, taskList.getTypeCount(TaskType.DEADLINE));
+
+        taskList.updateTask(3, Map.of("by", "2025-01-20"));
+        assertEquals(List.of(2, 3), taskList.getDeadlinesBetween(from, to));
+        assertEquals(2, taskList.countDeadlinesBetween(from, to));
+    }
+
+    @Test
+    public void rollbackTransaction_afterChanges_restoresList() throws CherryException {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("task 1"));
+        taskList.addTask(new Deadline("task 2", LocalDate.of(2025, 1, 10)));
+        assertEquals(0, taskList.getDoneCount());
+
+        taskList.beginTransaction();
+        taskList.markTask(1);
+        taskList.updateTask(2, Map.of("desc", "changed"));
+        taskList.deleteTask(0);
+        taskList.addTask(new Todo("task 3"));
+        taskList.rollbackTransaction();
+
+        assertEquals(2, taskList.getTaskCount());
+        assertEquals("task 1", taskList.getTask(1).getDescription());
+        assertEquals("task 2", taskList.getTask(2).getDescription());
+        assertEquals(0, taskList.getDoneCount());
+    }
+
+    @Test
+    public void deleteTasks_severalTasks_keepsOthersInOrder() throws CherryException {
+        TaskList taskList = new TaskList();
+        for (int i = 1; i <= 6; i += 1) {
+            taskList.addTask(new Todo("task " + i));
+        }
+        taskList.markTask(4);
+
+        List<Task> deleted = taskList.deleteTasks(new int[] {1, 2, 5});
+
+        assertEquals(3, deleted.size());
+        assertEquals("task 5", deleted.get(2).getDescription());
+        assertEquals(3, taskList.getTaskCount());
+        assertEquals("task 3", taskList.getTask(1).getDescription());
+        assertEquals("task 6", taskList.getTask(3).getDescription());
+        assertEquals(List.of(2), taskList.getTaskNumbersByStatus(true));
+    }
+
+    @Test
+    public void getTaskNumber_afterDeletes_findsTaskById() throws CherryException {
+        TaskList taskList = new TaskList();
+        for (int i = 1; i <= 5; i += 1) {
+            taskList.addTask(new Todo("task " + i));
+        }
+        long id = taskList.getTask(4).getId();
+
+        taskList.deleteTasks(new int[] {1, 3});
+
+        assertEquals(2, taskList.getTaskNumber(id));
+        assertEquals("task 4", taskList.getTask(2).getDescription());
+        assertEquals(id, taskList.getTask(2).getId());
+    }
+
+    @Test
+    public void getSnapshot_listChangedAfterwards_snapshotUnchanged() throws CherryException {
+        TaskList taskList = new TaskList();
+        for (int i = 1; i <= 3; i += 1) {
+            taskList.addTask(new Todo("task " + i));
+        }
+        List<Task> snapshot = taskList.getSnapshot();
+
+        taskList.markTask(1);
+        taskList.deleteTask(1);
+        taskList.addTask(new Todo("task 4"));
+
+        assertEquals(3, snapshot.size());
+        assertEquals(false, snapshot.get(0).isDone());
+        assertEquals("task 2", snapshot.get(1).getDescription());
+        assertEquals(true, taskList.getTask(1).isDone());
+    }
+
+    @Test
+    public void undo_afterDeleteAndMark_restoresEachStep() throws CherryException {
+        TaskList taskList = new TaskList();
+        for (int i = 1; i <= 3; i += 1) {
+            taskList.addTask(new Todo("task " + i));
+        }
+        taskList.endUndoStep("add");
+        long id = taskList.getTask(2).getId();
+        taskList.deleteTask(1);
+        taskList.endUndoStep("delete 2");
+        taskList.markTask(1);
+        taskList.endUndoStep("mark 1");
+
+        assertEquals("mark 1", taskList.undo().getDescription());
+        assertEquals(false, taskList.getTask(1).isDone());
+        assertEquals("delete 2", taskList.undo().getDescription());
+        assertEquals("task 2", taskList.getTask(2).getDescription());
+        assertEquals(2, taskList.getTaskNumber(id));
+
+        taskList.redo();
+        assertEquals(2, taskList.getTaskCount());
+    }
+
+    @Test
+    public void undo_tasksLoadedWithoutIds_restoresUpdatedTask() throws CherryException {
+        List<Task> legacyTasks = List.of(new Todo("task 1"), new Todo("task 2"));
+        TaskList taskList = new TaskList(legacyTasks);
+        taskList.updateTask(1, Map.of("desc", "changed"));
+        taskList.endUndoStep("update 1 /desc changed");
+        taskList.addTask(new Todo("task 3"));
+        taskList.endUndoStep("todo task 3");
+
+        taskList.undo();
+        taskList.undo();
+
+        assertEquals(2, taskList.getTaskCount());
+        assertEquals("task 1", taskList.getTask(1).getDescription());
+        long id = taskList.getTask(1).getId();
+        assertTrue(id != 0);
+        assertEquals(1, taskList.getTaskNumber(id));
+        assertEquals(List.of(1), taskList.findTasks("task 1"));
+    }
+
+    @Test
+    public void findTasks_prefixOfWord_matchesAnyCase() {
+        TaskList taskList = createTaskList("read book", "return Books", "bookshelf repair", "notebook");
+
+        assertEquals(List.of(1, 2, 3), taskList.findTasks("boo"));
+        assertEquals(List.of(1, 2, 3), taskList.findTasks("BOOK"));
+        assertEquals(List.of(), taskList.findTasks("ook"));
+    }
+
+    @Test
+    public void findTasks_severalWords_everyWordMustMatch() {
+        TaskList taskList = createTaskList("read book", "read magazine", "buy book", "book to read");
+
+        assertEquals(List.of(1, 4), taskList.findTasks("rea boo"));
+        assertEquals(List.of(), taskList.findTasks("read milk"));
+    }
+
+    @Test
+    public void findTasksApproximately_typos_closestFirst() {
+        TaskList taskList = createTaskList("greeting cards", "meting notes", "project meeting", "buy milk");
+
+        assertEquals(List.of(3, 2, 1), taskList.findTasksApproximately("meeting", 20));
+        assertEquals(List.of(2, 3), taskList.findTasksApproximately("meting", 20));
+        assertEquals(List.of(), taskList.findTasksApproximately("zzzzzzz", 20));
+    }
+
+    @Test
+    public void findTasksApproximately_moreMatchesThanLimit_firstInListKept() {
+        TaskList taskList = new TaskList();
+        for (int i = 1; i <= 25; i += 1) {
+            taskList.addTask(new Todo("read book " + i));
+        }
+
+        List<Integer> taskNumbers = taskList.findTasksApproximately("bok", 20);
+
+        assertEquals(20, taskNumbers.size());
+        assertEquals(1, taskNumbers.get(0));
+        assertEquals(20, taskNumbers.get(19));
+    }
+
+    @Test
+    public void findCommand_moreApproximateMatchesThanShown_listsTwenty() throws CherryException {
+        TaskList taskList = new TaskList();
+        for (int i = 1; i <= 25; i += 1) {
+            taskList.addTask(new Todo("read book " + i));
+        }
+        FindCommand command = new FindCommand("bok", true);
+
+        command.execute(taskList, new Ui(), null);
+
+        assertTrue(command.toString().startsWith("Found 20 matching order(s):"));
+    }
+
+    @Test
+    public void findTasks_afterDeleteUpdateAndRollback_followsList() throws CherryException {
+        TaskList taskList = createTaskList("read book", "buy milk", "read news");
+
+        taskList.deleteTask(0);
+        assertEquals(List.of(2), taskList.findTasks("read"));
+
+        taskList.updateTask(1, Map.of("desc", "buy bread"));
+        assertEquals(List.of(), taskList.findTasks("milk"));
+        assertEquals(List.of(1), taskList.findTasks("bread"));
+        assertEquals(List.of(1), taskList.findTasksApproximately("bred", 20));
+
+        taskList.beginTransaction();
+        taskList.addTask(new Todo("read paper"));
+        taskList.deleteTask(0);
+        taskList.updateTask(1, Map.of("desc", "watch news"));
+        assertEquals(List.of(2), taskList.findTasks("paper"));
+        taskList.rollbackTransaction();
+
+        assertEquals(List.of(), taskList.findTasks("paper"));
+        assertEquals(List.of(), taskList.findTasks("watch"));
+        assertEquals(List.of(1), taskList.findTasks("bread"));
+        assertEquals(List.of(2), taskList.findTasks("read news"));
+        assertEquals(List.of(2), taskList.findTasksApproximately("nevs", 20));
+    }
+
+    private static TaskList createTaskList(String... descriptions) {
+        TaskList taskList = new TaskList();
+        for (String description : descriptions) {
+            taskList.addTask(new Todo(description));
+        }
+        return taskList;
+    }
 }
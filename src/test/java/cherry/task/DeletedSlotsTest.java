@@ -0,0 +1,92 @@
+package cherry.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class DeletedSlotsTest {
+
+    @Test
+    public void select_noneDeleted_positionIsSlot() {
+        assertEquals(0, DeletedSlots.NONE.size());
+        assertEquals(0, DeletedSlots.NONE.select(0));
+        assertEquals(12345, DeletedSlots.NONE.select(12345));
+    }
+
+    @Test
+    public void withDeleted_everyThirdSlot_positionsSkipDeletedSlots() {
+        DeletedSlots deleted = DeletedSlots.NONE;
+        List<Boolean> isDeleted = new ArrayList<>();
+        for (int slot = 0; slot < 1000; slot += 1) {
+            isDeleted.add(slot % 3 == 0);
+            if (slot % 3 == 0) {
+                deleted = deleted.withDeleted(slot);
+            }
+        }
+
+        assertAgrees(isDeleted, deleted);
+        assertEquals(1, deleted.select(0));
+        assertEquals(998, deleted.select(665));
+        // Past the last slot, positions carry on as if every later slot were live
+        assertEquals(1000, deleted.select(666));
+    }
+
+    @Test
+    public void withDeleted_olderVersion_unchanged() {
+        DeletedSlots first = DeletedSlots.NONE.withDeleted(5);
+        DeletedSlots second = first.withDeleted(2).withDeleted(100);
+        DeletedSlots third = second.withRestored(5);
+
+        assertEquals(6, first.select(5));
+        assertEquals(1, first.size());
+        assertEquals(7, second.select(5));
+        assertEquals(3, second.size());
+        assertEquals(6, third.select(5));
+        assertEquals(2, third.size());
+    }
+
+    @Test
+    public void withDeletedAndRestored_randomSteps_matchesPlainFlags() {
+        Random random = new Random(42);
+        DeletedSlots deleted = DeletedSlots.NONE;
+        List<Boolean> isDeleted = new ArrayList<>();
+        for (int i = 0; i < 300; i += 1) {
+            isDeleted.add(false);
+        }
+
+        for (int step = 0; step < 2000; step += 1) {
+            int slot = random.nextInt(isDeleted.size());
+            if (isDeleted.get(slot)) {
+                deleted = deleted.withRestored(slot);
+            } else {
+                deleted = deleted.withDeleted(slot);
+            }
+            isDeleted.set(slot, !isDeleted.get(slot));
+            if (step % 100 == 0) {
+                assertAgrees(isDeleted, deleted);
+            }
+        }
+        assertAgrees(isDeleted, deleted);
+    }
+
+    /**
+     * Checks the number of deleted slots, and that select finds the slot of every position.
+     */
+    private static void assertAgrees(List<Boolean> isDeleted, DeletedSlots deleted) {
+        int position = 0;
+        int deletedCount = 0;
+        for (int slot = 0; slot < isDeleted.size(); slot += 1) {
+            if (isDeleted.get(slot)) {
+                deletedCount += 1;
+            } else {
+                assertEquals(slot, deleted.select(position), "slot of position " + position);
+                position += 1;
+            }
+        }
+        assertEquals(deletedCount, deleted.size());
+    }
+}
@@ -0,0 +1,103 @@
+package cherry.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class FenwickTreeTest {
+
+    @Test
+    public void ofOnes_someDeleted_numbersAndSlotsAgree() {
+        FenwickTree tree = FenwickTree.ofOnes(1000);
+        List<Integer> counts = new ArrayList<>();
+        for (int i = 0; i < 1000; i += 1) {
+            counts.add(1);
+        }
+        for (int slot = 0; slot < 1000; slot += 3) {
+            tree.add(slot, -1);
+            counts.set(slot, 0);
+        }
+
+        assertAgrees(counts, tree);
+        // Task number 1 is the first live slot, and number 666 the last
+        assertEquals(1, tree.select(1));
+        assertEquals(998, tree.select(666));
+        assertEquals(1000, tree.select(667));
+    }
+
+    @Test
+    public void append_pastInitialCapacity_sumsKept() {
+        FenwickTree tree = FenwickTree.ofOnes(0);
+        List<Integer> counts = new ArrayList<>();
+        for (int i = 0; i < 300; i += 1) {
+            int count = i % 5 == 0 ? 0 : 1;
+            tree.append(count);
+            counts.add(count);
+            assertAgrees(counts, tree);
+        }
+    }
+
+    @Test
+    public void removeLast_thenAppend_sumsKept() {
+        FenwickTree tree = FenwickTree.ofOnes(40);
+        List<Integer> counts = new ArrayList<>();
+        for (int i = 0; i < 40; i += 1) {
+            counts.add(1);
+        }
+        tree.add(35, -1);
+        counts.set(35, 0);
+
+        for (int i = 0; i < 10; i += 1) {
+            tree.removeLast();
+            counts.remove(counts.size() - 1);
+        }
+        tree.append(1);
+        counts.add(1);
+        tree.append(0);
+        counts.add(0);
+
+        assertAgrees(counts, tree);
+    }
+
+    @Test
+    public void add_randomDeletesAndRestores_matchesPlainCounts() {
+        Random random = new Random(42);
+        FenwickTree tree = FenwickTree.ofOnes(257);
+        List<Integer> counts = new ArrayList<>();
+        for (int i = 0; i < 257; i += 1) {
+            counts.add(1);
+        }
+
+        for (int step = 0; step < 2000; step += 1) {
+            int slot = random.nextInt(counts.size());
+            int delta = counts.get(slot) == 1 ? -1 : 1;
+            tree.add(slot, delta);
+            counts.set(slot, counts.get(slot) + delta);
+            if (step % 100 == 0) {
+                assertAgrees(counts, tree);
+            }
+        }
+        assertAgrees(counts, tree);
+    }
+
+    /**
+     * Checks every prefix sum, and that select finds the slot of every running total.
+     */
+    private static void assertAgrees(List<Integer> counts, FenwickTree tree) {
+        assertEquals(counts.size(), tree.size());
+        int sum = 0;
+        for (int i = 0; i < counts.size(); i += 1) {
+            assertEquals(sum, tree.prefixSum(i));
+            sum += counts.get(i);
+            if (counts.get(i) == 1) {
+                assertEquals(i, tree.select(sum), "slot of number " + sum);
+            }
+        }
+        assertEquals(sum, tree.prefixSum(counts.size()));
+        assertEquals(counts.size(), tree.select(sum + 1));
+    }
+}
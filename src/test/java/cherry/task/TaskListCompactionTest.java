@@ -0,0 +1,167 @@
+package cherry.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import cherry.exception.CherryException;
+
+/**
+ * Checks that task numbers and ids keep finding the right tasks while deleted tasks are only
+ * marked as deleted, and after they are cut out of the list.
+ */
+public class TaskListCompactionTest {
+
+    @Test
+    public void deleteTask_largeListBelowThreshold_deletedSlotsKept() throws CherryException {
+        List<Task> expected = new ArrayList<>();
+        TaskList taskList = createTaskList(1000, expected);
+        List<Task> deleted = new ArrayList<>();
+
+        // A quarter of 1000 tasks is the threshold, so 249 deletes leave every place in the list
+        deleteSpreadOut(taskList, expected, deleted, 249);
+
+        assertEquals(1000, taskList.getSnapshot().getSlotCount());
+        assertMapping(taskList, expected, deleted);
+    }
+
+    @Test
+    public void deleteTask_largeListReachingThreshold_deletedSlotsCutOut() throws CherryException {
+        List<Task> expected = new ArrayList<>();
+        TaskList taskList = createTaskList(1000, expected);
+        List<Task> deleted = new ArrayList<>();
+
+        deleteSpreadOut(taskList, expected, deleted, 250);
+
+        assertEquals(750, taskList.getSnapshot().getSlotCount());
+        assertMapping(taskList, expected, deleted);
+    }
+
+    @Test
+    public void deleteTask_smallList_waitsForSixtyFourDeletes() throws CherryException {
+        List<Task> expected = new ArrayList<>();
+        TaskList taskList = createTaskList(100, expected);
+        List<Task> deleted = new ArrayList<>();
+
+        deleteSpreadOut(taskList, expected, deleted, 63);
+        assertEquals(100, taskList.getSnapshot().getSlotCount());
+        assertMapping(taskList, expected, deleted);
+
+        deleteSpreadOut(taskList, expected, deleted, 1);
+        assertEquals(36, taskList.getSnapshot().getSlotCount());
+        assertMapping(taskList, expected, deleted);
+    }
+
+    @Test
+    public void addTask_afterCompaction_numberedAfterLiveTasks() throws CherryException {
+        List<Task> expected = new ArrayList<>();
+        TaskList taskList = createTaskList(100, expected);
+        List<Task> deleted = new ArrayList<>();
+        deleteSpreadOut(taskList, expected, deleted, 64);
+
+        Task added = new Todo("added");
+        taskList.addTask(added);
+        expected.add(added);
+
+        assertEquals(37, taskList.getTaskNumber(added.getId()));
+        assertMapping(taskList, expected, deleted);
+    }
+
+    @Test
+    public void undo_deleteWhichCompacted_tasksBackInOldPlaces() throws CherryException {
+        List<Task> expected = new ArrayList<>();
+        TaskList taskList = createTaskList(200, expected);
+        taskList.endUndoStep("add");
+        int[] taskNumbers = new int[64];
+        for (int i = 0; i < taskNumbers.length; i += 1) {
+            taskNumbers[i] = 3 * i + 2;
+        }
+
+        List<Task> removed = taskList.deleteTasks(taskNumbers);
+        taskList.endUndoStep("delete");
+        assertEquals(136, taskList.getSnapshot().getSlotCount());
+
+        taskList.undo();
+        assertMapping(taskList, expected, List.of());
+
+        taskList.redo();
+        List<Task> remaining = new ArrayList<>(expected);
+        remaining.removeAll(removed);
+        assertMapping(taskList, remaining, removed);
+    }
+
+    @Test
+    public void deleteTask_duringTransaction_compactedOnlyOnCommit() throws CherryException {
+        List<Task> expected = new ArrayList<>();
+        TaskList taskList = createTaskList(100, expected);
+        List<Task> deleted = new ArrayList<>();
+
+        taskList.beginTransaction();
+        deleteSpreadOut(taskList, new ArrayList<>(expected), new ArrayList<>(), 70);
+        assertEquals(100, taskList.getSnapshot().getSlotCount());
+        taskList.rollbackTransaction();
+        assertMapping(taskList, expected, deleted);
+
+        taskList.beginTransaction();
+        deleteSpreadOut(taskList, expected, deleted, 70);
+        taskList.commitTransaction();
+        assertEquals(30, taskList.getSnapshot().getSlotCount());
+        assertMapping(taskList, expected, deleted);
+    }
+
+    private static TaskList createTaskList(int count, List<Task> expected) {
+        TaskList taskList = new TaskList();
+        for (int i = 1; i <= count; i += 1) {
+            Task task = new Todo("task " + i);
+            taskList.addTask(task);
+            expected.add(task);
+        }
+        // Builds the index now, so that later deletes and compactions must keep it up to date
+        taskList.findTasks("task");
+        return taskList;
+    }
+
+    /**
+     * Deletes tasks one at a time from places spread over the whole list, doing the same to expected.
+     */
+    private static void deleteSpreadOut(TaskList taskList, List<Task> expected, List<Task> deleted, int count) {
+        for (int i = 0; i < count; i += 1) {
+            int index = (i * 7) % expected.size();
+            taskList.deleteTask(index);
+            deleted.add(expected.remove(index));
+        }
+    }
+
+    /**
+     * Checks that every task number and id leads to the expected task, that no deleted id is found,
+     * and that the index finds the expected tasks by their task numbers.
+     */
+    private static void assertMapping(TaskList taskList, List<Task> expected, List<Task> deleted)
+            throws CherryException {
+        assertEquals(expected.size(), taskList.getTaskCount());
+        for (int i = 0; i < expected.size(); i += 1) {
+            Task task = expected.get(i);
+            assertEquals(task.getDescription(), taskList.getTask(i + 1).getDescription());
+            assertEquals(task.getId(), taskList.getTask(i + 1).getId());
+            assertEquals(i + 1, taskList.getTaskNumber(task.getId()));
+            assertEquals(task, taskList.getSnapshot().get(i));
+        }
+        for (Task task : deleted) {
+            assertThrows(CherryException.class, () -> taskList.getTaskNumber(task.getId()));
+        }
+        assertEquals(expected, new ArrayList<>(taskList.getSnapshot()));
+
+        List<Integer> matching = new ArrayList<>();
+        for (int i = 0; i < expected.size(); i += 1) {
+            if (expected.get(i).getDescription().startsWith("task 1")) {
+                matching.add(i + 1);
+            }
+        }
+        assertEquals(matching, taskList.findTasks("1"));
+        assertEquals(expected.size(), taskList.getTaskNumbersByType(TaskType.TODO).size());
+    }
+}
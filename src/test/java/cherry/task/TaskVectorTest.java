@@ -0,0 +1,109 @@
+package cherry.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskVectorTest {
+    // Past one leaf (32), one full root of leaves (1024) and a root of those (32768).
+    private static final int[] BOUNDARY_SIZES = {1, 31, 32, 33, 64, 65, 1024, 1056, 1057, 2080, 32800, 33825};
+
+    @Test
+    public void append_pastEachLevel_everyTaskFound() {
+        List<Task> tasks = createTasks(33825);
+        TaskVector vector = TaskVector.EMPTY;
+        int next = 0;
+
+        for (int size : BOUNDARY_SIZES) {
+            while (next < size) {
+                vector = vector.append(tasks.get(next));
+                next += 1;
+            }
+            assertContents(tasks.subList(0, size), vector);
+        }
+    }
+
+    @Test
+    public void set_pastEachLevel_oldVersionUnchanged() {
+        List<Task> tasks = createTasks(2080);
+        TaskVector vector = createVector(tasks);
+        Task changed = new Todo("changed");
+
+        for (int index : new int[] {0, 31, 32, 1023, 1024, 1055, 1056, 2047, 2079}) {
+            TaskVector next = vector.set(index, changed);
+
+            assertSame(changed, next.get(index));
+            assertSame(tasks.get(index), vector.get(index));
+            List<Task> expected = new ArrayList<>(tasks);
+            expected.set(index, changed);
+            assertContents(expected, next);
+        }
+        assertContents(tasks, vector);
+    }
+
+    @Test
+    public void removeLast_backThroughEachLevel_remainingTasksFound() {
+        List<Task> tasks = createTasks(33825);
+        TaskVector full = createVector(tasks);
+        TaskVector vector = full;
+
+        for (int i = BOUNDARY_SIZES.length - 1; i >= 0; i -= 1) {
+            int size = BOUNDARY_SIZES[i];
+            while (vector.size() > size) {
+                vector = vector.removeLast();
+            }
+            assertContents(tasks.subList(0, size), vector);
+            // A vector shrunk to this size can grow again
+            assertSame(tasks.get(0), vector.append(tasks.get(0)).get(size));
+        }
+        assertSame(TaskVector.EMPTY, vector.removeLast());
+        assertContents(tasks, full);
+    }
+
+    @Test
+    public void ofNulls_pastEachLevel_setAndAppendWork() {
+        Task task = new Todo("task");
+        for (int size : BOUNDARY_SIZES) {
+            TaskVector vector = TaskVector.ofNulls(size);
+            assertEquals(size, vector.size());
+
+            TaskVector changed = vector.set(size - 1, task).set(0, task).append(task);
+
+            assertSame(task, changed.get(0));
+            assertSame(task, changed.get(size - 1));
+            assertSame(task, changed.get(size));
+            for (int i = 1; i < size - 1; i += 1) {
+                assertNull(changed.get(i));
+            }
+            assertNull(vector.get(0));
+        }
+    }
+
+    private static List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= count; i += 1) {
+            tasks.add(new Todo("task " + i));
+        }
+        return tasks;
+    }
+
+    private static TaskVector createVector(List<Task> tasks) {
+        TaskVector vector = TaskVector.EMPTY;
+        for (Task task : tasks) {
+            vector = vector.append(task);
+        }
+        return vector;
+    }
+
+    private static void assertContents(List<Task> expected, TaskVector vector) {
+        assertEquals(expected.size(), vector.size());
+        for (int i = 0; i < expected.size(); i += 1) {
+            assertSame(expected.get(i), vector.get(i), "task at " + i);
+        }
+    }
+}